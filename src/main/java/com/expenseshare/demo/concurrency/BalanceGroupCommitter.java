@@ -0,0 +1,186 @@
+package com.expenseshare.demo.concurrency;
+
+import com.expenseshare.demo.dto.BalanceDelta;
+import com.expenseshare.demo.dto.ExpenseBalanceUpdateRequest;
+import com.expenseshare.demo.services.BalanceService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Group-commit stage in front of BalanceService.updateBalancesForExpense. Expense balance updates
+ * arriving within a short window on the same shard are netted per user pair and written in one
+ * transaction; each caller's future completes individually. If a batch fails its expenses are
+ * retried one at a time so one bad request does not fail the others.
+ */
+@Component
+@Slf4j
+public class BalanceGroupCommitter {
+
+    private final BalanceService balanceService;
+    private final GroupShardedExecutor shardedExecutor;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final ShardQueue[] queues;
+    private final DistributionSummary batchSizeSummary;
+
+    public BalanceGroupCommitter(BalanceService balanceService, GroupShardedExecutor shardedExecutor,
+                                 @Value("${expenseshare.group-commit.window:2ms}") Duration window,
+                                 @Value("${expenseshare.group-commit.max-batch-size:256}") int maxBatchSize,
+                                 MeterRegistry meterRegistry) {
+        this.balanceService = balanceService;
+        this.shardedExecutor = shardedExecutor;
+        this.windowNanos = window.toNanos();
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.queues = new ShardQueue[shardedExecutor.getShardCount()];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ShardQueue();
+        }
+        this.batchSizeSummary = DistributionSummary.builder("expenseshare.balance.group-commit.batch-size")
+                .description("Expenses written per group-commit transaction")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Applies the expense's balance changes, waiting until its batch has committed
+     */
+    public void applyExpense(ExpenseBalanceUpdateRequest request) {
+        if (request.getGroupId() == null) {
+            // Nothing to route; validation rejects it
+            balanceService.updateBalancesForExpense(request);
+            return;
+        }
+        if (shardedExecutor.currentShard() >= 0) {
+            // A worker must not block on a batch: inline on the group's own shard, otherwise handed to
+            // the group's worker through the executor, which guards against wait cycles
+            shardedExecutor.run(request.getGroupId(), () -> balanceService.updateBalancesForExpense(request));
+            return;
+        }
+        GroupShardedExecutor.await(submit(request));
+    }
+
+    public CompletableFuture<Void> submit(ExpenseBalanceUpdateRequest request) {
+        PendingExpense pending = new PendingExpense(request, new CompletableFuture<>());
+        ShardQueue queue = queues[shardedExecutor.shardFor(request.getGroupId())];
+        queue.pending.add(pending);
+        try {
+            scheduleDrain(queue, request.getGroupId());
+        } catch (RejectedExecutionException e) {
+            queue.pending.remove(pending);
+            pending.future.completeExceptionally(e);
+        }
+        return pending.future;
+    }
+
+    private void scheduleDrain(ShardQueue queue, Long routingGroupId) {
+        if (queue.drainScheduled.compareAndSet(false, true)) {
+            try {
+                shardedExecutor.submit(routingGroupId, () -> drain(queue, routingGroupId));
+            } catch (RejectedExecutionException e) {
+                queue.drainScheduled.set(false);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Runs on the shard worker: collects expenses until the window closes or a full batch is queued,
+     * sleeping in the queue's timed poll between arrivals, then commits one batch
+     */
+    private Void drain(ShardQueue queue, Long routingGroupId) {
+        long deadline = System.nanoTime() + windowNanos;
+        List<PendingExpense> batch = new ArrayList<>();
+        queue.pending.drainTo(batch, maxBatchSize);
+        try {
+            long remaining;
+            while (batch.size() < maxBatchSize && (remaining = deadline - System.nanoTime()) > 0) {
+                PendingExpense next = queue.pending.poll(remaining, TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    break;
+                }
+                batch.add(next);
+                queue.pending.drainTo(batch, maxBatchSize - batch.size());
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: commit what has been collected
+            Thread.currentThread().interrupt();
+        }
+        queue.drainScheduled.set(false);
+        // Picks up anything queued while the flag was still set, whose submit did not schedule a drain
+        queue.pending.drainTo(batch, maxBatchSize - batch.size());
+
+        if (!queue.pending.isEmpty()) {
+            try {
+                scheduleDrain(queue, routingGroupId);
+            } catch (RejectedExecutionException e) {
+                log.warn("Could not schedule next group commit, {} expenses wait for the next submit", queue.pending.size());
+            }
+        }
+        if (!batch.isEmpty()) {
+            commit(batch);
+        }
+        return null;
+    }
+
+    private void commit(List<PendingExpense> batch) {
+        batchSizeSummary.record(batch.size());
+        if (batch.size() == 1) {
+            applyIndividually(batch.get(0));
+            return;
+        }
+
+        List<PendingExpense> accepted = new ArrayList<>();
+        List<BalanceDelta> deltas = new ArrayList<>();
+        for (PendingExpense pending : batch) {
+            try {
+                deltas.addAll(balanceService.computeDeltas(pending.request));
+            } catch (RuntimeException e) {
+                pending.future.completeExceptionally(e);
+                continue;
+            }
+            accepted.add(pending);
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        List<BalanceDelta> netted = BalanceService.netByPair(deltas);
+        try {
+            balanceService.applyDeltas(netted);
+            accepted.forEach(pending -> pending.future.complete(null));
+            log.debug("Group commit applied {} expenses as {} netted balance changes", accepted.size(), netted.size());
+        } catch (RuntimeException e) {
+            log.warn("Group commit of {} expenses failed, applying them one at a time", accepted.size(), e);
+            accepted.forEach(this::applyIndividually);
+        }
+    }
+
+    private void applyIndividually(PendingExpense pending) {
+        try {
+            balanceService.updateBalancesForExpense(pending.request);
+            pending.future.complete(null);
+        } catch (RuntimeException e) {
+            pending.future.completeExceptionally(e);
+        }
+    }
+
+    private record PendingExpense(ExpenseBalanceUpdateRequest request, CompletableFuture<Void> future) {
+    }
+
+    private static class ShardQueue {
+        private final BlockingQueue<PendingExpense> pending = new LinkedBlockingQueue<>();
+        private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    }
+}
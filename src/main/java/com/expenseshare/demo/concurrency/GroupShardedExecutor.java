@@ -0,0 +1,183 @@
+package com.expenseshare.demo.concurrency;
+
+import com.expenseshare.demo.monitoring.SqlStatementStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs balance mutations on single-threaded workers chosen by group ID, so all writes for a group
+ * are applied one at a time and never wait on each other's row locks. Groups are spread across
+ * shards; the pessimistic locks in the services stay in place for work that spans shards.
+ *
+ * Callers block until their task has run. Exceptions are rethrown unchanged on the caller thread.
+ * SQL statements a task runs are counted against the caller's request. A task that calls back into
+ * the executor runs inline when the group is on its own shard and is handed to the owning worker
+ * otherwise, unless that worker is already waiting on this one.
+ */
+@Component
+@Slf4j
+public class GroupShardedExecutor implements DisposableBean {
+
+    private final ThreadPoolExecutor[] shards;
+    private final Map<Thread, Integer> workerShards = new ConcurrentHashMap<>();
+    // Shard each worker is blocked on, or -1; guarded by itself
+    private final int[] waitingOn;
+
+    public GroupShardedExecutor(@Value("${expenseshare.sharding.shards:0}") int shardCount,
+                                @Value("${expenseshare.sharding.queue-capacity:10000}") int queueCapacity) {
+        int count = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new ThreadPoolExecutor[count];
+        this.waitingOn = new int[count];
+        Arrays.fill(waitingOn, -1);
+        for (int i = 0; i < count; i++) {
+            int shard = i;
+            String threadName = "balance-shard-" + i;
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, threadName);
+                        thread.setDaemon(true);
+                        workerShards.put(thread, shard);
+                        return thread;
+                    });
+        }
+        log.info("Balance writes sharded across {} single-threaded workers", count);
+    }
+
+    /**
+     * Runs the task on the worker that owns the group
+     */
+    public <T> T execute(Long groupId, Supplier<T> task) {
+        return executeOn(groupId == null ? -1 : shardFor(groupId), task);
+    }
+
+    public void run(Long groupId, Runnable task) {
+        execute(groupId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Runs the task on the worker that owns all the groups, or on the calling thread
+     * (relying on database locks) when the groups live on different shards
+     */
+    public <T> T execute(Collection<Long> groupIds, Supplier<T> task) {
+        int shard = groupIds.stream()
+                .filter(Objects::nonNull)
+                .mapToInt(this::shardFor)
+                .reduce((a, b) -> a == b ? a : -1)
+                .orElse(-1);
+        return executeOn(shard, task);
+    }
+
+    /**
+     * Queues the task on the worker that owns the group without waiting for it
+     */
+    public <T> CompletableFuture<T> submit(Long groupId, Supplier<T> task) {
+        return CompletableFuture.supplyAsync(SqlStatementStats.propagate(task), shards[shardFor(groupId)]);
+    }
+
+    /**
+     * Shard owned by the calling thread, or -1 when it is not a worker
+     */
+    public int currentShard() {
+        return workerShards.getOrDefault(Thread.currentThread(), -1);
+    }
+
+    public int shardFor(Long groupId) {
+        return Math.floorMod(Long.hashCode(groupId), shards.length);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public int getQueuedTasks(int shard) {
+        return shards[shard].getQueue().size();
+    }
+
+    private <T> T executeOn(int shard, Supplier<T> task) {
+        int current = currentShard();
+        if (shard < 0 || shard == current) {
+            return task.get();
+        }
+        if (current < 0) {
+            return await(CompletableFuture.supplyAsync(SqlStatementStats.propagate(task), shards[shard]));
+        }
+        if (!startWaiting(current, shard)) {
+            // The target worker is (transitively) waiting on this one; fall back to the database locks
+            log.debug("Shard {} runs a task for shard {} inline to avoid a wait cycle", current, shard);
+            return task.get();
+        }
+        try {
+            return await(CompletableFuture.supplyAsync(SqlStatementStats.propagate(task), shards[shard]));
+        } finally {
+            stopWaiting(current);
+        }
+    }
+
+    /**
+     * Records that the worker for current blocks on target, unless that would close a wait cycle
+     */
+    private boolean startWaiting(int current, int target) {
+        synchronized (waitingOn) {
+            for (int shard = target; shard >= 0; shard = waitingOn[shard]) {
+                if (shard == current) {
+                    return false;
+                }
+            }
+            waitingOn[current] = target;
+            return true;
+        }
+    }
+
+    private void stopWaiting(int current) {
+        synchronized (waitingOn) {
+            waitingOn[current] = -1;
+        }
+    }
+
+    /**
+     * Waits for the future and rethrows its failure unwrapped
+     */
+    public static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            if (!shard.awaitTermination(10, TimeUnit.SECONDS)) {
+                log.warn("Balance shard did not drain within 10s, {} tasks dropped", shard.shutdownNow().size());
+            }
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.expenseshare.demo.concurrency;
+
+import com.expenseshare.demo.entity.InstanceLease;
+import com.expenseshare.demo.repository.InstanceLeaseRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Keeps the application to one instance per database. Balance shards, the balance read model,
+ * ResourceVersions ETags, settlement plan caches, rate-limit buckets and balance streams all live in
+ * the JVM and only see the writes made by this instance; a second instance would serve stale
+ * balances and answer 304 for data it never saw change.
+ *
+ * On startup the instance takes the lease row in instance_leases and fails if another instance
+ * renewed it within the timeout. The lease is renewed on a schedule and released on shutdown, so a
+ * restart waits at most one timeout after a crash. Deployments therefore stop the old instance
+ * before starting the new one.
+ *
+ * An instance that loses the lease (renewal no longer matches its owner, or the database could not
+ * be reached for a whole timeout) may be racing a newer instance, so it stops serving: readiness
+ * switches to REFUSING_TRAFFIC and the application context is closed.
+ */
+@Component
+@Slf4j
+public class SingleInstanceGuard implements SmartLifecycle {
+
+    static final String LEASE_ID = "expenseshare";
+
+    private final InstanceLeaseRepository instanceLeaseRepository;
+    private final ConfigurableApplicationContext applicationContext;
+    private final boolean enabled;
+    private final Duration timeout;
+    private final String owner = ProcessHandle.current().pid() + "-" + UUID.randomUUID();
+
+    private final AtomicBoolean leaseLost = new AtomicBoolean();
+
+    private volatile boolean running;
+    private volatile LocalDateTime renewedAt;
+
+    public SingleInstanceGuard(InstanceLeaseRepository instanceLeaseRepository,
+                               ConfigurableApplicationContext applicationContext,
+                               @Value("${expenseshare.instance-lease.enabled:true}") boolean enabled,
+                               @Value("${expenseshare.instance-lease.timeout:30s}") Duration timeout) {
+        this.instanceLeaseRepository = instanceLeaseRepository;
+        this.applicationContext = applicationContext;
+        this.enabled = enabled;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Takes the lease before the read models build and the web server starts, or fails startup
+     */
+    @Override
+    public void start() {
+        if (enabled) {
+            acquire();
+            log.info("Instance {} holds the database lease", owner);
+        }
+        running = true;
+    }
+
+    @Scheduled(fixedDelayString = "${expenseshare.instance-lease.heartbeat:10s}")
+    public void heartbeat() {
+        if (!enabled || !running || leaseLost.get()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            if (instanceLeaseRepository.renew(LEASE_ID, owner, now, now.minus(timeout)) > 0) {
+                renewedAt = now;
+                return;
+            }
+            log.error("Instance {} lost the database lease to another instance", owner);
+        } catch (DataAccessException e) {
+            if (renewedAt.isAfter(now.minus(timeout))) {
+                log.warn("Could not renew the database lease, retrying on the next heartbeat", e);
+                return;
+            }
+            log.error("Instance {} could not renew the database lease for {}; another instance may hold it",
+                    owner, timeout, e);
+        }
+        leaseLost();
+    }
+
+    /**
+     * Stops serving in-memory state that may no longer see every write
+     */
+    private void leaseLost() {
+        if (!leaseLost.compareAndSet(false, true)) {
+            return;
+        }
+        log.error("Instance {} is refusing traffic and shutting down", owner);
+        AvailabilityChangeEvent.publish(applicationContext, ReadinessState.REFUSING_TRAFFIC);
+        // Closing the context stops the scheduler this heartbeat runs on, so it cannot run here
+        new Thread(applicationContext::close, "instance-lease-shutdown").start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (enabled) {
+            instanceLeaseRepository.release(LEASE_ID, owner);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return -100;
+    }
+
+    private void acquire() {
+        LocalDateTime now = LocalDateTime.now();
+        renewedAt = now;
+        if (instanceLeaseRepository.renew(LEASE_ID, owner, now, now.minus(timeout)) > 0) {
+            return;
+        }
+        try {
+            instanceLeaseRepository.saveAndFlush(InstanceLease.builder()
+                    .id(LEASE_ID)
+                    .owner(owner)
+                    .heartbeatAt(now)
+                    .build());
+            return;
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Database lease was claimed concurrently", e);
+        }
+        String holder = instanceLeaseRepository.findById(LEASE_ID)
+                .map(lease -> lease.getOwner() + " (last heartbeat " + lease.getHeartbeatAt() + ")")
+                .orElse("another instance");
+        throw new IllegalStateException("Database is in use by instance " + holder
+                + "; only one instance may run against a database");
+    }
+}
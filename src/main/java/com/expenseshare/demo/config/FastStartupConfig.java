@@ -0,0 +1,43 @@
+package com.expenseshare.demo.config;
+
+import jakarta.servlet.Filter;
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Controller;
+
+import java.lang.reflect.Method;
+
+/**
+ * With the fast-startup profile every bean is lazy except the roots of the request path and of
+ * background work: controllers, servlet filters, lifecycle beans and beans with @Scheduled methods.
+ * Whatever those depend on is still created at startup, so the first request does not pay for it;
+ * only beans nothing reaches (actuator endpoints, unused converters and auto-configuration) wait.
+ */
+@Configuration
+@Profile("fast-startup")
+public class FastStartupConfig {
+
+    @Bean
+    public static LazyInitializationExcludeFilter requestPathBeans() {
+        return (beanName, beanDefinition, beanType) -> beanType != null
+                && (AnnotatedElementUtils.hasAnnotation(beanType, Controller.class)
+                || Filter.class.isAssignableFrom(beanType)
+                || SmartLifecycle.class.isAssignableFrom(beanType)
+                || hasScheduledMethods(beanType));
+    }
+
+    /**
+     * A lazy bean is never created, so its @Scheduled methods would never be registered
+     */
+    private static boolean hasScheduledMethods(Class<?> beanType) {
+        return !MethodIntrospector.selectMethods(beanType,
+                (MethodIntrospector.MetadataLookup<Method>) method ->
+                        AnnotatedElementUtils.hasAnnotation(method, Scheduled.class) ? method : null).isEmpty();
+    }
+}
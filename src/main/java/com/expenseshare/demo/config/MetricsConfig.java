@@ -0,0 +1,53 @@
+package com.expenseshare.demo.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.retry.RetryCallback;
+import org.springframework.retry.RetryContext;
+import org.springframework.retry.RetryListener;
+import org.springframework.retry.annotation.EnableRetry;
+
+/**
+ * Enables @Retryable and records how often retries fire.
+ * Service timers come from @Timed (see management.observations.annotations.enabled).
+ */
+@Configuration
+@EnableRetry
+@Slf4j
+public class MetricsConfig {
+
+    public static final String RETRY_FAILURES = "expenseshare.retry.attempt.failures";
+    public static final String RETRY_EXHAUSTED = "expenseshare.retry.exhausted";
+
+    /**
+     * Picked up by @EnableRetry as a global listener for every @Retryable method
+     */
+    @Bean
+    public RetryListener retryMetricsListener(MeterRegistry meterRegistry) {
+        return new RetryListener() {
+            @Override
+            public <T, E extends Throwable> void onError(RetryContext context, RetryCallback<T, E> callback,
+                                                         Throwable throwable) {
+                meterRegistry.counter(RETRY_FAILURES,
+                        "operation", operationName(context),
+                        "exception", throwable.getClass().getSimpleName()).increment();
+                log.debug("Retryable operation {} failed on attempt {}", operationName(context), context.getRetryCount());
+            }
+
+            @Override
+            public <T, E extends Throwable> void close(RetryContext context, RetryCallback<T, E> callback,
+                                                       Throwable throwable) {
+                if (throwable != null && context.getRetryCount() > 0) {
+                    meterRegistry.counter(RETRY_EXHAUSTED, "operation", operationName(context)).increment();
+                }
+            }
+        };
+    }
+
+    private static String operationName(RetryContext context) {
+        Object name = context.getAttribute(RetryContext.NAME);
+        return name != null ? name.toString() : "unknown";
+    }
+}
@@ -0,0 +1,65 @@
+package com.expenseshare.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * Two connection pools behind one DataSource: read-only transactions get their connection from the
+ * read pool, everything else from the write pool, so long reports and exports cannot hold the
+ * connections the settlement path needs. The read pool points at the same database unless
+ * expenseshare.datasource.read.url names a replica (for example the second node of an H2 cluster).
+ *
+ * The lazy proxy only fetches a physical connection at the first statement, after the transaction
+ * manager has marked the connection read-only, and picks the pool from that flag.
+ *
+ * Both pools take their settings from spring.datasource.hikari.*; the read pool then overrides the
+ * url, pool name and size from expenseshare.datasource.read.* and is always read-only.
+ */
+@Configuration
+public class ReadWriteDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource writeDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public HikariDataSource readDataSource(DataSourceProperties properties, Environment environment,
+                                           @Value("${expenseshare.datasource.read.url:}") String url,
+                                           @Value("${expenseshare.datasource.read.pool-name:expenseshare-read-pool}") String poolName,
+                                           @Value("${expenseshare.datasource.read.maximum-pool-size:10}") int maximumPoolSize) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        // Bound here rather than with @ConfigurationProperties, which would run after the overrides below
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(dataSource));
+        if (StringUtils.hasText(url)) {
+            dataSource.setJdbcUrl(url);
+        }
+        dataSource.setPoolName(poolName);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("writeDataSource") DataSource writeDataSource,
+                                 @Qualifier("readDataSource") DataSource readDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(writeDataSource);
+        dataSource.setReadOnlyDataSource(readDataSource);
+        return dataSource;
+    }
+}
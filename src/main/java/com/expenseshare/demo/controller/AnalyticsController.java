@@ -0,0 +1,73 @@
+package com.expenseshare.demo.controller;
+
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.dto.SpendingBucketDto;
+import com.expenseshare.demo.services.SpendingAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class AnalyticsController {
+
+    private final SpendingAnalyticsService spendingAnalyticsService;
+    private final GroupShardedExecutor groupShardedExecutor;
+
+    @GetMapping("/analytics/groups/{groupId}/spending")
+    public ResponseEntity<List<SpendingBucketDto>> getGroupSpending(
+            @PathVariable Long groupId,
+            @RequestParam(defaultValue = "monthly") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Fetching {} spending for group id: {}", granularity, groupId);
+        return ResponseEntity.ok(spendingAnalyticsService.getGroupSpending(groupId,
+                SpendingAnalyticsService.parseGranularity(granularity), from, to));
+    }
+
+    @GetMapping("/analytics/groups/{groupId}/members")
+    public ResponseEntity<List<MemberSpendingDto>> getGroupMemberTotals(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Fetching member spending totals for group id: {}", groupId);
+        return ResponseEntity.ok(spendingAnalyticsService.getGroupMemberTotals(groupId, from, to));
+    }
+
+    @GetMapping("/analytics/groups/{groupId}/users/{userId}/spending")
+    public ResponseEntity<List<SpendingBucketDto>> getGroupMemberSpending(
+            @PathVariable Long groupId,
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "monthly") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Fetching {} spending for user id: {} in group id: {}", granularity, userId, groupId);
+        return ResponseEntity.ok(spendingAnalyticsService.getGroupMemberSpending(groupId, userId,
+                SpendingAnalyticsService.parseGranularity(granularity), from, to));
+    }
+
+    @GetMapping("/analytics/users/{userId}/spending")
+    public ResponseEntity<List<SpendingBucketDto>> getUserSpending(
+            @PathVariable Long userId,
+            @RequestParam(defaultValue = "monthly") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        log.info("Fetching {} spending for user id: {}", granularity, userId);
+        return ResponseEntity.ok(spendingAnalyticsService.getUserSpending(userId,
+                SpendingAnalyticsService.parseGranularity(granularity), from, to));
+    }
+
+    @PostMapping("/analytics/groups/{groupId}/rebuild")
+    public ResponseEntity<Integer> rebuildGroupRollups(@PathVariable Long groupId) {
+        log.info("Rebuilding spending rollups for group id: {}", groupId);
+        // On the group's shard so no incremental update interleaves with the rebuild
+        return ResponseEntity.ok(groupShardedExecutor.execute(groupId, () -> spendingAnalyticsService.rebuildGroup(groupId)));
+    }
+}
@@ -1,14 +1,27 @@
 package com.expenseshare.demo.controller;
 
+import com.expenseshare.demo.concurrency.BalanceGroupCommitter;
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
 import com.expenseshare.demo.dto.BalanceUpdateResponse;
 import com.expenseshare.demo.dto.ExpenseBalanceUpdateRequest;
 import com.expenseshare.demo.dto.GroupBalanceSummary;
+import com.expenseshare.demo.dto.SettlementPlanDto;
+import com.expenseshare.demo.readmodel.BalanceReadModel;
+import com.expenseshare.demo.readmodel.ResourceVersions;
 import com.expenseshare.demo.services.BalanceService;
+import com.expenseshare.demo.services.BalanceStreamService;
+import com.expenseshare.demo.services.ExpenseService;
+import com.expenseshare.demo.services.SettlementPlanService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequiredArgsConstructor
@@ -16,17 +29,34 @@ import org.springframework.web.bind.annotation.*;
 public class BalanceController {
 
     private final BalanceService balanceService;
+    private final BalanceReadModel balanceReadModel;
+    private final GroupShardedExecutor groupShardedExecutor;
+    private final BalanceGroupCommitter balanceGroupCommitter;
+    private final SettlementPlanService settlementPlanService;
+    private final BalanceStreamService balanceStreamService;
+    private final ExpenseService expenseService;
+    private final ResourceVersions resourceVersions;
 
     /**
-     * Update balances after an expense is created
+     * Update balances after an expense recorded outside this service is created. Expenses created
+     * through POST /expenses already applied their balances and are rejected with 409.
      */
     @PostMapping("/balances/update-from-expense")
     public ResponseEntity<BalanceUpdateResponse> updateBalancesFromExpense(
             @RequestBody ExpenseBalanceUpdateRequest request) {
-        log.info("Updating balances from expense: {}", request);
+        log.info("Updating balances from expense - ID: {}, Group: {}", request.getExpenseId(), request.getGroupId());
+
+        if (expenseService.isRecordedExpense(request.getExpenseId())) {
+            log.warn("Rejected balance update for expense {}: POST /expenses already applied it", request.getExpenseId());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(BalanceUpdateResponse.builder()
+                    .status("ERROR")
+                    .message("Expense " + request.getExpenseId()
+                            + " was recorded through POST /expenses, which already updated the balances")
+                    .build());
+        }
 
         try {
-            balanceService.updateBalancesForExpense(request);
+            balanceGroupCommitter.applyExpense(request);
 
             BalanceUpdateResponse response = BalanceUpdateResponse.builder()
                     .status("SUCCESS")
@@ -54,15 +84,58 @@ public class BalanceController {
     public ResponseEntity<GroupBalanceSummary> getGroupBalances(@PathVariable Long groupId) {
         log.info("Fetching balances for group: {}", groupId);
 
-        // This would need to be implemented in BalanceService
-        // For now, returning a basic response structure
+        GroupBalanceSummary summary = balanceReadModel.getGroupBalances(groupId);
+        return ResponseEntity.ok(summary);
+    }
 
-        GroupBalanceSummary summary = GroupBalanceSummary.builder()
-                .groupId(groupId)
-                .message("Feature to be implemented")
-                .build();
+    /**
+     * Stream of committed balance changes involving the user, as "balance" events
+     */
+    @GetMapping(value = "/balances/user/{userId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamUserBalances(@PathVariable Long userId) {
+        log.info("Opening balance stream for user: {}", userId);
+        return balanceStreamService.subscribeToUser(userId);
+    }
 
-        return ResponseEntity.ok(summary);
+    /**
+     * Stream of committed balance changes in the group, as "balance" events
+     */
+    @GetMapping(value = "/balances/group/{groupId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGroupBalances(@PathVariable Long groupId) {
+        log.info("Opening balance stream for group: {}", groupId);
+        return balanceStreamService.subscribeToGroup(groupId);
+    }
+
+    /**
+     * Minimal list of transfers that settles the group, in /settlements/batch request form. Tagged
+     * with the group's ETag, which applying the plan requires as If-Match.
+     */
+    @GetMapping("/balances/group/{groupId}/plan")
+    public ResponseEntity<SettlementPlanDto> getSettlementPlan(@PathVariable Long groupId, WebRequest request) {
+        String eTag = resourceVersions.groupETag(groupId);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
+        log.info("Fetching settlement plan for group: {}", groupId);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache())
+                .body(settlementPlanService.getPlan(groupId));
+    }
+
+    /**
+     * Replace the group's balances with the plan's transfers so each one can be settled directly.
+     * If-Match must carry the ETag of the plan the client reviewed: 428 without it, 412 when the
+     * group changed since. The replaced balances are kept in balance_rewrites.
+     */
+    @PostMapping("/balances/group/{groupId}/plan/apply")
+    public ResponseEntity<SettlementPlanDto> applySettlementPlan(
+            @PathVariable Long groupId, @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        if (ifMatch == null) {
+            log.warn("Rejected settlement plan for group {}: no If-Match", groupId);
+            return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+        }
+        log.info("Applying settlement plan for group: {}", groupId);
+        return ResponseEntity.ok(groupShardedExecutor.execute(groupId,
+                () -> settlementPlanService.applyPlan(groupId, ifMatch)));
     }
 
     /**
@@ -73,7 +146,7 @@ public class BalanceController {
         log.info("Simplifying balances for group: {}", groupId);
 
         try {
-            balanceService.simplifyBalances(groupId);
+            groupShardedExecutor.run(groupId, () -> balanceService.simplifyBalances(groupId));
 
             BalanceUpdateResponse response = BalanceUpdateResponse.builder()
                     .status("SUCCESS")
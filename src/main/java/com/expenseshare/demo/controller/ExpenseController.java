@@ -1,13 +1,31 @@
 package com.expenseshare.demo.controller;
 
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import com.expenseshare.demo.dto.CompactExpenseDto;
+import com.expenseshare.demo.dto.CompactListDto;
 import com.expenseshare.demo.dto.ExpenseDto;
 import com.expenseshare.demo.dto.ExpenseResponseDto;
+import com.expenseshare.demo.dto.ExpenseUpdateDto;
+import com.expenseshare.demo.dto.GroupSpendTotalsDto;
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.enums.ExportFormat;
+import com.expenseshare.demo.mapper.CompactResponseMapper;
+import com.expenseshare.demo.readmodel.ResourceVersions;
 import com.expenseshare.demo.services.ExpenseService;
+import com.expenseshare.demo.services.IdempotencyService;
+import com.expenseshare.demo.services.LedgerExportService;
+import com.expenseshare.demo.services.SpendCounterService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 
@@ -17,12 +35,21 @@ import java.util.List;
 public class ExpenseController {
 
     private final ExpenseService expenseService;
+    private final IdempotencyService idempotencyService;
+    private final GroupShardedExecutor groupShardedExecutor;
+    private final LedgerExportService ledgerExportService;
+    private final SpendCounterService spendCounterService;
+    private final ResourceVersions resourceVersions;
 
     @PostMapping("/expenses")
-    public ResponseEntity<ExpenseResponseDto> createExpense(@RequestBody ExpenseDto expenseDto) {
-        log.info("Creating expense request: {}", expenseDto);
-        ExpenseResponseDto response = expenseService.createExpense(expenseDto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<ExpenseResponseDto> createExpense(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody ExpenseDto expenseDto) {
+        log.info("Creating expense request - Group: {}, Paid by: {}, Split Type: {}",
+                expenseDto.getGroupId(), expenseDto.getPaidByUserId(), expenseDto.getSplitType());
+        return idempotencyService.execute("expenses", idempotencyKey, expenseDto, ExpenseResponseDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(groupShardedExecutor.execute(
+                        expenseDto.getGroupId(), () -> expenseService.createExpense(expenseDto))));
     }
 
     @GetMapping("/expenses/{expenseId}")
@@ -32,11 +59,82 @@ public class ExpenseController {
         return ResponseEntity.ok(response);
     }
 
+    @PatchMapping("/expenses/{expenseId}")
+    public ResponseEntity<ExpenseResponseDto> updateExpense(@PathVariable Long expenseId,
+                                                            @RequestBody ExpenseUpdateDto update) {
+        log.info("Updating expense with id: {}", expenseId);
+        ExpenseResponseDto response = groupShardedExecutor.execute(expenseService.getGroupIdForExpense(expenseId),
+                () -> expenseService.updateExpense(expenseId, update));
+        return ResponseEntity.ok(response);
+    }
+
+    @DeleteMapping("/expenses/{expenseId}")
+    public ResponseEntity<Void> deleteExpense(@PathVariable Long expenseId) {
+        log.info("Deleting expense with id: {}", expenseId);
+        groupShardedExecutor.run(expenseService.getGroupIdForExpense(expenseId),
+                () -> expenseService.deleteExpense(expenseId));
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Answers 304 from the group's version counter when the client's ETag is current,
+     * without loading any expense. Varies by Accept, since the same URL also serves CBOR and Smile.
+     */
     @GetMapping("/expenses/group/{groupId}")
-    public ResponseEntity<List<ExpenseResponseDto>> getExpensesByGroup(@PathVariable Long groupId) {
+    public ResponseEntity<List<ExpenseResponseDto>> getExpensesByGroup(@PathVariable Long groupId, WebRequest request) {
+        String eTag = resourceVersions.groupETag(groupId);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
         log.info("Fetching expenses for group id: {}", groupId);
         List<ExpenseResponseDto> responses = expenseService.getExpensesByGroup(groupId);
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT)
+                .body(responses);
+    }
+
+    /**
+     * Same listing for CBOR or Smile clients, with names hoisted into dictionaries
+     */
+    @GetMapping(value = "/expenses/group/{groupId}",
+            produces = {CompactResponseMapper.CBOR_VALUE, CompactResponseMapper.SMILE_VALUE})
+    public ResponseEntity<CompactListDto<CompactExpenseDto>> getCompactExpensesByGroup(@PathVariable Long groupId,
+                                                                                       WebRequest request) {
+        // A different representation needs its own strong ETag
+        String eTag = resourceVersions.groupETag(groupId).replaceFirst("\"$", "-compact\"");
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).varyBy(HttpHeaders.ACCEPT).build();
+        }
+        log.info("Fetching compact expenses for group id: {}", groupId);
+        CompactListDto<CompactExpenseDto> response =
+                CompactResponseMapper.toCompactExpenses(expenseService.getExpensesByGroup(groupId));
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).varyBy(HttpHeaders.ACCEPT)
+                .body(response);
+    }
+
+    @GetMapping("/expenses/group/{groupId}/totals")
+    public ResponseEntity<GroupSpendTotalsDto> getGroupTotals(@PathVariable Long groupId) {
+        log.info("Fetching spend totals for group id: {}", groupId);
+        return ResponseEntity.ok(spendCounterService.getGroupTotals(groupId));
+    }
+
+    @GetMapping("/expenses/group/{groupId}/totals/user/{userId}")
+    public ResponseEntity<MemberSpendingDto> getMemberTotals(@PathVariable Long groupId, @PathVariable Long userId) {
+        log.info("Fetching spend totals for user id: {} in group id: {}", userId, groupId);
+        return ResponseEntity.ok(spendCounterService.getMemberTotals(groupId, userId));
+    }
+
+    @GetMapping("/expenses/group/{groupId}/export")
+    public ResponseEntity<StreamingResponseBody> exportGroupLedger(@PathVariable Long groupId,
+                                                                   @RequestParam(defaultValue = "csv") String format) {
+        log.info("Exporting ledger for group id: {} as {}", groupId, format);
+        ExportFormat exportFormat = LedgerExportService.parseFormat(format);
+        StreamingResponseBody body = ledgerExportService.exportGroupLedger(groupId, exportFormat);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("group-" + groupId + "-ledger." + exportFormat.getFileExtension())
+                        .build().toString())
+                .body(body);
     }
 
     @GetMapping("/expenses/user/{userId}")
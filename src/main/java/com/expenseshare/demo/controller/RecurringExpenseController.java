@@ -0,0 +1,41 @@
+package com.expenseshare.demo.controller;
+
+import com.expenseshare.demo.dto.RecurringExpenseDto;
+import com.expenseshare.demo.dto.RecurringExpenseResponseDto;
+import com.expenseshare.demo.services.RecurringExpenseService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringExpenseController {
+
+    private final RecurringExpenseService recurringExpenseService;
+
+    @PostMapping("/recurring-expenses")
+    public ResponseEntity<RecurringExpenseResponseDto> createRecurringExpense(@RequestBody RecurringExpenseDto request) {
+        log.info("Creating recurring expense - Group: {}, Paid by: {}, Frequency: {}",
+                request.getGroupId(), request.getPaidByUserId(), request.getFrequency());
+        RecurringExpenseResponseDto response = recurringExpenseService.createRecurringExpense(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @GetMapping("/recurring-expenses/group/{groupId}")
+    public ResponseEntity<List<RecurringExpenseResponseDto>> getRecurringExpensesByGroup(@PathVariable Long groupId) {
+        log.info("Fetching recurring expenses for group id: {}", groupId);
+        return ResponseEntity.ok(recurringExpenseService.getRecurringExpensesByGroup(groupId));
+    }
+
+    @DeleteMapping("/recurring-expenses/{recurringExpenseId}")
+    public ResponseEntity<Void> deactivateRecurringExpense(@PathVariable Long recurringExpenseId) {
+        log.info("Deactivating recurring expense with id: {}", recurringExpenseId);
+        recurringExpenseService.deactivateRecurringExpense(recurringExpenseId);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -1,18 +1,32 @@
 package com.expenseshare.demo.controller;
 
+import com.expenseshare.demo.dto.BatchSettlementRequestDto;
+import com.expenseshare.demo.dto.BatchSettlementResponseDto;
+import com.expenseshare.demo.dto.CompactListDto;
+import com.expenseshare.demo.dto.CompactSettlementDto;
 import com.expenseshare.demo.dto.SettleBalanceRequestDto;
 import com.expenseshare.demo.dto.SettlementResponseDto;
 import com.expenseshare.demo.dto.UserBalanceResponseDto;
-import com.expenseshare.demo.entity.Settlement;
+import com.expenseshare.demo.enums.RateLimitClass;
+import com.expenseshare.demo.mapper.CompactResponseMapper;
+import com.expenseshare.demo.readmodel.BalanceReadModel;
+import com.expenseshare.demo.readmodel.ResourceVersions;
+import com.expenseshare.demo.security.RateLimiter;
+import com.expenseshare.demo.services.ArchiveService;
+import com.expenseshare.demo.services.IdempotencyService;
 import com.expenseshare.demo.services.SettlementService;
+import com.expenseshare.demo.services.ShardedSettlementService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Set;
 
 @RestController
 @RequiredArgsConstructor
@@ -20,36 +34,94 @@ import java.util.stream.Collectors;
 public class SettlementController {
 
     private final SettlementService settlementService;
+    private final IdempotencyService idempotencyService;
+    private final BalanceReadModel balanceReadModel;
+    private final ResourceVersions resourceVersions;
+    private final ShardedSettlementService shardedSettlementService;
+    private final ArchiveService archiveService;
+    private final RateLimiter rateLimiter;
 
     @PostMapping("/settlements/settle")
-    public ResponseEntity<SettlementResponseDto> settleBalance(@RequestBody SettleBalanceRequestDto request) {
-        log.info("Settlement request received: {}", request);
-        SettlementResponseDto response = settlementService.settleBalance(request);
-        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    public ResponseEntity<SettlementResponseDto> settleBalance(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody SettleBalanceRequestDto request) {
+        log.info("Settlement request received - Payer: {}, Receiver: {}", request.getPayerId(), request.getReceiverId());
+        return idempotencyService.execute("settlements", idempotencyKey, request, SettlementResponseDto.class,
+                () -> {
+                    Set<Long> groupIds = settlementService.findAffectedGroupIds(List.of(request));
+                    rateLimiter.checkGroups(RateLimitClass.SETTLEMENT, groupIds);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(
+                            shardedSettlementService.settleBalance(groupIds, request));
+                });
     }
 
+    @PostMapping("/settlements/batch")
+    public ResponseEntity<BatchSettlementResponseDto> settleBatch(
+            @RequestHeader(value = IdempotencyService.HEADER, required = false) String idempotencyKey,
+            @RequestBody BatchSettlementRequestDto request) {
+        log.info("Batch settlement request received - {} settlements",
+                request.getSettlements() != null ? request.getSettlements().size() : 0);
+        return idempotencyService.execute("settlements-batch", idempotencyKey, request, BatchSettlementResponseDto.class,
+                () -> {
+                    Set<Long> groupIds = settlementService.findAffectedGroupIds(
+                            request.getSettlements() != null ? request.getSettlements() : List.of());
+                    rateLimiter.checkGroups(RateLimitClass.SETTLEMENT, groupIds);
+                    return ResponseEntity.status(HttpStatus.CREATED).body(
+                            shardedSettlementService.settleBatch(groupIds, request));
+                });
+    }
+
+    /**
+     * Answers 304 from the user's version counter when the client's ETag is current
+     */
     @GetMapping("/settlements/user/{userId}/balance")
-    public ResponseEntity<UserBalanceResponseDto> getUserBalance(@PathVariable Long userId) {
+    public ResponseEntity<UserBalanceResponseDto> getUserBalance(@PathVariable Long userId, WebRequest request) {
+        String eTag = resourceVersions.userETag(userId);
+        if (request.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+        }
         log.info("Fetching balance for user: {}", userId);
-        UserBalanceResponseDto response = settlementService.getUserBalance(userId);
-        return ResponseEntity.ok(response);
+        UserBalanceResponseDto response = balanceReadModel.getUserBalance(userId);
+        return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(response);
     }
 
+    /**
+     * Varies by Accept, since the same URL also serves CBOR and Smile
+     */
     @GetMapping("/settlements/user/{userId}")
     public ResponseEntity<List<SettlementResponseDto>> getUserSettlements(@PathVariable Long userId) {
         log.info("Fetching settlements for user: {}", userId);
         List<SettlementResponseDto> responses = settlementService.getUserSettlements(userId);
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT).body(responses);
+    }
+
+    /**
+     * Same listing for CBOR or Smile clients, with names hoisted into dictionaries
+     */
+    @GetMapping(value = "/settlements/user/{userId}",
+            produces = {CompactResponseMapper.CBOR_VALUE, CompactResponseMapper.SMILE_VALUE})
+    public ResponseEntity<CompactListDto<CompactSettlementDto>> getCompactUserSettlements(@PathVariable Long userId) {
+        log.info("Fetching compact settlements for user: {}", userId);
+        return ResponseEntity.ok().varyBy(HttpHeaders.ACCEPT)
+                .body(CompactResponseMapper.toCompactSettlements(settlementService.getUserSettlements(userId)));
     }
 
     @GetMapping("/settlements/between/{userId1}/{userId2}")
     public ResponseEntity<List<SettlementResponseDto>> getSettlementsBetweenUsers(
             @PathVariable Long userId1, @PathVariable Long userId2) {
         log.info("Fetching settlements between users: {} and {}", userId1, userId2);
-        List<Settlement> settlements = settlementService.findSettlementsBetweenUsers(userId1, userId2);
-        List<SettlementResponseDto> responses = settlements.stream()
-                .map(settlementService::mapToSettlementResponse)
-                .collect(Collectors.toList());
-        return ResponseEntity.ok(responses);
+        return ResponseEntity.ok(settlementService.getSettlementsBetweenUsers(userId1, userId2));
+    }
+
+    @GetMapping("/settlements/{settlementId}/audit")
+    public ResponseEntity<SettlementResponseDto> getSettlementForAudit(@PathVariable Long settlementId) {
+        log.info("Fetching settlement {} for audit", settlementId);
+        return ResponseEntity.ok(archiveService.getSettlementForAudit(settlementId));
+    }
+
+    @GetMapping("/settlements/user/{userId}/archived")
+    public ResponseEntity<List<SettlementResponseDto>> getArchivedUserSettlements(@PathVariable Long userId) {
+        log.info("Fetching archived settlements for user: {}", userId);
+        return ResponseEntity.ok(archiveService.getArchivedSettlementsForUser(userId));
     }
 }
@@ -9,13 +9,15 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @CrossOrigin(origins = "*")
 @Slf4j
@@ -30,56 +32,68 @@ public class UserGroupController {
 
     // User endpoints
     @PostMapping("/users")
-    public ResponseEntity<User> createUser(@Valid @RequestBody UserDto request) {
+    public ResponseEntity<UserSummaryDto> createUser(@Valid @RequestBody UserDto request) {
         log.info("Received request to create user: {}", request.getUserName());
         User user = userGroupService.createUser(request);
-        return new ResponseEntity<>(user, HttpStatus.CREATED);
+        return new ResponseEntity<>(UserSummaryDto.from(user), HttpStatus.CREATED);
     }
 
+    /**
+     * Pages through all users, or with q only those whose user name, email or names start with q.
+     * Search results are ordered by the matching name and ignore the sort parameter. They stop at
+     * expenseshare.search.max-matches, and totalTruncated is true when more users matched.
+     */
     @GetMapping("/users")
-    public ResponseEntity<List<User>> getAllUsers() {
-        log.info("Received request to get all users");
-        List<User> users = userGroupService.getAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<PageResponseDto<UserSummaryDto>> getAllUsers(
+            @RequestParam(required = false) String q,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        log.info("Received request to get users page {}", pageable.getPageNumber());
+        if (StringUtils.hasText(q)) {
+            return ResponseEntity.ok(userGroupService.searchUsers(q, pageable));
+        }
+        return ResponseEntity.ok(userGroupService.getUsers(pageable));
     }
 
     @GetMapping("/users/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
+    public ResponseEntity<UserSummaryDto> getUserById(@PathVariable Long id) {
         log.info("Received request to get user with ID: {}", id);
-        User user = userGroupService.getUserById(id);
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(userGroupService.getUserSummary(id));
     }
 
     @PutMapping("/users/role")
     public ResponseEntity<UserResponseDto> updateUserRole(@AuthenticationPrincipal CustomOAuth2User principal,
                                                           @Valid @RequestBody UpdateUserRoleDto request) {
         log.info("Received request to update user {} role to {}", request.getUserId(), request.getRole());
-        User user = principal.getUser();
-        user.setRole(request.getRole());
-        UserResponseDto userDto = userGroupService.updateUserRole(request, user);
+        UserResponseDto userDto = userGroupService.updateUserRole(request, principal.getUser());
 
         return ResponseEntity.ok(userDto);
     }
     // Group endpoints
     @PostMapping("/groups")
-    public ResponseEntity<Group> createGroup(@Valid @RequestBody GroupDto groupDto) {
+    public ResponseEntity<GroupSummaryDto> createGroup(@Valid @RequestBody GroupDto groupDto) {
         log.info("Received request to create group: {}", groupDto.getName());
         Group group = userGroupService.createGroup(groupDto);
-        return new ResponseEntity<>(group, HttpStatus.CREATED);
+        return new ResponseEntity<>(new GroupSummaryDto(group.getId(), group.getName(), 0L), HttpStatus.CREATED);
     }
 
+    /**
+     * Pages through all groups, or with q only those whose name starts with q (ordered by name)
+     */
     @GetMapping("/groups")
-    public ResponseEntity<List<Group>> getAllGroups() {
-        log.info("Received request to get all groups");
-        List<Group> groups = userGroupService.getAllGroups();
-        return ResponseEntity.ok(groups);
+    public ResponseEntity<PageResponseDto<GroupSummaryDto>> getAllGroups(
+            @RequestParam(required = false) String q,
+            @PageableDefault(size = 20, sort = "id", direction = Sort.Direction.ASC) Pageable pageable) {
+        log.info("Received request to get groups page {}", pageable.getPageNumber());
+        if (StringUtils.hasText(q)) {
+            return ResponseEntity.ok(userGroupService.searchGroups(q, pageable));
+        }
+        return ResponseEntity.ok(userGroupService.getGroups(pageable));
     }
 
     @GetMapping("/groups/{id}")
-    public ResponseEntity<Group> getGroupById(@PathVariable Long id) {
+    public ResponseEntity<GroupDetailDto> getGroupById(@PathVariable Long id) {
         log.info("Received request to get group with ID: {}", id);
-        Group group = userGroupService.getGroupById(id);
-        return ResponseEntity.ok(group);
+        return ResponseEntity.ok(userGroupService.getGroupDetails(id));
     }
 
     // User-Group relationship endpoints
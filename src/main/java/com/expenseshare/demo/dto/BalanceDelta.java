@@ -0,0 +1,22 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Amount to add to what debtor owes creditor in a group
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceDelta {
+    private Long groupId;
+    private Long debtorId;
+    private Long creditorId;
+    private BigDecimal amount;
+}
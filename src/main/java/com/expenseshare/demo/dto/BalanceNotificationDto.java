@@ -0,0 +1,26 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One committed balance change pushed to stream subscribers. The sequence increases across all
+ * streams, so a client can tell which change it saw last.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceNotificationDto {
+    private Long sequence;
+    private Long groupId;
+    private Long debtorId;
+    private Long creditorId;
+    private BigDecimal previousAmount;
+    private BigDecimal newAmount;
+    private BigDecimal delta;
+}
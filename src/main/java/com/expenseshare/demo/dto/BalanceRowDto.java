@@ -0,0 +1,22 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Id-only view of a UserBalance row, loaded without touching the User/Group entities
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BalanceRowDto {
+    private Long groupId;
+    private Long debtorId;
+    private Long creditorId;
+    private BigDecimal amount;
+}
@@ -0,0 +1,16 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSettlementRequestDto {
+    private List<SettleBalanceRequestDto> settlements; // Applied in order, all or nothing
+}
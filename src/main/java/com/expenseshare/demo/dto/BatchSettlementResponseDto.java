@@ -0,0 +1,19 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchSettlementResponseDto {
+    private int settlementCount;
+    private BigDecimal totalAmountSettled;
+    private List<SettlementResponseDto> settlements;
+}
@@ -0,0 +1,28 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * ExpenseResponseDto without names; shares are keyed by user id
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactExpenseDto {
+    private Long id;
+    private String description;
+    private BigDecimal amount;
+    private Long groupId;
+    private Long paidByUserId;
+    private String splitType;
+    private LocalDateTime createdAt;
+    private Map<Long, BigDecimal> shares;
+}
@@ -0,0 +1,23 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Listing in compact form: user and group names appear once in the dictionaries and rows refer
+ * to them by id. Served for CBOR and Smile requests.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactListDto<T> {
+    private Map<Long, String> userNames;
+    private Map<Long, String> groupNames;
+    private List<T> items;
+}
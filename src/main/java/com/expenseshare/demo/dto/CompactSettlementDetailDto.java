@@ -0,0 +1,19 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactSettlementDetailDto {
+    private Long groupId;
+    private BigDecimal amountSettled;
+    private BigDecimal balanceBefore;
+    private BigDecimal balanceAfter;
+}
@@ -0,0 +1,28 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * SettlementResponseDto without names
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactSettlementDto {
+    private Long settlementId;
+    private Long payerId;
+    private Long receiverId;
+    private BigDecimal totalAmountSettled;
+    private String status;
+    private String description;
+    private LocalDateTime settlementDate;
+    private List<CompactSettlementDetailDto> groupDetails;
+}
@@ -0,0 +1,25 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Partial update of an expense. Null fields are left unchanged; userShares are merged into the
+ * existing shares by user ID (a zero share removes the user) and make the split UNEQUAL.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExpenseUpdateDto {
+    private String description;
+    private BigDecimal amount; // Defaults to the sum of the shares when only shares change
+    private Long paidByUserId;
+    private String splitType; // "EQUAL" or "UNEQUAL"
+    private List<UserShareDto> userShares;
+}
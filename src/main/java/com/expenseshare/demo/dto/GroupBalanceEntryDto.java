@@ -0,0 +1,20 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupBalanceEntryDto {
+    private Long debtorId;
+    private String debtorName;
+    private Long creditorId;
+    private String creditorName;
+    private BigDecimal amount; // Amount debtor owes creditor
+}
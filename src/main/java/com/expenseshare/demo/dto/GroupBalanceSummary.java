@@ -1,6 +1,5 @@
 package com.expenseshare.demo.dto;
 
-import com.expenseshare.demo.entity.UserBalance;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -16,7 +15,7 @@ import java.util.List;
 public class GroupBalanceSummary {
     private Long groupId;
     private String groupName;
-    private List<UserBalance> balances;
+    private List<GroupBalanceEntryDto> balances;
     private BigDecimal totalGroupDebt;
     private String message;
 }
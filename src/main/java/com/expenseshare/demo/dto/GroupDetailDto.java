@@ -0,0 +1,19 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupDetailDto {
+    private Long id;
+    private String name;
+    private Long memberCount;
+    private List<UserSummaryDto> members;
+}
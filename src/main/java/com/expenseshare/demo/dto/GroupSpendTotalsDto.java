@@ -0,0 +1,20 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupSpendTotalsDto {
+    private Long groupId;
+    private BigDecimal totalSpent;
+    private Long expenseCount;
+    private List<MemberSpendingDto> members;
+}
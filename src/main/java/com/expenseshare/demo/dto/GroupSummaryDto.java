@@ -0,0 +1,19 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Group with its member count, computed in the query instead of by loading the members
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class GroupSummaryDto {
+    private Long id;
+    private String name;
+    private Long memberCount;
+}
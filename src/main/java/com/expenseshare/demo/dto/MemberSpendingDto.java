@@ -0,0 +1,19 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MemberSpendingDto {
+    private Long userId;
+    private BigDecimal paidAmount;
+    private BigDecimal shareAmount;
+    private Long expenseCount;
+}
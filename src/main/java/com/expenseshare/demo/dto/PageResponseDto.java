@@ -0,0 +1,39 @@
+package com.expenseshare.demo.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * Stable JSON shape for one page of a listing, independent of Spring Data's Page serialization
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponseDto<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+
+    // Only set by prefix searches: true when more rows matched than the search keeps, so the totals are lower bounds
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Boolean totalTruncated;
+
+    public static <T> PageResponseDto<T> of(Page<T> page) {
+        return new PageResponseDto<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), null);
+    }
+
+    public static <T> PageResponseDto<T> of(Page<T> page, boolean totalTruncated) {
+        return new PageResponseDto<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages(), totalTruncated);
+    }
+}
@@ -0,0 +1,26 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringExpenseDto {
+    private String description;
+    private BigDecimal amount;
+    private Long groupId;
+    private Long paidByUserId;
+    private String splitType; // "EQUAL" or "UNEQUAL"
+    private List<UserShareDto> userShares; // Only required for UNEQUAL split
+    private String frequency; // DAILY, WEEKLY, MONTHLY or YEARLY
+    private LocalDate startDate;
+    private LocalDate endDate; // Optional, inclusive
+}
@@ -0,0 +1,29 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringExpenseResponseDto {
+    private Long id;
+    private String description;
+    private BigDecimal amount;
+    private Long groupId;
+    private Long paidByUserId;
+    private String splitType;
+    private List<UserShareDto> userShares;
+    private String frequency;
+    private LocalDate startDate;
+    private LocalDate nextOccurrence;
+    private LocalDate endDate;
+    private boolean active;
+}
@@ -0,0 +1,22 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SettlementPlanDto {
+    private Long groupId;
+    private List<SettleBalanceRequestDto> transfers; // Same shape as /settlements/batch input
+    private BigDecimal totalAmount;
+    private boolean matchesBalances; // False until the plan is applied: some transfers are not existing debts
+    private LocalDateTime computedAt;
+}
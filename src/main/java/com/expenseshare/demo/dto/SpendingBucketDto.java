@@ -0,0 +1,20 @@
+package com.expenseshare.demo.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpendingBucketDto {
+    private LocalDate bucketStart;
+    private BigDecimal paidAmount;
+    private BigDecimal shareAmount;
+    private Long expenseCount;
+}
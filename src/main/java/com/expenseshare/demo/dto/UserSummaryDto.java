@@ -0,0 +1,29 @@
+package com.expenseshare.demo.dto;
+
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.enums.Role;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Public view of a user, selected column by column so listings never load the user's groups
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserSummaryDto {
+    private Long id;
+    private String userName;
+    private String emailId;
+    private String firstName;
+    private String lastName;
+    private Role role;
+
+    public static UserSummaryDto from(User user) {
+        return new UserSummaryDto(user.getId(), user.getUserName(), user.getEmailId(),
+                user.getFirstName(), user.getLastName(), user.getRole());
+    }
+}
@@ -0,0 +1,51 @@
+package com.expenseshare.demo.entity;
+
+import com.expenseshare.demo.enums.SettlementStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Settlement older than the retention window, moved out of settlements with its original id
+ */
+@Entity
+@Table(name = "archived_settlements", indexes = {
+        @Index(name = "idx_archived_settlements_payer", columnList = "payer_id"),
+        @Index(name = "idx_archived_settlements_receiver", columnList = "receiver_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedSettlement {
+    @Id
+    private Long id;
+
+    @Column(name = "payer_id", nullable = false)
+    private Long payerId;
+
+    @Column(name = "receiver_id", nullable = false)
+    private Long receiverId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    private String description;
+
+    @Enumerated(EnumType.STRING)
+    private SettlementStatus status;
+
+    @Column(name = "settlement_date", nullable = false)
+    private LocalDateTime settlementDate;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
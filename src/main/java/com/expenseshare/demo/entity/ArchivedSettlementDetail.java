@@ -0,0 +1,37 @@
+package com.expenseshare.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Entity
+@Table(name = "archived_settlement_details", indexes = {
+        @Index(name = "idx_archived_settlement_details_settlement", columnList = "settlement_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedSettlementDetail {
+    @Id
+    private Long id;
+
+    @Column(name = "settlement_id", nullable = false)
+    private Long settlementId;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "amount_settled", nullable = false, precision = 12, scale = 2)
+    private BigDecimal amountSettled;
+
+    @Column(name = "balance_before", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balanceBefore;
+
+    @Column(name = "balance_after", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balanceAfter;
+}
@@ -0,0 +1,45 @@
+package com.expenseshare.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Settled (zero) UserBalance row moved out of user_balances by the archive job.
+ * Keeps the original id; ids are plain columns so the archive has no foreign keys into hot tables.
+ */
+@Entity
+@Table(name = "archived_user_balances", indexes = {
+        @Index(name = "idx_archived_user_balances_group", columnList = "group_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ArchivedUserBalance {
+    @Id
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "debtor_id", nullable = false)
+    private Long debtorId;
+
+    @Column(name = "creditor_id", nullable = false)
+    private Long creditorId;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "last_updated")
+    private LocalDateTime lastUpdated;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
@@ -0,0 +1,52 @@
+package com.expenseshare.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * What one user pair owed before and after a settlement plan was applied to their group, enough
+ * to audit the rewrite and to restore the old balance by hand. Amounts are what the debtor owes
+ * the creditor, negative when the creditor owes the debtor.
+ */
+@Entity
+@Table(name = "balance_rewrites", indexes = {
+        @Index(name = "idx_balance_rewrites_group", columnList = "group_id, applied_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceRewrite {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "balance_rewrite_seq")
+    @SequenceGenerator(name = "balance_rewrite_seq", sequenceName = "balance_rewrite_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "debtor_id", nullable = false)
+    private Long debtorId;
+
+    @Column(name = "creditor_id", nullable = false)
+    private Long creditorId;
+
+    @Column(name = "balance_before", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balanceBefore;
+
+    @Column(name = "balance_after", nullable = false, precision = 12, scale = 2)
+    private BigDecimal balanceAfter;
+
+    // The group ETag the client applied the plan against; groups the rows of one application
+    @Column(name = "plan_etag", nullable = false, length = 64)
+    private String planETag;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
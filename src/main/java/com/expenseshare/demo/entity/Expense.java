@@ -10,15 +10,16 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "expenses")
+@Table(name = "expenses", indexes = @Index(name = "idx_expenses_group_created", columnList = "group_id, created_at"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Expense {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_seq")
+    @SequenceGenerator(name = "expense_seq", sequenceName = "expense_seq", allocationSize = 50)
+    private Long id; // Sequence (not identity) ids so inserts can be JDBC-batched
 
     @Column(nullable = false)
     private String description;
@@ -7,15 +7,16 @@ import jakarta.persistence.*;
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "expense_shares")
+@Table(name = "expense_shares", indexes = @Index(name = "idx_expense_shares_user", columnList = "user_id, expense_id"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class ExpenseShare {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "expense_share_seq")
+    @SequenceGenerator(name = "expense_share_seq", sequenceName = "expense_share_seq", allocationSize = 50)
+    private Long id; // Sequence (not identity) ids so inserts can be JDBC-batched
 
     @ManyToOne
     @JoinColumn(name = "expense_id", nullable = false)
@@ -7,7 +7,7 @@ import java.util.HashSet;
 import java.util.Set;
 
 @Entity
-@Table(name = "groups")
+@Table(name = "groups", indexes = @Index(name = "idx_groups_name", columnList = "name"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -17,7 +17,8 @@ import java.util.Set;
 public class Group {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "group_seq")
+    @SequenceGenerator(name = "group_seq", sequenceName = "group_seq", allocationSize = 50)
     Long id;
 
     @Column
@@ -0,0 +1,47 @@
+package com.expenseshare.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * The one row that says which application instance currently owns the database
+ */
+@Entity
+@Table(name = "instance_leases")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class InstanceLease implements Persistable<String> {
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    @Column(nullable = false, length = 128)
+    private String owner;
+
+    @Column(name = "heartbeat_at", nullable = false)
+    private LocalDateTime heartbeatAt;
+
+    // Always INSERT on first save so a second instance claiming at the same time fails on the primary key
+    @Transient
+    @Builder.Default
+    private boolean newRecord = true;
+
+    @Override
+    public boolean isNew() {
+        return newRecord;
+    }
+
+    @PostLoad
+    @PostPersist
+    protected void markPersisted() {
+        newRecord = false;
+    }
+}
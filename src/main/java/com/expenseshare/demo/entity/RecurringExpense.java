@@ -0,0 +1,90 @@
+package com.expenseshare.demo.entity;
+
+import com.expenseshare.demo.enums.RecurrenceFrequency;
+import com.expenseshare.demo.enums.SplitType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Definition of an expense that repeats (rent, subscriptions). Occurrences up to today are
+ * materialized as regular expenses by the recurring expense scheduler.
+ */
+@Entity
+@Table(name = "recurring_expenses", indexes = {
+        @Index(name = "idx_recurring_expenses_due", columnList = "active, next_occurrence")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RecurringExpense {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recurring_expense_seq")
+    @SequenceGenerator(name = "recurring_expense_seq", sequenceName = "recurring_expense_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @ManyToOne
+    @JoinColumn(name = "group_id", nullable = false)
+    private Group group;
+
+    @ManyToOne
+    @JoinColumn(name = "paid_by_user_id", nullable = false)
+    private User paidBy;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SplitType splitType;
+
+    @ElementCollection
+    @CollectionTable(name = "recurring_expense_shares", joinColumns = @JoinColumn(name = "recurring_expense_id"))
+    @Builder.Default
+    private List<RecurringShare> shares = new ArrayList<>(); // Only used for UNEQUAL split
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private RecurrenceFrequency frequency;
+
+    // First occurrence; later ones are counted from it so month-end dates do not drift
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "next_occurrence", nullable = false)
+    private LocalDate nextOccurrence;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private boolean active = true;
+
+    @Version
+    private Long version;
+
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+
+    public boolean isDueOn(LocalDate date) {
+        return active && !nextOccurrence.isAfter(date) && (endDate == null || !nextOccurrence.isAfter(endDate));
+    }
+}
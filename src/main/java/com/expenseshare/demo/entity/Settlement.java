@@ -10,15 +10,20 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 @Entity
-@Table(name = "settlements")
+@Table(name = "settlements", indexes = {
+        @Index(name = "idx_settlements_payer_date", columnList = "payer_id, settlement_date"),
+        @Index(name = "idx_settlements_receiver_date", columnList = "receiver_id, settlement_date"),
+        @Index(name = "idx_settlements_date", columnList = "settlement_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Builder
 public class Settlement {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlement_seq")
+    @SequenceGenerator(name = "settlement_seq", sequenceName = "settlement_seq", allocationSize = 50)
+    private Long id; // Sequence (not identity) ids so inserts can be JDBC-batched
 
     @ManyToOne
     @JoinColumn(name = "payer_id", nullable = false)
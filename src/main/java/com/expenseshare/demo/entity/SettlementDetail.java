@@ -16,7 +16,8 @@ import java.math.BigDecimal;
 @Builder
 public class SettlementDetail {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "settlement_detail_seq")
+    @SequenceGenerator(name = "settlement_detail_seq", sequenceName = "settlement_detail_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne
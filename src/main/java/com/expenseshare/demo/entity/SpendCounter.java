@@ -0,0 +1,46 @@
+package com.expenseshare.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One stripe of a running spend total for a group (userId 0) or a user in a group. Writers add to
+ * a random stripe so concurrent expenses in a group rarely wait on the same row; readers sum the
+ * stripes.
+ */
+@Entity
+@Table(name = "spend_counters",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "user_id", "stripe"}))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendCounter {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spend_counter_seq")
+    @SequenceGenerator(name = "spend_counter_seq", sequenceName = "spend_counter_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private int stripe;
+
+    @Column(name = "paid_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal paidAmount;
+
+    @Column(name = "share_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal shareAmount;
+
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+}
@@ -0,0 +1,55 @@
+package com.expenseshare.demo.entity;
+
+import com.expenseshare.demo.enums.RollupGranularity;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Pre-aggregated spending of one user in one group for one day or month: what they paid and
+ * what their shares came to. Kept up to date as expenses are recorded, changed and deleted.
+ */
+@Entity
+@Table(name = "spending_rollups",
+        uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "user_id", "granularity", "bucket_start"}),
+        indexes = {
+                @Index(name = "idx_spending_rollups_user", columnList = "user_id, granularity, bucket_start")
+        })
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SpendingRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "spending_rollup_seq")
+    @SequenceGenerator(name = "spending_rollup_seq", sequenceName = "spending_rollup_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RollupGranularity granularity;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDate bucketStart;
+
+    @Column(name = "paid_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal paidAmount;
+
+    @Column(name = "share_amount", nullable = false, precision = 14, scale = 2)
+    private BigDecimal shareAmount;
+
+    // Expenses this user paid in the bucket
+    @Column(name = "expense_count", nullable = false)
+    private long expenseCount;
+}
@@ -10,7 +10,12 @@ import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "user_balances",
-        uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "debtor_id", "creditor_id"}))
+        uniqueConstraints = @UniqueConstraint(columnNames = {"group_id", "debtor_id", "creditor_id"}),
+        indexes = {
+                @Index(name = "idx_user_balances_debtor_creditor", columnList = "debtor_id, creditor_id"),
+                @Index(name = "idx_user_balances_creditor", columnList = "creditor_id"),
+                @Index(name = "idx_user_balances_settled", columnList = "amount, last_updated")
+        })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,6 @@
+package com.expenseshare.demo.enums;
+
+public enum IdempotencyStatus {
+    IN_PROGRESS,
+    COMPLETED
+}
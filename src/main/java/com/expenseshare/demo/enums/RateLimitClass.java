@@ -0,0 +1,46 @@
+package com.expenseshare.demo.enums;
+
+import java.util.Locale;
+
+/**
+ * Endpoint classes with their own token buckets. The defaults are burst size and refill rate per
+ * principal and per group; each can be overridden under expenseshare.ratelimit.&lt;class&gt;.
+ */
+public enum RateLimitClass {
+    SETTLEMENT(10, 2, 20, 5),
+    WRITE(60, 20, 200, 50),
+    READ(300, 100, 1000, 300);
+
+    private final int principalCapacity;
+    private final double principalRefillPerSecond;
+    private final int groupCapacity;
+    private final double groupRefillPerSecond;
+
+    RateLimitClass(int principalCapacity, double principalRefillPerSecond,
+                   int groupCapacity, double groupRefillPerSecond) {
+        this.principalCapacity = principalCapacity;
+        this.principalRefillPerSecond = principalRefillPerSecond;
+        this.groupCapacity = groupCapacity;
+        this.groupRefillPerSecond = groupRefillPerSecond;
+    }
+
+    public int getPrincipalCapacity() {
+        return principalCapacity;
+    }
+
+    public double getPrincipalRefillPerSecond() {
+        return principalRefillPerSecond;
+    }
+
+    public int getGroupCapacity() {
+        return groupCapacity;
+    }
+
+    public double getGroupRefillPerSecond() {
+        return groupRefillPerSecond;
+    }
+
+    public String propertyName() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
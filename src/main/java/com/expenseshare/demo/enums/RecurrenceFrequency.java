@@ -0,0 +1,37 @@
+package com.expenseshare.demo.enums;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public enum RecurrenceFrequency {
+    DAILY(ChronoUnit.DAYS),
+    WEEKLY(ChronoUnit.WEEKS),
+    MONTHLY(ChronoUnit.MONTHS),
+    YEARLY(ChronoUnit.YEARS);
+
+    private final ChronoUnit unit;
+
+    RecurrenceFrequency(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Occurrence n of a series starting on the anchor date
+     */
+    public LocalDate occurrence(LocalDate anchor, long n) {
+        return anchor.plus(n, unit);
+    }
+
+    /**
+     * First occurrence after the previous one, counted from the anchor rather than from the previous
+     * date, so a series starting on Jan 31 runs Feb 28, Mar 31, Apr 30 instead of drifting to the 28th
+     */
+    public LocalDate next(LocalDate anchor, LocalDate previous) {
+        long n = Math.max(0, unit.between(anchor, previous));
+        LocalDate next = occurrence(anchor, n);
+        while (!next.isAfter(previous)) {
+            next = occurrence(anchor, ++n);
+        }
+        return next;
+    }
+}
@@ -0,0 +1,18 @@
+package com.expenseshare.demo.enums;
+
+import java.time.LocalDate;
+
+public enum RollupGranularity {
+    DAILY,
+    MONTHLY;
+
+    /**
+     * First day of the bucket containing the date
+     */
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAILY -> date;
+            case MONTHLY -> date.withDayOfMonth(1);
+        };
+    }
+}
@@ -0,0 +1,39 @@
+package com.expenseshare.demo.events;
+
+import com.expenseshare.demo.entity.UserBalance;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+
+/**
+ * One UserBalance row (debtor owes creditor in a group) moved from previousAmount to newAmount.
+ * A deleted row has newAmount zero. Published inside the writing transaction; listeners that
+ * need committed state use @TransactionalEventListener.
+ */
+@Value
+@Builder
+public class BalanceChangedEvent {
+    Long groupId;
+    Long debtorId;
+    Long creditorId;
+    BigDecimal previousAmount;
+    BigDecimal newAmount;
+
+    public static BalanceChangedEvent of(UserBalance balance, BigDecimal previousAmount, BigDecimal newAmount) {
+        return BalanceChangedEvent.builder()
+                .groupId(balance.getGroup().getId())
+                .debtorId(balance.getDebtor().getId())
+                .creditorId(balance.getCreditor().getId())
+                .previousAmount(previousAmount)
+                .newAmount(newAmount)
+                .build();
+    }
+
+    /**
+     * Change in what debtor owes creditor
+     */
+    public BigDecimal getDelta() {
+        return newAmount.subtract(previousAmount);
+    }
+}
@@ -0,0 +1,55 @@
+package com.expenseshare.demo.events;
+
+import com.expenseshare.demo.entity.Expense;
+import com.expenseshare.demo.entity.ExpenseShare;
+import lombok.Builder;
+import lombok.Value;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Spending of one expense, added to (recorded) or taken off (reversed) the rollups of the day it
+ * was created. An edit publishes the reversal of the old state and the new state.
+ */
+@Value
+@Builder
+public class ExpenseSpendingEvent {
+    Long groupId;
+    LocalDate date;
+    Long payerId;
+    BigDecimal amount;
+    Map<Long, BigDecimal> shares;
+    int expenseCount;
+
+    public static ExpenseSpendingEvent recorded(Expense expense) {
+        return of(expense, false);
+    }
+
+    /**
+     * Snapshot of the expense as it is now, with every amount negated
+     */
+    public static ExpenseSpendingEvent reversed(Expense expense) {
+        return of(expense, true);
+    }
+
+    private static ExpenseSpendingEvent of(Expense expense, boolean reverse) {
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
+        if (expense.getExpenseShares() != null) {
+            for (ExpenseShare share : expense.getExpenseShares()) {
+                BigDecimal amount = reverse ? share.getShare().negate() : share.getShare();
+                shares.merge(share.getUser().getId(), amount, BigDecimal::add);
+            }
+        }
+        return ExpenseSpendingEvent.builder()
+                .groupId(expense.getGroup().getId())
+                .date(expense.getCreatedAt() != null ? expense.getCreatedAt().toLocalDate() : LocalDate.now())
+                .payerId(expense.getPaidBy().getId())
+                .amount(reverse ? expense.getAmount().negate() : expense.getAmount())
+                .shares(shares)
+                .expenseCount(reverse ? -1 : 1)
+                .build();
+    }
+}
@@ -0,0 +1,15 @@
+package com.expenseshare.demo.events;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A group's name changed. previousName is null for a new group and name is null for a deleted one.
+ */
+@Value
+@Builder
+public class GroupChangedEvent {
+    Long groupId;
+    String previousName;
+    String name;
+}
@@ -0,0 +1,28 @@
+package com.expenseshare.demo.events;
+
+import com.expenseshare.demo.entity.User;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * A user was saved for the first time. Carries the searchable names so listeners never reload the user.
+ */
+@Value
+@Builder
+public class UserCreatedEvent {
+    Long userId;
+    String userName;
+    String emailId;
+    String firstName;
+    String lastName;
+
+    public static UserCreatedEvent of(User user) {
+        return UserCreatedEvent.builder()
+                .userId(user.getId())
+                .userName(user.getUserName())
+                .emailId(user.getEmailId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .build();
+    }
+}
@@ -0,0 +1,23 @@
+package com.expenseshare.demo.exception;
+
+import java.time.Duration;
+
+public class RateLimitExceededException extends RuntimeException {
+    private final Duration retryAfter;
+
+    public RateLimitExceededException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Whole seconds for the Retry-After header, never less than one
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1L, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
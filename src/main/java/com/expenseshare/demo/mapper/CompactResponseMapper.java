@@ -0,0 +1,91 @@
+package com.expenseshare.demo.mapper;
+
+import com.expenseshare.demo.dto.CompactExpenseDto;
+import com.expenseshare.demo.dto.CompactListDto;
+import com.expenseshare.demo.dto.CompactSettlementDetailDto;
+import com.expenseshare.demo.dto.CompactSettlementDto;
+import com.expenseshare.demo.dto.ExpenseResponseDto;
+import com.expenseshare.demo.dto.ExpenseShareResponseDto;
+import com.expenseshare.demo.dto.SettlementGroupDetailDto;
+import com.expenseshare.demo.dto.SettlementResponseDto;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Moves the user and group names repeated in every row of a listing into dictionaries
+ */
+public final class CompactResponseMapper {
+
+    // Media types that select the compact form; JSON keeps the full rows
+    public static final String SMILE_VALUE = "application/x-jackson-smile";
+    public static final String CBOR_VALUE = "application/cbor";
+
+    private CompactResponseMapper() {
+    }
+
+    public static CompactListDto<CompactExpenseDto> toCompactExpenses(List<ExpenseResponseDto> expenses) {
+        Map<Long, String> userNames = new LinkedHashMap<>();
+        Map<Long, String> groupNames = new LinkedHashMap<>();
+        List<CompactExpenseDto> items = expenses.stream()
+                .map(expense -> {
+                    groupNames.putIfAbsent(expense.getGroupId(), expense.getGroupName());
+                    userNames.putIfAbsent(expense.getPaidByUserId(), expense.getPaidByUserName());
+                    Map<Long, BigDecimal> shares = new LinkedHashMap<>();
+                    for (ExpenseShareResponseDto share : expense.getShares()) {
+                        userNames.putIfAbsent(share.getUserId(), share.getUserName());
+                        shares.put(share.getUserId(), share.getShare());
+                    }
+                    return CompactExpenseDto.builder()
+                            .id(expense.getId())
+                            .description(expense.getDescription())
+                            .amount(expense.getAmount())
+                            .groupId(expense.getGroupId())
+                            .paidByUserId(expense.getPaidByUserId())
+                            .splitType(expense.getSplitType())
+                            .createdAt(expense.getCreatedAt())
+                            .shares(shares)
+                            .build();
+                })
+                .collect(Collectors.toList());
+        return new CompactListDto<>(userNames, groupNames, items);
+    }
+
+    public static CompactListDto<CompactSettlementDto> toCompactSettlements(List<SettlementResponseDto> settlements) {
+        Map<Long, String> userNames = new LinkedHashMap<>();
+        Map<Long, String> groupNames = new LinkedHashMap<>();
+        List<CompactSettlementDto> items = settlements.stream()
+                .map(settlement -> {
+                    userNames.putIfAbsent(settlement.getPayerId(), settlement.getPayerName());
+                    userNames.putIfAbsent(settlement.getReceiverId(), settlement.getReceiverName());
+                    List<CompactSettlementDetailDto> details = settlement.getGroupDetails().stream()
+                            .map(detail -> toCompactDetail(detail, groupNames))
+                            .collect(Collectors.toList());
+                    return CompactSettlementDto.builder()
+                            .settlementId(settlement.getSettlementId())
+                            .payerId(settlement.getPayerId())
+                            .receiverId(settlement.getReceiverId())
+                            .totalAmountSettled(settlement.getTotalAmountSettled())
+                            .status(settlement.getStatus())
+                            .description(settlement.getDescription())
+                            .settlementDate(settlement.getSettlementDate())
+                            .groupDetails(details)
+                            .build();
+                })
+                .collect(Collectors.toList());
+        return new CompactListDto<>(userNames, groupNames, items);
+    }
+
+    private static CompactSettlementDetailDto toCompactDetail(SettlementGroupDetailDto detail, Map<Long, String> groupNames) {
+        groupNames.putIfAbsent(detail.getGroupId(), detail.getGroupName());
+        return CompactSettlementDetailDto.builder()
+                .groupId(detail.getGroupId())
+                .amountSettled(detail.getAmountSettled())
+                .balanceBefore(detail.getBalanceBefore())
+                .balanceAfter(detail.getBalanceAfter())
+                .build();
+    }
+}
@@ -0,0 +1,132 @@
+package com.expenseshare.demo.monitoring;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+
+/**
+ * Counts SQL statements per request, reports them in response headers and logs
+ * requests that exceed the statement budget or the slow-request threshold.
+ *
+ * Statements run on balance shard workers count towards the request that handed them off
+ * (see {@link SqlStatementStats#propagate}). The headers are sent before the body, so they
+ * cover the statements run before the response started; anything issued while the body is
+ * written (lazy loads during serialization, streamed exports) is only in the logged totals.
+ */
+@Component
+@Slf4j
+public class SqlStatementBudgetFilter extends OncePerRequestFilter {
+
+    public static final String STATEMENT_COUNT_HEADER = "X-DB-Statement-Count";
+    public static final String DB_TIME_HEADER = "X-DB-Time-Ms";
+
+    private static final int LOGGED_FINGERPRINTS = 10;
+
+    private final int statementBudget;
+    private final long slowRequestMillis;
+
+    public SqlStatementBudgetFilter(@Value("${expenseshare.sql.statement-budget:50}") int statementBudget,
+                                    @Value("${expenseshare.sql.slow-request-ms:500}") long slowRequestMillis) {
+        this.statementBudget = statementBudget;
+        this.slowRequestMillis = slowRequestMillis;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        SqlStatementStats stats = SqlStatementStats.begin();
+        StatementHeaderResponseWrapper wrapper = new StatementHeaderResponseWrapper(response, stats);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            if (!response.isCommitted()) {
+                wrapper.writeHeaders();
+            }
+            SqlStatementStats.end();
+            report(request, stats, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void report(HttpServletRequest request, SqlStatementStats stats, long elapsedMillis) {
+        boolean overBudget = stats.getStatementCount() > statementBudget;
+        boolean slow = elapsedMillis > slowRequestMillis;
+        if (!overBudget && !slow) {
+            return;
+        }
+        log.warn("{} {} {} - {} statements (budget {}), {} ms in DB, {} ms total. Top statements: {}",
+                overBudget ? "Over SQL budget:" : "Slow request:",
+                request.getMethod(), request.getRequestURI(), stats.getStatementCount(), statementBudget,
+                stats.getExecutionMillis(), elapsedMillis, stats.topFingerprints(LOGGED_FINGERPRINTS));
+    }
+
+    /**
+     * Adds the statement headers right before the response starts writing its body,
+     * so they are present even when the body is streamed. They count the statements run
+     * up to that point, not those issued while the body is being written.
+     */
+    private static class StatementHeaderResponseWrapper extends HttpServletResponseWrapper {
+
+        private final SqlStatementStats stats;
+        private boolean headersWritten;
+
+        StatementHeaderResponseWrapper(HttpServletResponse response, SqlStatementStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        void writeHeaders() {
+            if (!headersWritten) {
+                headersWritten = true;
+                setHeader(STATEMENT_COUNT_HEADER, String.valueOf(stats.getStatementCount()));
+                setHeader(DB_TIME_HEADER, String.valueOf(stats.getExecutionMillis()));
+            }
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            writeHeaders();
+            return super.getOutputStream();
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            writeHeaders();
+            return super.getWriter();
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            super.flushBuffer();
+        }
+
+        @Override
+        public void sendError(int sc) throws IOException {
+            writeHeaders();
+            super.sendError(sc);
+        }
+
+        @Override
+        public void sendError(int sc, String msg) throws IOException {
+            writeHeaders();
+            super.sendError(sc, msg);
+        }
+
+        @Override
+        public void sendRedirect(String location) throws IOException {
+            writeHeaders();
+            super.sendRedirect(location);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.expenseshare.demo.monitoring;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Per-thread SQL statement counter for the current request (or test block).
+ * Fed by {@link SqlStatementInspector} and {@link SqlTimingSessionListener}; nothing is recorded
+ * unless {@link #begin()} was called on the thread, or the work was handed to another thread
+ * through {@link #propagate(Supplier)}. Updates are synchronized because a request and the
+ * worker running its task can both record into the same stats.
+ */
+public final class SqlStatementStats {
+
+    private static final ThreadLocal<SqlStatementStats> CURRENT = new ThreadLocal<>();
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(\\.\\d+)?\\b");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private int statementCount;
+    private long executionNanos;
+    private final Map<String, Integer> fingerprints = new LinkedHashMap<>();
+
+    private SqlStatementStats() {
+    }
+
+    /**
+     * Start counting on the current thread, replacing any previous stats
+     */
+    public static SqlStatementStats begin() {
+        SqlStatementStats stats = new SqlStatementStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * Stats for the current thread, or null when nothing is being counted
+     */
+    public static SqlStatementStats current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * Wraps a task handed to another thread so the statements it runs count towards the
+     * submitting thread's stats; returns the task unchanged when nothing is being counted
+     */
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats == null) {
+            return task;
+        }
+        return () -> {
+            SqlStatementStats previous = CURRENT.get();
+            CURRENT.set(stats);
+            try {
+                return task.get();
+            } finally {
+                if (previous == null) {
+                    CURRENT.remove();
+                } else {
+                    CURRENT.set(previous);
+                }
+            }
+        };
+    }
+
+    static void recordStatement(String sql) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            synchronized (stats) {
+                stats.statementCount++;
+                stats.fingerprints.merge(fingerprint(sql), 1, Integer::sum);
+            }
+        }
+    }
+
+    static void recordExecution(long nanos) {
+        SqlStatementStats stats = CURRENT.get();
+        if (stats != null) {
+            synchronized (stats) {
+                stats.executionNanos += nanos;
+            }
+        }
+    }
+
+    /**
+     * Normalise a statement so the same query with different literals or IN-list sizes groups together
+     */
+    public static String fingerprint(String sql) {
+        String normalized = STRING_LITERAL.matcher(sql).replaceAll("?");
+        normalized = NUMBER_LITERAL.matcher(normalized).replaceAll("?");
+        normalized = IN_LIST.matcher(normalized).replaceAll("(?)");
+        return WHITESPACE.matcher(normalized).replaceAll(" ").trim().toLowerCase();
+    }
+
+    public synchronized int getStatementCount() {
+        return statementCount;
+    }
+
+    public synchronized long getExecutionMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(executionNanos);
+    }
+
+    public synchronized Map<String, Integer> getFingerprints() {
+        return new LinkedHashMap<>(fingerprints);
+    }
+
+    /**
+     * Most frequent fingerprints first, formatted as "count x sql" for logging
+     */
+    public synchronized List<String> topFingerprints(int limit) {
+        return fingerprints.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue(Comparator.reverseOrder()))
+                .limit(limit)
+                .map(entry -> entry.getValue() + " x " + entry.getKey())
+                .collect(Collectors.toList());
+    }
+}
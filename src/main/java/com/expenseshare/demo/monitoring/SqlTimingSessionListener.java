@@ -0,0 +1,33 @@
+package com.expenseshare.demo.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Accumulates JDBC execution time for the current request.
+ * Hibernate creates one instance per session (hibernate.session.events.auto).
+ */
+public class SqlTimingSessionListener implements SessionEventListener {
+
+    private long statementStart;
+    private long batchStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlStatementStats.recordExecution(System.nanoTime() - statementStart);
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        batchStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        SqlStatementStats.recordExecution(System.nanoTime() - batchStart);
+    }
+}
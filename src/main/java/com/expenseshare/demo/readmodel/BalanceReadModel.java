@@ -0,0 +1,405 @@
+package com.expenseshare.demo.readmodel;
+
+import com.expenseshare.demo.dto.BalanceRowDto;
+import com.expenseshare.demo.dto.GroupBalanceDetailDto;
+import com.expenseshare.demo.dto.GroupBalanceEntryDto;
+import com.expenseshare.demo.dto.GroupBalanceSummary;
+import com.expenseshare.demo.dto.IndividualBalanceDto;
+import com.expenseshare.demo.dto.UserBalanceResponseDto;
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserBalanceRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.UnaryOperator;
+
+/**
+ * Read side for balances. Holds the net amount per user pair per group in memory, fed by
+ * BalanceChangedEvent after each commit, so balance reads never touch the rows settlements lock.
+ *
+ * Events are applied as deltas, which commute, so listeners of concurrent transactions may run
+ * in any order. The model is rebuilt from the database before the web server starts accepting
+ * requests; if that fails it is rebuilt on first read.
+ *
+ * A rebuild loads into a fresh projection while readers keep using the current one. Events that
+ * arrive meanwhile are buffered; since the snapshot may or may not already contain their commit,
+ * the pairs they touch are re-read from the database (after the commit, so the row is at least as
+ * new as the event) instead of replaying the deltas. The last catch-up and the swap happen under
+ * the write lock, so no event falls between them.
+ *
+ * Only this instance's commits reach the model; SingleInstanceGuard prevents a second instance.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BalanceReadModel implements SmartLifecycle {
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+
+    // User names never change once created; group names follow GroupChangedEvent
+    private final ConcurrentMap<Long, String> userNames = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, String> groupNames = new ConcurrentHashMap<>();
+
+    // Listeners hold the read lock; a rebuild takes the write lock to start buffering and to swap
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile Projection projection = new Projection();
+    private volatile Queue<BalanceChangedEvent> rebuildBuffer;
+
+    private volatile boolean ready;
+    private volatile boolean running;
+
+    // Applied before ResourceVersions bumps the ETags that cover this data
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        swapLock.readLock().lock();
+        try {
+            Queue<BalanceChangedEvent> buffer = rebuildBuffer;
+            if (buffer != null) {
+                buffer.add(event);
+            }
+            if (ready) {
+                // Before the first build there is nothing to update; the build reads the committed row
+                projection.applyDelta(event.getGroupId(), event.getDebtorId(), event.getCreditorId(), event.getDelta());
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces a renamed group's cached name with the committed one and forgets deleted groups
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onGroupChanged(GroupChangedEvent event) {
+        if (event.getName() != null) {
+            groupNames.put(event.getGroupId(), event.getName());
+        } else {
+            groupNames.remove(event.getGroupId());
+        }
+    }
+
+    /**
+     * Replaces the projection with the outstanding balances currently in the database
+     */
+    public synchronized void rebuild() {
+        Queue<BalanceChangedEvent> buffer = new ConcurrentLinkedQueue<>();
+        swapLock.writeLock().lock();
+        try {
+            rebuildBuffer = buffer;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        try {
+            Projection fresh = new Projection();
+            List<BalanceRowDto> rows = userBalanceRepository.findAllOutstandingBalanceRows();
+            for (BalanceRowDto row : rows) {
+                fresh.applyDelta(row.getGroupId(), row.getDebtorId(), row.getCreditorId(), row.getAmount());
+            }
+            // Catch up outside the lock first, so the pass under it is short
+            int refreshed = refreshPairs(fresh, buffer);
+
+            swapLock.writeLock().lock();
+            try {
+                refreshed += refreshPairs(fresh, buffer);
+                projection = fresh;
+                ready = true;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+            log.info("Balance read model built from {} balance rows ({} user pairs, {} re-read after concurrent commits)",
+                    rows.size(), fresh.netBalances.size(), refreshed);
+        } finally {
+            swapLock.writeLock().lock();
+            try {
+                rebuildBuffer = null;
+            } finally {
+                swapLock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Re-reads the pairs touched by the buffered events and sets their net amount in the projection
+     */
+    private int refreshPairs(Projection target, Queue<BalanceChangedEvent> buffer) {
+        Set<PairKey> pairs = new LinkedHashSet<>();
+        BalanceChangedEvent event;
+        while ((event = buffer.poll()) != null) {
+            if (!event.getDebtorId().equals(event.getCreditorId())) {
+                pairs.add(PairKey.of(event.getGroupId(), event.getDebtorId(), event.getCreditorId()));
+            }
+        }
+        for (PairKey pair : pairs) {
+            BigDecimal net = BigDecimal.ZERO;
+            for (BalanceRowDto row : userBalanceRepository.findBalanceRowsBetween(
+                    pair.groupId(), pair.lowUserId(), pair.highUserId())) {
+                net = pair.lowUserId().equals(row.getDebtorId()) ? net.add(row.getAmount()) : net.subtract(row.getAmount());
+            }
+            target.setNet(pair, net);
+        }
+        return pairs.size();
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public UserBalanceResponseDto getUserBalance(Long userId) {
+        ensureReady();
+        String userName = userName(userId);
+        if (userName == null) {
+            throw new UserNotFoundException("User not found with ID: " + userId);
+        }
+
+        BigDecimal totalOwed = BigDecimal.ZERO;
+        BigDecimal totalOwedBy = BigDecimal.ZERO;
+        Map<Long, List<IndividualBalanceDto>> balancesByGroup = new TreeMap<>();
+
+        Projection current = projection;
+        for (PairKey pair : current.pairsByUser.getOrDefault(userId, Set.of())) {
+            BigDecimal net = current.netBalances.get(pair);
+            if (net == null) {
+                continue;
+            }
+            boolean userIsLow = pair.lowUserId().equals(userId);
+            BigDecimal owed = userIsLow ? net : net.negate(); // Positive = user owes the other user
+            Long otherUserId = userIsLow ? pair.highUserId() : pair.lowUserId();
+
+            if (owed.signum() > 0) {
+                totalOwed = totalOwed.add(owed);
+            } else {
+                totalOwedBy = totalOwedBy.add(owed.negate());
+            }
+            balancesByGroup.computeIfAbsent(pair.groupId(), id -> new ArrayList<>())
+                    .add(IndividualBalanceDto.builder()
+                            .otherUserId(otherUserId)
+                            .otherUserName(userName(otherUserId))
+                            .amount(owed)
+                            .build());
+        }
+
+        List<GroupBalanceDetailDto> groupBalances = new ArrayList<>();
+        balancesByGroup.forEach((groupId, balances) -> {
+            balances.sort(Comparator.comparing(IndividualBalanceDto::getOtherUserId));
+            groupBalances.add(GroupBalanceDetailDto.builder()
+                    .groupId(groupId)
+                    .groupName(groupName(groupId))
+                    .balances(balances)
+                    .build());
+        });
+
+        return UserBalanceResponseDto.builder()
+                .userId(userId)
+                .userName(userName)
+                .totalOwed(totalOwed)
+                .totalOwedBy(totalOwedBy)
+                .netBalance(totalOwed.subtract(totalOwedBy))
+                .groupBalances(groupBalances)
+                .build();
+    }
+
+    public GroupBalanceSummary getGroupBalances(Long groupId) {
+        ensureReady();
+        String groupName = groupName(groupId);
+        if (groupName == null) {
+            throw new GroupNotFoundException("Group not found with ID: " + groupId);
+        }
+
+        List<GroupBalanceEntryDto> entries = new ArrayList<>();
+        BigDecimal totalGroupDebt = BigDecimal.ZERO;
+
+        Projection current = projection;
+        for (PairKey pair : current.pairsByGroup.getOrDefault(groupId, Set.of())) {
+            BigDecimal net = current.netBalances.get(pair);
+            if (net == null) {
+                continue;
+            }
+            Long debtorId = net.signum() > 0 ? pair.lowUserId() : pair.highUserId();
+            Long creditorId = net.signum() > 0 ? pair.highUserId() : pair.lowUserId();
+            entries.add(GroupBalanceEntryDto.builder()
+                    .debtorId(debtorId)
+                    .debtorName(userName(debtorId))
+                    .creditorId(creditorId)
+                    .creditorName(userName(creditorId))
+                    .amount(net.abs())
+                    .build());
+            totalGroupDebt = totalGroupDebt.add(net.abs());
+        }
+        entries.sort(Comparator.comparing(GroupBalanceEntryDto::getDebtorId)
+                .thenComparing(GroupBalanceEntryDto::getCreditorId));
+
+        return GroupBalanceSummary.builder()
+                .groupId(groupId)
+                .groupName(groupName)
+                .balances(entries)
+                .totalGroupDebt(totalGroupDebt)
+                .build();
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            rebuild();
+        }
+    }
+
+    private String userName(Long userId) {
+        String name = userNames.get(userId);
+        if (name == null) {
+            name = userRepository.findUserNameById(userId).orElse(null);
+            if (name != null) {
+                userNames.putIfAbsent(userId, name);
+            }
+        }
+        return name;
+    }
+
+    private String groupName(Long groupId) {
+        String name = groupNames.get(groupId);
+        if (name == null) {
+            name = groupRepository.findNameById(groupId).orElse(null);
+            if (name != null) {
+                groupNames.putIfAbsent(groupId, name);
+            }
+        }
+        return name;
+    }
+
+    /**
+     * Builds the model before the embedded web server (a later lifecycle phase) accepts requests
+     */
+    @Override
+    public void start() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Could not build balance read model at startup, will retry on first read", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Net amount per user pair with its user and group indexes
+     */
+    private static class Projection {
+
+        // Positive amount: pair.lowUserId owes pair.highUserId
+        private final ConcurrentMap<PairKey, BigDecimal> netBalances = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, Set<PairKey>> pairsByUser = new ConcurrentHashMap<>();
+        private final ConcurrentMap<Long, Set<PairKey>> pairsByGroup = new ConcurrentHashMap<>();
+
+        void applyDelta(Long groupId, Long debtorId, Long creditorId, BigDecimal delta) {
+            if (delta == null || delta.signum() == 0 || debtorId.equals(creditorId)) {
+                return;
+            }
+            PairKey pair = PairKey.of(groupId, debtorId, creditorId);
+            BigDecimal signedDelta = pair.lowUserId().equals(debtorId) ? delta : delta.negate();
+            update(pair, current -> current == null ? signedDelta : current.add(signedDelta));
+        }
+
+        void setNet(PairKey pair, BigDecimal net) {
+            update(pair, current -> net);
+        }
+
+        /**
+         * Changes a pair's net amount and its index entries under the pair's map entry lock, so a pair
+         * is indexed exactly while it has a non-zero amount and settled pairs leave no index behind
+         */
+        private void update(PairKey pair, UnaryOperator<BigDecimal> change) {
+            netBalances.compute(pair, (key, current) -> {
+                BigDecimal next = change.apply(current);
+                if (next.signum() == 0) {
+                    if (current != null) {
+                        unindex(key);
+                    }
+                    return null;
+                }
+                if (current == null) {
+                    index(key);
+                }
+                return next;
+            });
+        }
+
+        private void index(PairKey pair) {
+            addTo(pairsByUser, pair.lowUserId(), pair);
+            addTo(pairsByUser, pair.highUserId(), pair);
+            addTo(pairsByGroup, pair.groupId(), pair);
+        }
+
+        private void unindex(PairKey pair) {
+            removeFrom(pairsByUser, pair.lowUserId(), pair);
+            removeFrom(pairsByUser, pair.highUserId(), pair);
+            removeFrom(pairsByGroup, pair.groupId(), pair);
+        }
+
+        private static void addTo(ConcurrentMap<Long, Set<PairKey>> index, Long id, PairKey pair) {
+            index.compute(id, (key, pairs) -> {
+                Set<PairKey> target = pairs != null ? pairs : ConcurrentHashMap.newKeySet();
+                target.add(pair);
+                return target;
+            });
+        }
+
+        private static void removeFrom(ConcurrentMap<Long, Set<PairKey>> index, Long id, PairKey pair) {
+            index.computeIfPresent(id, (key, pairs) -> {
+                pairs.remove(pair);
+                return pairs.isEmpty() ? null : pairs;
+            });
+        }
+    }
+
+    /**
+     * Unordered user pair within a group
+     */
+    private record PairKey(Long groupId, Long lowUserId, Long highUserId) {
+
+        static PairKey of(Long groupId, Long userA, Long userB) {
+            return userA < userB ? new PairKey(groupId, userA, userB) : new PairKey(groupId, userB, userA);
+        }
+    }
+}
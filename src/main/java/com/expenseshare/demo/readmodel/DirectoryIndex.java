@@ -0,0 +1,208 @@
+package com.expenseshare.demo.readmodel;
+
+import com.expenseshare.demo.dto.UserSummaryDto;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import com.expenseshare.demo.events.UserCreatedEvent;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Case-insensitive prefix index over user names, emails and group names for search and
+ * autocomplete. Each searchable term is a key in a sorted map, so a prefix lookup is a seek plus a
+ * scan of the matches only, independent of the number of users.
+ *
+ * Loaded in id order before the web server starts, then kept current by after-commit events.
+ * Adding a term is idempotent, so an event that races a rebuild cannot duplicate a match.
+ */
+@Component
+@Slf4j
+public class DirectoryIndex implements SmartLifecycle {
+
+    // Separates the term from the id in a key, and sorts below every character a term can contain
+    private static final char SEPARATOR = '\u0000';
+
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final int maxMatches;
+    private final int batchSize;
+
+    // "<lower-case term>\0<id>" -> id, so equal terms of different rows stay distinct
+    private final ConcurrentNavigableMap<String, Long> userTerms = new ConcurrentSkipListMap<>();
+    private final ConcurrentNavigableMap<String, Long> groupTerms = new ConcurrentSkipListMap<>();
+
+    private volatile boolean ready;
+    private volatile boolean running;
+
+    public DirectoryIndex(UserRepository userRepository, GroupRepository groupRepository,
+                          @Value("${expenseshare.search.max-matches:1000}") int maxMatches,
+                          @Value("${expenseshare.search.rebuild-batch-size:5000}") int batchSize) {
+        this.userRepository = userRepository;
+        this.groupRepository = groupRepository;
+        this.maxMatches = maxMatches;
+        this.batchSize = batchSize;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onUserCreated(UserCreatedEvent event) {
+        addUser(event.getUserId(), event.getUserName(), event.getEmailId(), event.getFirstName(), event.getLastName());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onGroupChanged(GroupChangedEvent event) {
+        if (event.getPreviousName() != null) {
+            groupTerms.remove(key(event.getPreviousName(), event.getGroupId()));
+        }
+        put(groupTerms, event.getName(), event.getGroupId());
+    }
+
+    /**
+     * Replaces the index with the users and groups currently in the database, one keyset batch at a time
+     */
+    public synchronized void rebuild() {
+        ready = false;
+        userTerms.clear();
+        groupTerms.clear();
+
+        long afterId = 0L;
+        List<UserSummaryDto> users;
+        do {
+            users = userRepository.findSummariesAfter(afterId, PageRequest.of(0, batchSize));
+            for (UserSummaryDto user : users) {
+                addUser(user.getId(), user.getUserName(), user.getEmailId(), user.getFirstName(), user.getLastName());
+                afterId = user.getId();
+            }
+        } while (users.size() == batchSize);
+
+        afterId = 0L;
+        List<Object[]> groups;
+        do {
+            groups = groupRepository.findIdAndNameAfter(afterId, PageRequest.of(0, batchSize));
+            for (Object[] group : groups) {
+                afterId = (Long) group[0];
+                put(groupTerms, (String) group[1], afterId);
+            }
+        } while (groups.size() == batchSize);
+
+        ready = true;
+        log.info("Directory index rebuilt with {} user terms and {} group terms", userTerms.size(), groupTerms.size());
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Ids of users whose user name, email, first or last name starts with the prefix, ordered by
+     * the matching term and capped at the configured maximum
+     */
+    public Matches matchUsers(String prefix) {
+        ensureReady();
+        return match(userTerms, prefix);
+    }
+
+    /**
+     * Ids of groups whose name starts with the prefix, ordered by name
+     */
+    public Matches matchGroups(String prefix) {
+        ensureReady();
+        return match(groupTerms, prefix);
+    }
+
+    private Matches match(ConcurrentNavigableMap<String, Long> terms, String prefix) {
+        String normalized = normalize(prefix);
+        // A user matching on several terms is listed once, at its first match
+        Set<Long> ids = new LinkedHashSet<>();
+        for (Map.Entry<String, Long> entry : terms.tailMap(normalized).entrySet()) {
+            if (!entry.getKey().startsWith(normalized)) {
+                break;
+            }
+            if (ids.size() >= maxMatches && !ids.contains(entry.getValue())) {
+                return new Matches(new ArrayList<>(ids), true);
+            }
+            ids.add(entry.getValue());
+        }
+        return new Matches(new ArrayList<>(ids), false);
+    }
+
+    private void addUser(Long userId, String userName, String emailId, String firstName, String lastName) {
+        put(userTerms, userName, userId);
+        put(userTerms, emailId, userId);
+        put(userTerms, firstName, userId);
+        put(userTerms, lastName, userId);
+    }
+
+    private static void put(ConcurrentNavigableMap<String, Long> terms, String term, Long id) {
+        if (term != null && !term.isBlank()) {
+            terms.put(key(term, id), id);
+        }
+    }
+
+    private static String key(String term, Long id) {
+        return normalize(term) + SEPARATOR + id;
+    }
+
+    static String normalize(String term) {
+        return term.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void ensureReady() {
+        if (!ready) {
+            synchronized (this) {
+                // Searches that queued behind a rebuild use its result instead of rebuilding again
+                if (!ready) {
+                    rebuild();
+                }
+            }
+        }
+    }
+
+    /**
+     * Loads the index before the embedded web server (a later lifecycle phase) accepts requests
+     */
+    @Override
+    public void start() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.error("Could not build directory index at startup, will retry on first search", e);
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    /**
+     * Matching ids, and whether more rows matched than the configured maximum
+     */
+    public record Matches(List<Long> ids, boolean truncated) {
+    }
+}
@@ -0,0 +1,71 @@
+package com.expenseshare.demo.readmodel;
+
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version counters per user and per group, used as ETags so polling clients get 304 Not Modified
+ * without the read running. Balance events (balance and settlement writes) bump both users and the
+ * group; expense events and group renames or deletes bump the group.
+ *
+ * Counters are bumped after commit and after the balance read model has applied the change, and a
+ * read takes the ETag before reading data, so a response is never cached under a newer ETag than
+ * its data. The epoch makes ETags from before a restart stale.
+ *
+ * Counters only see this instance's writes, which is why SingleInstanceGuard keeps the
+ * application to one instance per database.
+ */
+@Component
+public class ResourceVersions {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+    private final ConcurrentMap<Long, AtomicLong> userVersions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> groupVersions = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        bump(userVersions, event.getDebtorId());
+        bump(userVersions, event.getCreditorId());
+        bump(groupVersions, event.getGroupId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onExpenseSpending(ExpenseSpendingEvent event) {
+        bump(groupVersions, event.getGroupId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onGroupChanged(GroupChangedEvent event) {
+        bump(groupVersions, event.getGroupId());
+    }
+
+    public String userETag(Long userId) {
+        return "\"u" + userId + "-" + epoch + "-" + version(userVersions, userId) + "\"";
+    }
+
+    public String groupETag(Long groupId) {
+        return "\"g" + groupId + "-" + epoch + "-" + version(groupVersions, groupId) + "\"";
+    }
+
+    private static void bump(ConcurrentMap<Long, AtomicLong> versions, Long id) {
+        versions.computeIfAbsent(id, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    private static long version(ConcurrentMap<Long, AtomicLong> versions, Long id) {
+        AtomicLong version = versions.get(id);
+        return version == null ? 0L : version.get();
+    }
+}
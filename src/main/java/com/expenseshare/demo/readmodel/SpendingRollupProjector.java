@@ -0,0 +1,25 @@
+package com.expenseshare.demo.readmodel;
+
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.services.SpendingAnalyticsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Feeds expense spending into the rollups inside the transaction that recorded, changed or deleted
+ * the expense, like the spend counters. The rollups commit or roll back with the expense, so no
+ * update can be lost, and a rebuild (which runs on the group's shard, as every expense write does)
+ * sees each expense together with its rollup change and never counts it twice.
+ */
+@Component
+@RequiredArgsConstructor
+public class SpendingRollupProjector {
+
+    private final SpendingAnalyticsService spendingAnalyticsService;
+
+    @EventListener
+    public void onExpenseSpending(ExpenseSpendingEvent event) {
+        spendingAnalyticsService.applySpending(event);
+    }
+}
@@ -0,0 +1,23 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.ArchivedSettlementDetail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedSettlementDetailRepository extends JpaRepository<ArchivedSettlementDetail, Long> {
+
+    @Modifying
+    @Query("INSERT INTO ArchivedSettlementDetail (id, settlementId, groupId, amountSettled, balanceBefore, balanceAfter) " +
+            "SELECT sd.id, sd.settlement.id, sd.group.id, sd.amountSettled, sd.balanceBefore, sd.balanceAfter " +
+            "FROM SettlementDetail sd WHERE sd.settlement.id IN :settlementIds")
+    int copyFromSettlementDetails(@Param("settlementIds") Collection<Long> settlementIds);
+
+    List<ArchivedSettlementDetail> findBySettlementIdIn(Collection<Long> settlementIds);
+}
@@ -0,0 +1,26 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.ArchivedSettlement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedSettlementRepository extends JpaRepository<ArchivedSettlement, Long> {
+
+    @Modifying
+    @Query("INSERT INTO ArchivedSettlement (id, payerId, receiverId, amount, description, status, settlementDate, " +
+            "createdAt, archivedAt) SELECT s.id, s.payer.id, s.receiver.id, s.amount, s.description, s.status, " +
+            "s.settlementDate, s.createdAt, :archivedAt FROM Settlement s WHERE s.id IN :ids")
+    int copyFromSettlements(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    @Query("SELECT s FROM ArchivedSettlement s WHERE s.payerId = :userId OR s.receiverId = :userId " +
+            "ORDER BY s.settlementDate DESC")
+    List<ArchivedSettlement> findByUser(@Param("userId") Long userId);
+}
@@ -0,0 +1,27 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.ArchivedUserBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedUserBalanceRepository extends JpaRepository<ArchivedUserBalance, Long> {
+
+    /**
+     * Copies the given user_balances rows in one INSERT ... SELECT
+     */
+    @Modifying
+    @Query("INSERT INTO ArchivedUserBalance (id, groupId, debtorId, creditorId, amount, lastUpdated, archivedAt) " +
+            "SELECT ub.id, ub.group.id, ub.debtor.id, ub.creditor.id, ub.amount, ub.lastUpdated, :archivedAt " +
+            "FROM UserBalance ub WHERE ub.id IN :ids")
+    int copyFromUserBalances(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+
+    List<ArchivedUserBalance> findByGroupId(Long groupId);
+}
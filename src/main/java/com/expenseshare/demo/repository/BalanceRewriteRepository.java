@@ -0,0 +1,9 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.BalanceRewrite;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceRewriteRepository extends JpaRepository<BalanceRewrite, Long> {
+}
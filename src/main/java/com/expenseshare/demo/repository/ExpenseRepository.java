@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
@@ -13,4 +14,21 @@ public interface ExpenseRepository extends JpaRepository<Expense, Long> {
 
     @Query("SELECT e FROM Expense e JOIN e.expenseShares es WHERE es.user.id = :userId")
     List<Expense> findExpensesByUserId(@Param("userId") Long userId);
+
+    @Query("SELECT e.group.id FROM Expense e WHERE e.id = :expenseId")
+    Optional<Long> findGroupIdById(@Param("expenseId") Long expenseId);
+
+    /**
+     * Rows of payer ID, day, amount paid and number of expenses; used to rebuild spending rollups
+     */
+    @Query("SELECT e.paidBy.id, CAST(e.createdAt AS LocalDate), SUM(e.amount), COUNT(e) FROM Expense e " +
+            "WHERE e.group.id = :groupId GROUP BY e.paidBy.id, CAST(e.createdAt AS LocalDate)")
+    List<Object[]> sumPaidByPayerAndDay(@Param("groupId") Long groupId);
+
+    /**
+     * Rows of user ID, day and total share
+     */
+    @Query("SELECT es.user.id, CAST(e.createdAt AS LocalDate), SUM(es.share) FROM ExpenseShare es JOIN es.expense e " +
+            "WHERE e.group.id = :groupId GROUP BY es.user.id, CAST(e.createdAt AS LocalDate)")
+    List<Object[]> sumSharesByUserAndDay(@Param("groupId") Long groupId);
 }
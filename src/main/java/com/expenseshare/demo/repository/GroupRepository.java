@@ -1,10 +1,14 @@
 package com.expenseshare.demo.repository;
 
+import com.expenseshare.demo.dto.GroupSummaryDto;
 import com.expenseshare.demo.entity.Group;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,4 +21,26 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
     List<Group> findGroupsWithBothUsers(@Param("userId1") Long userId1, @Param("userId2") Long userId2);
     @Override
     List<Group> findAll();
+
+    @Query("SELECT g.name FROM Group g WHERE g.id = :groupId")
+    Optional<String> findNameById(@Param("groupId") Long groupId);
+
+    @Query(value = "SELECT new com.expenseshare.demo.dto.GroupSummaryDto(g.id, g.name, COUNT(u)) " +
+            "FROM Group g LEFT JOIN g.users u GROUP BY g.id, g.name",
+            countQuery = "SELECT COUNT(g) FROM Group g")
+    Page<GroupSummaryDto> findGroupSummaries(Pageable pageable);
+
+    @Query("SELECT new com.expenseshare.demo.dto.GroupSummaryDto(g.id, g.name, COUNT(u)) " +
+            "FROM Group g LEFT JOIN g.users u WHERE g.id = :groupId GROUP BY g.id, g.name")
+    Optional<GroupSummaryDto> findSummaryById(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.expenseshare.demo.dto.GroupSummaryDto(g.id, g.name, COUNT(u)) " +
+            "FROM Group g LEFT JOIN g.users u WHERE g.id IN :groupIds GROUP BY g.id, g.name")
+    List<GroupSummaryDto> findSummariesByIdIn(@Param("groupIds") Collection<Long> groupIds);
+
+    /**
+     * Keyset page of (id, name) rows after the given id, for scanning the whole table in bounded batches
+     */
+    @Query("SELECT g.id, g.name FROM Group g WHERE g.id > :afterId ORDER BY g.id")
+    List<Object[]> findIdAndNameAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
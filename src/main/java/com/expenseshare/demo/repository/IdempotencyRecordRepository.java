@@ -0,0 +1,30 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.IdempotencyRecord;
+import com.expenseshare.demo.enums.IdempotencyStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+
+    /**
+     * Removes the claim only if it is still the same stale one, so two retries cannot both take it over
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.id = :id AND r.status = :status AND r.createdAt < :cutoff")
+    int deleteStaleClaim(@Param("id") String id, @Param("status") IdempotencyStatus status,
+                         @Param("cutoff") LocalDateTime cutoff);
+}
@@ -0,0 +1,30 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.InstanceLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface InstanceLeaseRepository extends JpaRepository<InstanceLease, String> {
+
+    /**
+     * Renews the lease for its owner, or takes it over when the last heartbeat is older than staleBefore
+     */
+    @Transactional
+    @Modifying
+    @Query("UPDATE InstanceLease l SET l.owner = :owner, l.heartbeatAt = :now " +
+            "WHERE l.id = :id AND (l.owner = :owner OR l.heartbeatAt < :staleBefore)")
+    int renew(@Param("id") String id, @Param("owner") String owner, @Param("now") LocalDateTime now,
+              @Param("staleBefore") LocalDateTime staleBefore);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM InstanceLease l WHERE l.id = :id AND l.owner = :owner")
+    int release(@Param("id") String id, @Param("owner") String owner);
+}
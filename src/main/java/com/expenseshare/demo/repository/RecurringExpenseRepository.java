@@ -0,0 +1,31 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.entity.RecurringExpense;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+
+    List<RecurringExpense> findByGroupIdAndActiveTrue(Long groupId);
+
+    @Query("SELECT DISTINCT r.group.id FROM RecurringExpense r WHERE r.active = true AND r.nextOccurrence <= :date")
+    List<Long> findGroupIdsWithDueExpenses(@Param("date") LocalDate date);
+
+    /**
+     * Locks the due definitions so a second instance running the scheduler skips nothing and doubles nothing
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM RecurringExpense r WHERE r.active = true AND r.nextOccurrence <= :date " +
+            "AND r.group.id IN :groupIds ORDER BY r.id")
+    List<RecurringExpense> findDueInGroupsForUpdate(@Param("groupIds") Collection<Long> groupIds,
+                                                    @Param("date") LocalDate date);
+}
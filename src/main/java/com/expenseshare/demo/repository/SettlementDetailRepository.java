@@ -2,8 +2,17 @@ package com.expenseshare.demo.repository;
 
 import com.expenseshare.demo.entity.SettlementDetail;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface SettlementDetailRepository extends JpaRepository<SettlementDetail, Long> {
+
+    @Modifying
+    @Query("DELETE FROM SettlementDetail sd WHERE sd.settlement.id IN :settlementIds")
+    int deleteBySettlementIds(@Param("settlementIds") Collection<Long> settlementIds);
 }
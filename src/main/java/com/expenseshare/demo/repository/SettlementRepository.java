@@ -1,11 +1,15 @@
 package com.expenseshare.demo.repository;
 
 import com.expenseshare.demo.entity.Settlement;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,5 +26,11 @@ public interface SettlementRepository extends JpaRepository<Settlement, Long> {
     List<Settlement> findSettlementsBetweenUsers(
             @Param("userId1") Long userId1,
             @Param("userId2") Long userId2);
-}
 
+    @Query("SELECT s.id FROM Settlement s WHERE s.settlementDate < :cutoff ORDER BY s.id")
+    List<Long> findIdsSettledBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM Settlement s WHERE s.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
+}
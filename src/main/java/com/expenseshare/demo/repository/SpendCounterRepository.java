@@ -0,0 +1,38 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.entity.SpendCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface SpendCounterRepository extends JpaRepository<SpendCounter, Long> {
+
+    /**
+     * Returns 0 when the stripes for this group and user have not been created yet
+     */
+    @Modifying
+    @Query("UPDATE SpendCounter c SET c.paidAmount = c.paidAmount + :paid, c.shareAmount = c.shareAmount + :share, " +
+            "c.expenseCount = c.expenseCount + :count " +
+            "WHERE c.groupId = :groupId AND c.userId = :userId AND c.stripe = :stripe")
+    int addToStripe(@Param("groupId") Long groupId, @Param("userId") Long userId, @Param("stripe") int stripe,
+                    @Param("paid") BigDecimal paid, @Param("share") BigDecimal share, @Param("count") long count);
+
+    /**
+     * Stripes merged per user, including the group total row
+     */
+    @Query("SELECT new com.expenseshare.demo.dto.MemberSpendingDto(c.userId, SUM(c.paidAmount), SUM(c.shareAmount), " +
+            "SUM(c.expenseCount)) FROM SpendCounter c WHERE c.groupId = :groupId GROUP BY c.userId ORDER BY c.userId")
+    List<MemberSpendingDto> sumByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.expenseshare.demo.dto.MemberSpendingDto(c.userId, SUM(c.paidAmount), SUM(c.shareAmount), " +
+            "SUM(c.expenseCount)) FROM SpendCounter c WHERE c.groupId = :groupId AND c.userId = :userId GROUP BY c.userId")
+    Optional<MemberSpendingDto> sumByGroupIdAndUserId(@Param("groupId") Long groupId, @Param("userId") Long userId);
+}
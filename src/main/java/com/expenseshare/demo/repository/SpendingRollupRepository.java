@@ -0,0 +1,64 @@
+package com.expenseshare.demo.repository;
+
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.dto.SpendingBucketDto;
+import com.expenseshare.demo.entity.SpendingRollup;
+import com.expenseshare.demo.enums.RollupGranularity;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface SpendingRollupRepository extends JpaRepository<SpendingRollup, Long> {
+
+    /**
+     * Adds to an existing bucket in place; returns 0 when the bucket has no row yet
+     */
+    @Modifying
+    @Query("UPDATE SpendingRollup r SET r.paidAmount = r.paidAmount + :paid, r.shareAmount = r.shareAmount + :share, " +
+            "r.expenseCount = r.expenseCount + :count WHERE r.groupId = :groupId AND r.userId = :userId " +
+            "AND r.granularity = :granularity AND r.bucketStart = :bucketStart")
+    int addToBucket(@Param("groupId") Long groupId, @Param("userId") Long userId,
+                    @Param("granularity") RollupGranularity granularity, @Param("bucketStart") LocalDate bucketStart,
+                    @Param("paid") BigDecimal paid, @Param("share") BigDecimal share, @Param("count") long count);
+
+    @Modifying
+    @Query("DELETE FROM SpendingRollup r WHERE r.groupId = :groupId")
+    int deleteByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.expenseshare.demo.dto.SpendingBucketDto(r.bucketStart, SUM(r.paidAmount), SUM(r.shareAmount), " +
+            "SUM(r.expenseCount)) FROM SpendingRollup r WHERE r.groupId = :groupId AND r.granularity = :granularity " +
+            "AND r.bucketStart BETWEEN :from AND :to GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<SpendingBucketDto> findGroupBuckets(@Param("groupId") Long groupId,
+                                             @Param("granularity") RollupGranularity granularity,
+                                             @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.expenseshare.demo.dto.SpendingBucketDto(r.bucketStart, SUM(r.paidAmount), SUM(r.shareAmount), " +
+            "SUM(r.expenseCount)) FROM SpendingRollup r WHERE r.groupId = :groupId AND r.userId = :userId " +
+            "AND r.granularity = :granularity AND r.bucketStart BETWEEN :from AND :to " +
+            "GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<SpendingBucketDto> findGroupMemberBuckets(@Param("groupId") Long groupId, @Param("userId") Long userId,
+                                                   @Param("granularity") RollupGranularity granularity,
+                                                   @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Query("SELECT new com.expenseshare.demo.dto.SpendingBucketDto(r.bucketStart, SUM(r.paidAmount), SUM(r.shareAmount), " +
+            "SUM(r.expenseCount)) FROM SpendingRollup r WHERE r.userId = :userId AND r.granularity = :granularity " +
+            "AND r.bucketStart BETWEEN :from AND :to GROUP BY r.bucketStart ORDER BY r.bucketStart")
+    List<SpendingBucketDto> findUserBuckets(@Param("userId") Long userId,
+                                            @Param("granularity") RollupGranularity granularity,
+                                            @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // Monthly rows keep this to one row per member per month in the range
+    @Query("SELECT new com.expenseshare.demo.dto.MemberSpendingDto(r.userId, SUM(r.paidAmount), SUM(r.shareAmount), " +
+            "SUM(r.expenseCount)) FROM SpendingRollup r WHERE r.groupId = :groupId " +
+            "AND r.granularity = com.expenseshare.demo.enums.RollupGranularity.MONTHLY " +
+            "AND r.bucketStart BETWEEN :from AND :to GROUP BY r.userId ORDER BY SUM(r.paidAmount) DESC")
+    List<MemberSpendingDto> findMemberTotals(@Param("groupId") Long groupId,
+                                             @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -1,14 +1,19 @@
 package com.expenseshare.demo.repository;
 
 
+import com.expenseshare.demo.dto.BalanceRowDto;
 import com.expenseshare.demo.entity.UserBalance;
 import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -25,6 +30,23 @@ public interface UserBalanceRepository extends JpaRepository<UserBalance, Long>
             @Param("userId2") Long userId2,
             @Param("groupId") Long groupId);
 
+    /**
+     * Locks the outstanding balances of the given debtor-to-creditor pairs in one statement, in primary
+     * key order. The id lists narrow the scan; pairKeys (see pairKey) keep the lock to exactly those pairs
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ub FROM UserBalance ub WHERE " +
+            "ub.debtor.id IN :debtorIds AND ub.creditor.id IN :creditorIds " +
+            "AND CONCAT(str(ub.debtor.id), ':', str(ub.creditor.id)) IN :pairKeys AND ub.amount > 0 " +
+            "ORDER BY ub.id")
+    List<UserBalance> findBalancesForPairsForUpdate(@Param("debtorIds") Collection<Long> debtorIds,
+                                                   @Param("creditorIds") Collection<Long> creditorIds,
+                                                   @Param("pairKeys") Collection<String> pairKeys);
+
+    static String pairKey(Long debtorId, Long creditorId) {
+        return debtorId + ":" + creditorId;
+    }
+
     @Query("SELECT ub FROM UserBalance ub WHERE " +
             "ub.debtor.id = :userId OR ub.creditor.id = :userId")
     List<UserBalance> findAllBalancesForUser(@Param("userId") Long userId);
@@ -37,8 +59,40 @@ public interface UserBalanceRepository extends JpaRepository<UserBalance, Long>
             @Param("userId1") Long userId1,
             @Param("userId2") Long userId2);
 
+    /**
+     * Outstanding balances as plain ids, used to bootstrap the balance read model
+     */
+    @Query("SELECT new com.expenseshare.demo.dto.BalanceRowDto(ub.group.id, ub.debtor.id, ub.creditor.id, ub.amount) " +
+            "FROM UserBalance ub WHERE ub.amount > 0")
+    List<BalanceRowDto> findAllOutstandingBalanceRows();
+
+    /**
+     * Both directions of one user pair in a group, used to catch up the read model during a rebuild
+     */
+    @Query("SELECT new com.expenseshare.demo.dto.BalanceRowDto(ub.group.id, ub.debtor.id, ub.creditor.id, ub.amount) " +
+            "FROM UserBalance ub WHERE ub.group.id = :groupId " +
+            "AND ((ub.debtor.id = :userA AND ub.creditor.id = :userB) OR (ub.debtor.id = :userB AND ub.creditor.id = :userA))")
+    List<BalanceRowDto> findBalanceRowsBetween(@Param("groupId") Long groupId, @Param("userA") Long userA,
+                                               @Param("userB") Long userB);
+
     Optional<UserBalance> findByGroupIdAndDebtorIdAndCreditorId(
             Long groupId, Long debtorId, Long creditorId);
     @Query("SELECT ub FROM UserBalance ub WHERE ub.group.id = :groupId")
     List<UserBalance> findByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT DISTINCT ub.group.id FROM UserBalance ub WHERE ub.amount = 0 AND ub.lastUpdated < :settledBefore")
+    List<Long> findGroupIdsWithZeroBalances(@Param("settledBefore") LocalDateTime settledBefore);
+
+    /**
+     * Locks a batch of settled rows so no write can revive them between the archive copy and the delete
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT ub.id FROM UserBalance ub WHERE ub.group.id IN :groupIds AND ub.amount = 0 " +
+            "AND ub.lastUpdated < :settledBefore ORDER BY ub.id")
+    List<Long> findZeroBalanceIdsForUpdate(@Param("groupIds") Collection<Long> groupIds,
+                                           @Param("settledBefore") LocalDateTime settledBefore, Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM UserBalance ub WHERE ub.id IN :ids AND ub.amount = 0")
+    int deleteZeroBalances(@Param("ids") Collection<Long> ids);
 }
@@ -1,11 +1,16 @@
 package com.expenseshare.demo.repository;
 
+import com.expenseshare.demo.dto.UserSummaryDto;
 import com.expenseshare.demo.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -16,4 +21,31 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Page<User> findAll(Pageable pageable);
     boolean existsByUserName(String userName);
     boolean existsByEmailId(String emailId);
+
+    @Query("SELECT u.userName FROM User u WHERE u.id = :userId")
+    Optional<String> findUserNameById(@Param("userId") Long userId);
+
+    @Query(value = "SELECT new com.expenseshare.demo.dto.UserSummaryDto(u.id, u.userName, u.emailId, u.firstName, u.lastName, u.role) " +
+            "FROM User u",
+            countQuery = "SELECT COUNT(u) FROM User u")
+    Page<UserSummaryDto> findUserSummaries(Pageable pageable);
+
+    @Query("SELECT new com.expenseshare.demo.dto.UserSummaryDto(u.id, u.userName, u.emailId, u.firstName, u.lastName, u.role) " +
+            "FROM User u WHERE u.id = :userId")
+    Optional<UserSummaryDto> findSummaryById(@Param("userId") Long userId);
+
+    @Query("SELECT new com.expenseshare.demo.dto.UserSummaryDto(u.id, u.userName, u.emailId, u.firstName, u.lastName, u.role) " +
+            "FROM Group g JOIN g.users u WHERE g.id = :groupId ORDER BY u.userName")
+    List<UserSummaryDto> findSummariesByGroupId(@Param("groupId") Long groupId);
+
+    @Query("SELECT new com.expenseshare.demo.dto.UserSummaryDto(u.id, u.userName, u.emailId, u.firstName, u.lastName, u.role) " +
+            "FROM User u WHERE u.id IN :userIds")
+    List<UserSummaryDto> findSummariesByIdIn(@Param("userIds") Collection<Long> userIds);
+
+    /**
+     * Keyset page of users after the given id, for scanning the whole table in bounded batches
+     */
+    @Query("SELECT new com.expenseshare.demo.dto.UserSummaryDto(u.id, u.userName, u.emailId, u.firstName, u.lastName, u.role) " +
+            "FROM User u WHERE u.id > :afterId ORDER BY u.id")
+    List<UserSummaryDto> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
 }
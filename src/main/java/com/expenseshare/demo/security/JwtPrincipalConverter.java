@@ -0,0 +1,45 @@
+package com.expenseshare.demo.security;
+
+import com.expenseshare.demo.dto.CustomOAuth2User;
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.services.PrincipalUserService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.oauth2.core.user.DefaultOAuth2User;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Turns a validated bearer token into the same CustomOAuth2User principal the login flow produces,
+ * so controllers using @AuthenticationPrincipal work in both modes
+ */
+@Component
+public class JwtPrincipalConverter implements Converter<Jwt, AbstractAuthenticationToken> {
+
+    private final PrincipalUserService principalUserService;
+    private final String provider;
+
+    public JwtPrincipalConverter(PrincipalUserService principalUserService,
+                                 @Value("${expenseshare.security.jwt.provider:GOOGLE}") String provider) {
+        this.principalUserService = principalUserService;
+        this.provider = provider;
+    }
+
+    @Override
+    public AbstractAuthenticationToken convert(Jwt jwt) {
+        User user = principalUserService.resolve(provider, jwt.getSubject(),
+                jwt.getClaimAsString("email"),
+                jwt.getClaimAsString("given_name"),
+                jwt.getClaimAsString("family_name"));
+        List<GrantedAuthority> authorities = List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole()));
+        CustomOAuth2User principal = new CustomOAuth2User(
+                new DefaultOAuth2User(authorities, jwt.getClaims(), "sub"), user);
+        return UsernamePasswordAuthenticationToken.authenticated(principal, jwt, authorities);
+    }
+}
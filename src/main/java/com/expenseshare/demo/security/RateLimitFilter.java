@@ -0,0 +1,115 @@
+package com.expenseshare.demo.security;
+
+import com.expenseshare.demo.dto.CustomOAuth2User;
+import com.expenseshare.demo.enums.RateLimitClass;
+import com.expenseshare.demo.exception.RateLimitExceededException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Applies the rate limiter to every API request: one token from the caller's bucket and, when the
+ * path names a group, one from that group's bucket. Registered after the Spring Security filter
+ * chain, so the authenticated user is known here; anonymous callers are keyed by address.
+ */
+@Component
+@Slf4j
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Pattern GROUP_PATH = Pattern.compile("/groups?/(\\d+)(?:/|$)");
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return path.startsWith("/actuator") || path.startsWith("/oauth2") || path.startsWith("/login")
+                || path.startsWith("/h2-console") || path.equals("/") || path.equals("/health");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RateLimitClass limitClass = classify(request);
+
+        Duration wait = rateLimiter.tryAcquirePrincipal(limitClass, principalKey(request));
+        if (wait.isZero()) {
+            Long groupId = groupId(request.getRequestURI());
+            if (groupId != null) {
+                wait = rateLimiter.tryAcquireGroup(limitClass, groupId);
+            }
+        }
+        if (!wait.isZero()) {
+            reject(request, response, new RateLimitExceededException("Too many requests, retry later", wait));
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    static RateLimitClass classify(HttpServletRequest request) {
+        String method = request.getMethod();
+        if (HttpMethod.GET.matches(method) || HttpMethod.HEAD.matches(method) || HttpMethod.OPTIONS.matches(method)) {
+            return RateLimitClass.READ;
+        }
+        String path = request.getRequestURI();
+        if (path.startsWith("/settlements/") || path.endsWith("/plan/apply")) {
+            return RateLimitClass.SETTLEMENT;
+        }
+        return RateLimitClass.WRITE;
+    }
+
+    static Long groupId(String path) {
+        Matcher matcher = GROUP_PATH.matcher(path);
+        if (!matcher.find()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static String principalKey(HttpServletRequest request) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken)) {
+            if (authentication.getPrincipal() instanceof CustomOAuth2User principal
+                    && principal.getUser().getId() != null) {
+                return "user:" + principal.getUser().getId();
+            }
+            return "name:" + authentication.getName();
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletRequest request, HttpServletResponse response,
+                               RateLimitExceededException ex) throws IOException {
+        log.debug("Throttled {} {} for {} s", request.getMethod(), request.getRequestURI(), ex.getRetryAfterSeconds());
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getWriter().write("{\"status\":429,\"error\":\"Too Many Requests\",\"message\":\""
+                + ex.getMessage() + "\"}");
+    }
+}
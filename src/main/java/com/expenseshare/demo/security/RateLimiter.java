@@ -0,0 +1,112 @@
+package com.expenseshare.demo.security;
+
+import com.expenseshare.demo.concurrency.TokenBucket;
+import com.expenseshare.demo.enums.RateLimitClass;
+import com.expenseshare.demo.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-process token buckets per principal and per group, separately for each endpoint class.
+ * Buckets are created on first use and dropped again by a periodic sweep once they have refilled,
+ * so memory follows the number of recently active callers rather than all callers ever seen.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    public static final String THROTTLED = "expenseshare.ratelimit.throttled";
+
+    private static final String PRINCIPAL_SCOPE = "principal";
+    private static final String GROUP_SCOPE = "group";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<RateLimitClass, Limit> principalLimits = new EnumMap<>(RateLimitClass.class);
+    private final Map<RateLimitClass, Limit> groupLimits = new EnumMap<>(RateLimitClass.class);
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public RateLimiter(MeterRegistry meterRegistry, Environment environment,
+                       @Value("${expenseshare.ratelimit.enabled:true}") boolean enabled) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        for (RateLimitClass limitClass : RateLimitClass.values()) {
+            String prefix = "expenseshare.ratelimit." + limitClass.propertyName();
+            principalLimits.put(limitClass, Limit.from(environment, prefix + ".principal",
+                    limitClass.getPrincipalCapacity(), limitClass.getPrincipalRefillPerSecond()));
+            groupLimits.put(limitClass, Limit.from(environment, prefix + ".group",
+                    limitClass.getGroupCapacity(), limitClass.getGroupRefillPerSecond()));
+        }
+    }
+
+    /**
+     * Take a token from the caller's bucket
+     *
+     * @return Duration.ZERO when allowed, otherwise how long until the next token
+     */
+    public Duration tryAcquirePrincipal(RateLimitClass limitClass, String principalKey) {
+        return tryAcquire(limitClass, PRINCIPAL_SCOPE, principalKey, principalLimits.get(limitClass));
+    }
+
+    /**
+     * Take a token from the group's bucket, shared by every caller touching that group
+     */
+    public Duration tryAcquireGroup(RateLimitClass limitClass, Long groupId) {
+        return tryAcquire(limitClass, GROUP_SCOPE, String.valueOf(groupId), groupLimits.get(limitClass));
+    }
+
+    /**
+     * For endpoints whose groups are only known after reading the request body
+     */
+    public void checkGroups(RateLimitClass limitClass, Collection<Long> groupIds) {
+        for (Long groupId : groupIds) {
+            Duration wait = tryAcquireGroup(limitClass, groupId);
+            if (!wait.isZero()) {
+                throw new RateLimitExceededException("Too many requests for group " + groupId, wait);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${expenseshare.ratelimit.sweep-interval:1m}")
+    public void evictRefilledBuckets() {
+        long now = System.nanoTime();
+        int before = buckets.size();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+        log.debug("Rate limiter sweep dropped {} of {} buckets", before - buckets.size(), before);
+    }
+
+    private Duration tryAcquire(RateLimitClass limitClass, String scope, String key, Limit limit) {
+        if (!enabled) {
+            return Duration.ZERO;
+        }
+        long now = System.nanoTime();
+        TokenBucket bucket = buckets.computeIfAbsent(limitClass.propertyName() + ':' + scope + ':' + key,
+                ignored -> new TokenBucket(limit.capacity(), limit.refillPerSecond(), now));
+        long waitNanos = bucket.tryAcquire(now);
+        if (waitNanos == 0) {
+            return Duration.ZERO;
+        }
+        meterRegistry.counter(THROTTLED, "class", limitClass.propertyName(), "scope", scope).increment();
+        return Duration.ofNanos(waitNanos);
+    }
+
+    private record Limit(int capacity, double refillPerSecond) {
+
+        static Limit from(Environment environment, String prefix, int defaultCapacity, double defaultRefill) {
+            return new Limit(
+                    environment.getProperty(prefix + ".capacity", Integer.class, defaultCapacity),
+                    environment.getProperty(prefix + ".refill-per-second", Double.class, defaultRefill));
+        }
+    }
+}
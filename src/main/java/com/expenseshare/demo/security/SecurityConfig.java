@@ -1,11 +1,13 @@
 package com.expenseshare.demo.security;
 
 import com.expenseshare.demo.services.CustomOAuth2UserService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.annotation.web.configurers.AuthorizeHttpRequestsConfigurer;
 import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
@@ -21,19 +23,15 @@ public class SecurityConfig {
         this.customOAuth2UserService = customOAuth2UserService;
     }
 
+    /**
+     * Session-based OAuth2 login; replaced by StatelessSecurityConfig when expenseshare.security.stateless=true
+     */
     @Bean
+    @ConditionalOnProperty(name = "expenseshare.security.stateless", havingValue = "false", matchIfMissing = true)
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         return   http
                 .csrf(AbstractHttpConfigurer::disable)
-                .authorizeHttpRequests(
-                        authorize -> authorize
-                                .requestMatchers("/h2-console/**").permitAll()
-                                .requestMatchers("/", "/login", "/oauth2/**", "/error", "/api/test/**", "/static/**", "/*.html").permitAll()
-                                .requestMatchers("/api/admin/**").hasRole("ADMIN")
-                                .requestMatchers("/member/**").permitAll()
-                                .requestMatchers("/groups/**").permitAll()
-                                .requestMatchers("/users/**").authenticated()
-                                .anyRequest().permitAll())
+                .authorizeHttpRequests(SecurityConfig::authorizeRequests)
                 .oauth2Login(oauth2 -> oauth2
                         .userInfoEndpoint(userInfo -> userInfo
                                 .userService(customOAuth2UserService)
@@ -52,6 +50,21 @@ public class SecurityConfig {
                 .build();
     }
 
+    /**
+     * Access rules shared by the session and the stateless filter chains
+     */
+    static void authorizeRequests(
+            AuthorizeHttpRequestsConfigurer<HttpSecurity>.AuthorizationManagerRequestMatcherRegistry authorize) {
+        authorize
+                .requestMatchers("/h2-console/**").permitAll()
+                .requestMatchers("/", "/login", "/oauth2/**", "/error", "/api/test/**", "/static/**", "/*.html").permitAll()
+                .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/member/**").permitAll()
+                .requestMatchers("/groups/**").permitAll()
+                .requestMatchers("/users/**").authenticated()
+                .anyRequest().permitAll();
+    }
+
     @Bean
     public AuthenticationSuccessHandler authenticationSuccessHandler() {
         return (request, response, authentication) -> {
@@ -0,0 +1,110 @@
+package com.expenseshare.demo.security;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.annotation.web.configurers.HeadersConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimNames;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bearer-token mode: every request carries a JWT and no HTTP session is created, so clients keep
+ * working across restarts without logging in again. Tokens are RS256 ID tokens verified against the provider's JWKS, which is
+ * fetched once and cached locally; with expenseshare.security.jwt.secret set, HS256 tokens signed
+ * with that secret are accepted instead, for tests and local development.
+ *
+ * The provider signs ID tokens for every client it serves, so in JWKS mode the aud claim must name
+ * this application: startup fails when expenseshare.security.jwt.audience is empty.
+ */
+@Configuration
+@ConditionalOnProperty(name = "expenseshare.security.stateless", havingValue = "true")
+public class StatelessSecurityConfig {
+
+    @Bean
+    public SecurityFilterChain statelessSecurityFilterChain(HttpSecurity http, JwtDecoder jwtDecoder,
+                                                            JwtPrincipalConverter jwtPrincipalConverter) throws Exception {
+        return http
+                .csrf(AbstractHttpConfigurer::disable)
+                .authorizeHttpRequests(SecurityConfig::authorizeRequests)
+                .oauth2ResourceServer(resourceServer -> resourceServer
+                        .jwt(jwt -> jwt
+                                .decoder(jwtDecoder)
+                                .jwtAuthenticationConverter(jwtPrincipalConverter)
+                        )
+                )
+                .sessionManagement(session -> session
+                        .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+                )
+                .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::disable))
+                .build();
+    }
+
+    @Bean
+    public JwtDecoder jwtDecoder(@Value("${expenseshare.security.jwt.secret:}") String secret,
+                                 @Value("${expenseshare.security.jwt.issuer:https://accounts.google.com}") String issuer,
+                                 @Value("${expenseshare.security.jwt.jwk-set-uri:https://www.googleapis.com/oauth2/v3/certs}") String jwkSetUri,
+                                 @Value("${expenseshare.security.jwt.audience:}") String audience,
+                                 @Value("${expenseshare.security.jwt.jwks-cache-ttl:15m}") Duration jwksCacheTtl)
+            throws MalformedURLException {
+        NimbusJwtDecoder decoder;
+        if (StringUtils.hasText(secret)) {
+            decoder = NimbusJwtDecoder
+                    .withSecretKey(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"))
+                    .macAlgorithm(MacAlgorithm.HS256)
+                    .build();
+        } else {
+            if (!StringUtils.hasText(audience)) {
+                throw new IllegalStateException("expenseshare.security.jwt.audience must be set when tokens are "
+                        + "verified against " + jwkSetUri + "; without it any token the provider issued would be accepted");
+            }
+            // Keys are refreshed in the background before the TTL runs out, and on an unknown key id
+            JWKSource<SecurityContext> keys = JWKSourceBuilder.create(new URL(jwkSetUri))
+                    .cache(jwksCacheTtl.toMillis(), Duration.ofSeconds(15).toMillis())
+                    .refreshAheadCache(true)
+                    .build();
+            DefaultJWTProcessor<SecurityContext> processor = new DefaultJWTProcessor<>();
+            processor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, keys));
+            processor.setJWTClaimsSetVerifier((claims, context) -> {
+                // Claims are checked by the Spring validators below
+            });
+            decoder = new NimbusJwtDecoder(processor);
+        }
+
+        List<OAuth2TokenValidator<Jwt>> validators = new ArrayList<>();
+        validators.add(JwtValidators.createDefaultWithIssuer(issuer));
+        if (StringUtils.hasText(audience)) {
+            validators.add(new JwtClaimValidator<Collection<String>>(JwtClaimNames.AUD,
+                    tokenAudience -> tokenAudience != null && tokenAudience.contains(audience)));
+        }
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(validators));
+        return decoder;
+    }
+}
@@ -0,0 +1,88 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically compacts the hot balance and settlement tables into the archive. Zero balances are
+ * archived one batch per shard at a time, queued behind that shard's regular writes, so a large
+ * backlog never holds a shard for long.
+ */
+@Component
+@Slf4j
+public class ArchiveScheduler {
+
+    private final ArchiveService archiveService;
+    private final GroupShardedExecutor groupShardedExecutor;
+    private final Duration settlementRetention;
+    private final Duration zeroBalanceGrace;
+    private final int batchSize;
+
+    public ArchiveScheduler(ArchiveService archiveService, GroupShardedExecutor groupShardedExecutor,
+                            @Value("${expenseshare.archive.settlement-retention:365d}") Duration settlementRetention,
+                            @Value("${expenseshare.archive.zero-balance-grace:1d}") Duration zeroBalanceGrace,
+                            @Value("${expenseshare.archive.batch-size:500}") int batchSize) {
+        this.archiveService = archiveService;
+        this.groupShardedExecutor = groupShardedExecutor;
+        this.settlementRetention = settlementRetention;
+        this.zeroBalanceGrace = zeroBalanceGrace;
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    @Scheduled(fixedDelayString = "${expenseshare.archive.interval:6h}",
+            initialDelayString = "${expenseshare.archive.initial-delay:10m}")
+    public void compact() {
+        LocalDateTime now = LocalDateTime.now();
+        int balances = archiveZeroBalances(now.minus(zeroBalanceGrace));
+        int settlements = archiveSettlements(now.minus(settlementRetention));
+        log.info("Archive run moved {} zero balances and {} settlements", balances, settlements);
+    }
+
+    public int archiveZeroBalances(LocalDateTime settledBefore) {
+        List<Long> groupIds = archiveService.findGroupsWithZeroBalances(settledBefore);
+        Map<Integer, List<Long>> remaining = new HashMap<>(groupIds.stream()
+                .collect(Collectors.groupingBy(groupShardedExecutor::shardFor)));
+
+        int archived = 0;
+        while (!remaining.isEmpty()) {
+            Map<Integer, CompletableFuture<Integer>> runs = new HashMap<>();
+            remaining.forEach((shard, shardGroupIds) -> runs.put(shard, groupShardedExecutor.submit(shardGroupIds.get(0),
+                    () -> archiveService.archiveZeroBalances(shardGroupIds, settledBefore, batchSize))));
+
+            for (Map.Entry<Integer, CompletableFuture<Integer>> run : runs.entrySet()) {
+                int moved = 0;
+                try {
+                    moved = GroupShardedExecutor.await(run.getValue());
+                } catch (RuntimeException e) {
+                    log.error("Archiving zero balances failed for shard {}", run.getKey(), e);
+                }
+                archived += moved;
+                if (moved < batchSize) {
+                    remaining.remove(run.getKey());
+                }
+            }
+        }
+        return archived;
+    }
+
+    public int archiveSettlements(LocalDateTime cutoff) {
+        int archived = 0;
+        int moved;
+        do {
+            moved = archiveService.archiveSettlements(cutoff, batchSize);
+            archived += moved;
+        } while (moved == batchSize);
+        return archived;
+    }
+}
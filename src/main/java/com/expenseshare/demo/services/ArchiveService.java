@@ -0,0 +1,143 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.SettlementGroupDetailDto;
+import com.expenseshare.demo.dto.SettlementResponseDto;
+import com.expenseshare.demo.entity.ArchivedSettlement;
+import com.expenseshare.demo.entity.ArchivedSettlementDetail;
+import com.expenseshare.demo.exception.ResourceNotFoundException;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.repository.ArchivedSettlementDetailRepository;
+import com.expenseshare.demo.repository.ArchivedSettlementRepository;
+import com.expenseshare.demo.repository.ArchivedUserBalanceRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.SettlementDetailRepository;
+import com.expenseshare.demo.repository.SettlementRepository;
+import com.expenseshare.demo.repository.UserBalanceRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Moves settled zero balances and old settlements (with their details) into archive tables, one
+ * batch per transaction, so the hot tables only hold live data. Archived settlements stay
+ * readable through the audit lookups.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveService {
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final SettlementRepository settlementRepository;
+    private final SettlementDetailRepository settlementDetailRepository;
+    private final ArchivedUserBalanceRepository archivedUserBalanceRepository;
+    private final ArchivedSettlementRepository archivedSettlementRepository;
+    private final ArchivedSettlementDetailRepository archivedSettlementDetailRepository;
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final SettlementService settlementService;
+
+    @Transactional(readOnly = true)
+    public List<Long> findGroupsWithZeroBalances(LocalDateTime settledBefore) {
+        return userBalanceRepository.findGroupIdsWithZeroBalances(settledBefore);
+    }
+
+    /**
+     * Archives up to batchSize zero balances of the given groups. Run on the groups' shard: expense
+     * writes revive zero rows, while settlements only ever lock rows with an outstanding amount.
+     */
+    @Transactional
+    @Timed(value = "expenseshare.archive.balances", histogram = true)
+    public int archiveZeroBalances(Collection<Long> groupIds, LocalDateTime settledBefore, int batchSize) {
+        List<Long> ids = userBalanceRepository.findZeroBalanceIdsForUpdate(groupIds, settledBefore,
+                PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedUserBalanceRepository.copyFromUserBalances(ids, LocalDateTime.now());
+        int deleted = userBalanceRepository.deleteZeroBalances(ids);
+        log.debug("Archived {} zero balances in groups {}", deleted, groupIds);
+        return ids.size();
+    }
+
+    /**
+     * Archives up to batchSize settlements dated before the cutoff, together with their details
+     */
+    @Transactional
+    @Timed(value = "expenseshare.archive.settlements", histogram = true)
+    public int archiveSettlements(LocalDateTime cutoff, int batchSize) {
+        List<Long> ids = settlementRepository.findIdsSettledBefore(cutoff, PageRequest.of(0, batchSize));
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archivedSettlementRepository.copyFromSettlements(ids, LocalDateTime.now());
+        archivedSettlementDetailRepository.copyFromSettlementDetails(ids);
+        settlementDetailRepository.deleteBySettlementIds(ids);
+        settlementRepository.deleteByIds(ids);
+        log.debug("Archived {} settlements dated before {}", ids.size(), cutoff);
+        return ids.size();
+    }
+
+    /**
+     * Settlement with its per-group details, from the live tables or the archive
+     */
+    @Transactional(readOnly = true)
+    public SettlementResponseDto getSettlementForAudit(Long settlementId) {
+        Optional<SettlementResponseDto> live = settlementRepository.findById(settlementId)
+                .map(settlementService::mapToSettlementResponse);
+        if (live.isPresent()) {
+            return live.get();
+        }
+        ArchivedSettlement archived = archivedSettlementRepository.findById(settlementId)
+                .orElseThrow(() -> new ResourceNotFoundException("Settlement not found with id: " + settlementId));
+        return mapArchived(List.of(archived)).get(0);
+    }
+
+    @Transactional(readOnly = true)
+    public List<SettlementResponseDto> getArchivedSettlementsForUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with ID: " + userId);
+        }
+        return mapArchived(archivedSettlementRepository.findByUser(userId));
+    }
+
+    private List<SettlementResponseDto> mapArchived(List<ArchivedSettlement> settlements) {
+        Map<Long, List<ArchivedSettlementDetail>> detailsBySettlement = archivedSettlementDetailRepository
+                .findBySettlementIdIn(settlements.stream().map(ArchivedSettlement::getId).toList()).stream()
+                .collect(Collectors.groupingBy(ArchivedSettlementDetail::getSettlementId));
+
+        return settlements.stream()
+                .map(settlement -> SettlementResponseDto.builder()
+                        .settlementId(settlement.getId())
+                        .payerId(settlement.getPayerId())
+                        .payerName(userRepository.findUserNameById(settlement.getPayerId()).orElse(null))
+                        .receiverId(settlement.getReceiverId())
+                        .receiverName(userRepository.findUserNameById(settlement.getReceiverId()).orElse(null))
+                        .totalAmountSettled(settlement.getAmount())
+                        .status(settlement.getStatus() != null ? settlement.getStatus().name() : null)
+                        .description(settlement.getDescription())
+                        .settlementDate(settlement.getSettlementDate())
+                        .groupDetails(detailsBySettlement.getOrDefault(settlement.getId(), List.of()).stream()
+                                .map(detail -> SettlementGroupDetailDto.builder()
+                                        .groupId(detail.getGroupId())
+                                        .groupName(groupRepository.findNameById(detail.getGroupId()).orElse(""))
+                                        .amountSettled(detail.getAmountSettled())
+                                        .balanceBefore(detail.getBalanceBefore())
+                                        .balanceAfter(detail.getBalanceAfter())
+                                        .build())
+                                .collect(Collectors.toList()))
+                        .build())
+                .collect(Collectors.toList());
+    }
+}
@@ -1,21 +1,29 @@
 package com.expenseshare.demo.services;
 
+import com.expenseshare.demo.dto.BalanceDelta;
 import com.expenseshare.demo.dto.ExpenseBalanceUpdateRequest;
 import com.expenseshare.demo.dto.UserShareDto;
 import com.expenseshare.demo.entity.Group;
 import com.expenseshare.demo.entity.User;
 import com.expenseshare.demo.entity.UserBalance;
+import com.expenseshare.demo.events.BalanceChangedEvent;
 import com.expenseshare.demo.repository.GroupRepository;
 import com.expenseshare.demo.repository.UserBalanceRepository;
 import com.expenseshare.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -26,11 +34,13 @@ public class BalanceService {
     private final UserBalanceRepository userBalanceRepository;
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Main method to update balances after expense creation
      */
     @Transactional
+    @Timed(value = "expenseshare.balance.expense.update", histogram = true)
     public void updateBalancesForExpense(ExpenseBalanceUpdateRequest request) {
         log.info("Updating balances for expense - Group: {}, Paid by: {}, Amount: {}, Split Type: {}",
                 request.getGroupId(), request.getPaidByUserId(), request.getTotalAmount(), request.getSplitType());
@@ -49,6 +59,70 @@ public class BalanceService {
         log.info("Balance update completed for expense");
     }
 
+    /**
+     * Validates an expense and returns the balance changes it implies, without touching the database
+     */
+    public List<BalanceDelta> computeDeltas(ExpenseBalanceUpdateRequest request) {
+        validateExpenseBalanceRequest(request);
+
+        List<BalanceDelta> deltas = new ArrayList<>();
+        if (request.getSplitType().equalsIgnoreCase("EQUAL")) {
+            BigDecimal sharePerUser = request.getTotalAmount()
+                    .divide(BigDecimal.valueOf(request.getGroupUserIds().size()), 2, RoundingMode.HALF_UP);
+            for (Long userId : request.getGroupUserIds()) {
+                if (!userId.equals(request.getPaidByUserId())) {
+                    deltas.add(new BalanceDelta(request.getGroupId(), userId, request.getPaidByUserId(), sharePerUser));
+                }
+            }
+        } else if (request.getSplitType().equalsIgnoreCase("UNEQUAL")) {
+            for (UserShareDto userShare : request.getUserShares()) {
+                if (!userShare.getUserId().equals(request.getPaidByUserId())) {
+                    deltas.add(new BalanceDelta(request.getGroupId(), userShare.getUserId(),
+                            request.getPaidByUserId(), userShare.getShare()));
+                }
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * Applies a set of balance changes in one transaction
+     */
+    @Transactional
+    @Timed(value = "expenseshare.balance.deltas.apply", histogram = true)
+    public void applyDeltas(List<BalanceDelta> deltas) {
+        log.debug("Applying {} balance deltas", deltas.size());
+        for (BalanceDelta delta : deltas) {
+            updateBalance(delta.getGroupId(), delta.getDebtorId(), delta.getCreditorId(), delta.getAmount());
+        }
+    }
+
+    /**
+     * Collapses deltas to one change per user pair per group, in the direction of the net debt.
+     * Pairs that cancel out are dropped.
+     */
+    public static List<BalanceDelta> netByPair(Collection<BalanceDelta> deltas) {
+        // Key: groupId, lower user id, higher user id. Positive net: lower user owes higher user
+        Map<List<Long>, BigDecimal> netByPair = new LinkedHashMap<>();
+        for (BalanceDelta delta : deltas) {
+            boolean debtorIsLow = delta.getDebtorId() < delta.getCreditorId();
+            List<Long> pair = debtorIsLow
+                    ? List.of(delta.getGroupId(), delta.getDebtorId(), delta.getCreditorId())
+                    : List.of(delta.getGroupId(), delta.getCreditorId(), delta.getDebtorId());
+            netByPair.merge(pair, debtorIsLow ? delta.getAmount() : delta.getAmount().negate(), BigDecimal::add);
+        }
+
+        List<BalanceDelta> netted = new ArrayList<>();
+        netByPair.forEach((pair, net) -> {
+            if (net.signum() > 0) {
+                netted.add(new BalanceDelta(pair.get(0), pair.get(1), pair.get(2), net));
+            } else if (net.signum() < 0) {
+                netted.add(new BalanceDelta(pair.get(0), pair.get(2), pair.get(1), net.negate()));
+            }
+        });
+        return netted;
+    }
+
     /**
      * Process equal split among all group members
      */
@@ -60,12 +134,10 @@ public class BalanceService {
 
         for (Long userId : userIds) {
             if (!userId.equals(paidByUser.getId())) {
-                User user = getUserById(userId);
                 // User owes sharePerUser to the person who paid
                 updateBalance(group.getId(), userId, paidByUser.getId(), sharePerUser);
 
-                log.debug("Equal split: User {} owes {} to User {}",
-                        user.getUserName(), sharePerUser, paidByUser.getUserName());
+                log.debug("Equal split: User {} owes {} to User {}", userId, sharePerUser, paidByUser.getId());
             }
         }
     }
@@ -79,12 +151,11 @@ public class BalanceService {
 
         for (UserShareDto userShare : userShares) {
             if (!userShare.getUserId().equals(paidByUser.getId())) {
-                User user = getUserById(userShare.getUserId());
                 // User owes their share to the person who paid
                 updateBalance(group.getId(), userShare.getUserId(), paidByUser.getId(), userShare.getShare());
 
                 log.debug("Unequal split: User {} owes {} to User {}",
-                        user.getUserName(), userShare.getShare(), paidByUser.getUserName());
+                        userShare.getUserId(), userShare.getShare(), paidByUser.getId());
             }
         }
     }
@@ -93,6 +164,7 @@ public class BalanceService {
      * Core method to update balance between two users in a group
      */
     @Transactional
+    @Timed(value = "expenseshare.balance.update", histogram = true)
     public void updateBalance(Long groupId, Long debtorId, Long creditorId, BigDecimal amount) {
         log.debug("Updating balance - Group: {}, Debtor: {}, Creditor: {}, Amount: {}",
                 groupId, debtorId, creditorId, amount);
@@ -134,6 +206,7 @@ public class BalanceService {
         if (newAmount.compareTo(existingAmount) > 0) {
             // New debt is larger, remove opposite balance and create new balance
             userBalanceRepository.delete(oppositeBalance);
+            eventPublisher.publishEvent(BalanceChangedEvent.of(oppositeBalance, existingAmount, BigDecimal.ZERO));
             BigDecimal remainingAmount = newAmount.subtract(existingAmount);
 
             UserBalance newBalance = UserBalance.builder()
@@ -143,6 +216,7 @@ public class BalanceService {
                     .amount(remainingAmount)
                     .build();
             userBalanceRepository.save(newBalance);
+            eventPublisher.publishEvent(BalanceChangedEvent.of(newBalance, BigDecimal.ZERO, remainingAmount));
 
             log.debug("Opposite balance cleared, new balance created: {}", remainingAmount);
 
@@ -151,12 +225,14 @@ public class BalanceService {
             BigDecimal remainingAmount = existingAmount.subtract(newAmount);
             oppositeBalance.setAmount(remainingAmount);
             userBalanceRepository.save(oppositeBalance);
+            eventPublisher.publishEvent(BalanceChangedEvent.of(oppositeBalance, existingAmount, remainingAmount));
 
             log.debug("Opposite balance reduced from {} to {}", existingAmount, remainingAmount);
 
         } else {
             // Amounts are equal, they cancel out
             userBalanceRepository.delete(oppositeBalance);
+            eventPublisher.publishEvent(BalanceChangedEvent.of(oppositeBalance, existingAmount, BigDecimal.ZERO));
             log.debug("Opposite balance exactly canceled out");
         }
     }
@@ -179,9 +255,11 @@ public class BalanceService {
 
             if (newAmount.compareTo(BigDecimal.ZERO) <= 0) {
                 userBalanceRepository.delete(balance);
+                eventPublisher.publishEvent(BalanceChangedEvent.of(balance, oldAmount, BigDecimal.ZERO));
                 log.debug("Balance became zero/negative, deleted. Was: {}", oldAmount);
             } else {
                 userBalanceRepository.save(balance);
+                eventPublisher.publishEvent(BalanceChangedEvent.of(balance, oldAmount, newAmount));
                 log.debug("Balance updated from {} to {}", oldAmount, newAmount);
             }
         } else {
@@ -194,6 +272,7 @@ public class BalanceService {
                         .amount(amount)
                         .build();
                 userBalanceRepository.save(newBalance);
+                eventPublisher.publishEvent(BalanceChangedEvent.of(newBalance, BigDecimal.ZERO, amount));
                 log.debug("New balance created: {}", amount);
             }
         }
@@ -224,8 +303,15 @@ public class BalanceService {
                 .filter(balance -> balance.getAmount().compareTo(new BigDecimal("0.01")) < 0)
                 .forEach(balance -> {
                     log.debug("Removing small balance: {} owes {} to {}",
-                            balance.getDebtor().getUserName(), balance.getAmount(), balance.getCreditor().getUserName());
+                            balance.getDebtor().getId(), balance.getAmount(), balance.getCreditor().getId());
                     userBalanceRepository.delete(balance);
+                    eventPublisher.publishEvent(BalanceChangedEvent.builder()
+                            .groupId(groupId)
+                            .debtorId(balance.getDebtor().getId())
+                            .creditorId(balance.getCreditor().getId())
+                            .previousAmount(balance.getAmount())
+                            .newAmount(BigDecimal.ZERO)
+                            .build());
                 });
     }
 
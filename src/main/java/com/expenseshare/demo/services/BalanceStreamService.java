@@ -0,0 +1,316 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.BalanceNotificationDto;
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pushes committed balance changes to Server-Sent Event subscribers of a user or a group.
+ *
+ * An idle subscriber is an async request parked by the servlet container plus a small buffer; no
+ * thread waits on it. Changes go into the subscriber's bounded buffer, dropping the oldest when
+ * full, and a small shared pool drains buffers with pending events. After a drop the client gets an
+ * "overflow" event so it can refetch the balance instead of trusting the deltas.
+ *
+ * A send that blocks longer than the send timeout (a client that stopped reading with a full socket
+ * buffer) closes its subscriber, and the pool gets a replacement thread until that write returns, so
+ * one stalled client cannot hold up delivery to everyone else. The container's own timeout ends the
+ * stuck write.
+ */
+@Service
+@Slf4j
+public class BalanceStreamService implements DisposableBean {
+
+    private static final String BALANCE_EVENT = "balance";
+    private static final String OVERFLOW_EVENT = "overflow";
+
+    private final UserRepository userRepository;
+    private final GroupRepository groupRepository;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final long sendTimeoutNanos;
+    private final int deliveryThreads;
+    private final ThreadPoolExecutor delivery;
+    // Delivery threads stuck in a send to a closed subscriber; guarded by delivery
+    private int stalledSends;
+    private final AtomicLong sequence = new AtomicLong();
+    private final ConcurrentMap<Long, Set<Subscriber>> userSubscribers = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Subscriber>> groupSubscribers = new ConcurrentHashMap<>();
+
+    public BalanceStreamService(UserRepository userRepository, GroupRepository groupRepository,
+                                @Value("${expenseshare.sse.timeout:30m}") Duration timeout,
+                                @Value("${expenseshare.sse.buffer-size:32}") int bufferSize,
+                                @Value("${expenseshare.sse.delivery-threads:4}") int deliveryThreads,
+                                @Value("${expenseshare.sse.send-timeout:10s}") Duration sendTimeout) {
+        this.userRepository = userRepository;
+        this.groupRepository = groupRepository;
+        this.timeoutMillis = timeout.toMillis();
+        this.bufferSize = Math.max(1, bufferSize);
+        this.sendTimeoutNanos = sendTimeout.toNanos();
+        this.deliveryThreads = deliveryThreads;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.delivery = new ThreadPoolExecutor(deliveryThreads, deliveryThreads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "balance-stream-" + threadCount.getAndIncrement());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    public SseEmitter subscribeToUser(Long userId) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+        return subscribe(userSubscribers, userId);
+    }
+
+    public SseEmitter subscribeToGroup(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return subscribe(groupSubscribers, groupId);
+    }
+
+    /**
+     * Runs once the balance write (expense, settlement or simplification) has committed
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        Message message = new Message(BALANCE_EVENT, BalanceNotificationDto.builder()
+                .sequence(sequence.incrementAndGet())
+                .groupId(event.getGroupId())
+                .debtorId(event.getDebtorId())
+                .creditorId(event.getCreditorId())
+                .previousAmount(event.getPreviousAmount())
+                .newAmount(event.getNewAmount())
+                .delta(event.getDelta())
+                .build());
+        offerAll(userSubscribers.get(event.getDebtorId()), message);
+        offerAll(userSubscribers.get(event.getCreditorId()), message);
+        offerAll(groupSubscribers.get(event.getGroupId()), message);
+    }
+
+    /**
+     * Keeps idle connections open through proxies and finds subscribers that went away
+     */
+    @Scheduled(fixedDelayString = "${expenseshare.sse.heartbeat:25s}",
+            initialDelayString = "${expenseshare.sse.heartbeat:25s}")
+    public void heartbeat() {
+        userSubscribers.values().forEach(subscribers -> offerAll(subscribers, Message.HEARTBEAT));
+        groupSubscribers.values().forEach(subscribers -> offerAll(subscribers, Message.HEARTBEAT));
+    }
+
+    /**
+     * Closes subscribers whose current send has been blocked for longer than the send timeout
+     */
+    @Scheduled(fixedDelayString = "${expenseshare.sse.send-timeout:10s}",
+            initialDelayString = "${expenseshare.sse.send-timeout:10s}")
+    public void closeStalledSubscribers() {
+        long now = System.nanoTime();
+        userSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.closeIfStalled(now)));
+        groupSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.closeIfStalled(now)));
+    }
+
+    public int getSubscriberCount() {
+        return userSubscribers.values().stream().mapToInt(Set::size).sum()
+                + groupSubscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    /**
+     * The emitter a new subscription writes to
+     */
+    protected SseEmitter createEmitter(long timeoutMillis) {
+        return new SseEmitter(timeoutMillis);
+    }
+
+    private SseEmitter subscribe(ConcurrentMap<Long, Set<Subscriber>> subscribers, Long key) {
+        SseEmitter emitter = createEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter);
+        // Add and remove under the map's per-key lock, so removing the last subscriber cannot lose a new one
+        subscribers.compute(key, (id, current) -> {
+            Set<Subscriber> set = current != null ? current : ConcurrentHashMap.newKeySet();
+            set.add(subscriber);
+            return set;
+        });
+        subscriber.onClose = () -> subscribers.computeIfPresent(key, (id, current) -> {
+            current.remove(subscriber);
+            return current.isEmpty() ? null : current;
+        });
+        emitter.onCompletion(subscriber::close);
+        emitter.onTimeout(subscriber::close);
+        emitter.onError(error -> subscriber.close());
+        return emitter;
+    }
+
+    private void offerAll(Set<Subscriber> subscribers, Message message) {
+        if (subscribers != null) {
+            subscribers.forEach(subscriber -> subscriber.offer(message));
+        }
+    }
+
+    /**
+     * Grows the pool while a thread is stuck in a send, and shrinks it back once the send returns
+     */
+    private void resizeDelivery(int stalledChange) {
+        synchronized (delivery) {
+            stalledSends += stalledChange;
+            int size = deliveryThreads + stalledSends;
+            if (stalledChange > 0) {
+                delivery.setMaximumPoolSize(size);
+                delivery.setCorePoolSize(size);
+            } else {
+                delivery.setCorePoolSize(size);
+                delivery.setMaximumPoolSize(size);
+            }
+        }
+    }
+
+    @Override
+    public void destroy() {
+        userSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        groupSubscribers.values().forEach(subscribers -> subscribers.forEach(subscriber -> subscriber.emitter.complete()));
+        delivery.shutdownNow();
+    }
+
+    /**
+     * Event name and payload; a null name is a heartbeat comment
+     */
+    private record Message(String name, Object data) {
+
+        static final Message HEARTBEAT = new Message(null, null);
+
+        SseEmitter.SseEventBuilder toEvent() {
+            if (name == null) {
+                return SseEmitter.event().comment("heartbeat");
+            }
+            return SseEmitter.event().name(name).data(data);
+        }
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        // Starts at one slot so idle subscribers stay small; grows up to bufferSize
+        private final ArrayDeque<Message> buffer = new ArrayDeque<>(1);
+        private volatile Runnable onClose = () -> { };
+        private int dropped;
+        private boolean draining;
+        private boolean closed;
+        private boolean sending;
+        private long sendStarted;
+        private boolean stalled;
+
+        private Subscriber(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+
+        void offer(Message message) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                if (buffer.size() >= bufferSize) {
+                    buffer.pollFirst();
+                    dropped++;
+                }
+                buffer.addLast(message);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            try {
+                delivery.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                close(); // Shutting down
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                Message message;
+                int missed;
+                synchronized (this) {
+                    message = buffer.pollFirst();
+                    if (message == null || closed) {
+                        draining = false;
+                        return;
+                    }
+                    missed = dropped;
+                    dropped = 0;
+                    sending = true;
+                    sendStarted = System.nanoTime();
+                }
+                try {
+                    if (missed > 0) {
+                        emitter.send(SseEmitter.event().name(OVERFLOW_EVENT).data(Map.of("dropped", missed)));
+                    }
+                    emitter.send(message.toEvent());
+                } catch (IOException | IllegalStateException e) {
+                    // The container reports the broken connection through onError as well
+                    log.debug("Dropping balance stream subscriber: {}", e.getMessage());
+                    close();
+                } finally {
+                    boolean wasStalled;
+                    synchronized (this) {
+                        sending = false;
+                        wasStalled = stalled;
+                    }
+                    if (wasStalled) {
+                        resizeDelivery(-1);
+                    }
+                }
+            }
+        }
+
+        void closeIfStalled(long now) {
+            synchronized (this) {
+                if (!sending || stalled || now - sendStarted < sendTimeoutNanos) {
+                    return;
+                }
+                stalled = true;
+                // Under the lock, so the send cannot return and shrink the pool before it has grown
+                resizeDelivery(1);
+            }
+            log.warn("Closing balance stream subscriber blocked in a send for over {} ms",
+                    TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos));
+            close();
+        }
+
+        void close() {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                closed = true;
+                buffer.clear();
+            }
+            onClose.run();
+        }
+    }
+}
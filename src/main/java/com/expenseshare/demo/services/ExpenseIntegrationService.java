@@ -1,11 +1,11 @@
 package com.expenseshare.demo.services;
 
+import com.expenseshare.demo.concurrency.BalanceGroupCommitter;
 import com.expenseshare.demo.dto.ExpenseBalanceUpdateRequest;
 import com.expenseshare.demo.dto.UserShareDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.List;
@@ -13,19 +13,21 @@ import java.util.stream.Collectors;
 
 /**
  * Service to integrate with external Expense Service
- * This service provides methods that can be called when expenses are created/updated
+ * This service provides methods that can be called when expenses are created/updated.
+ * Balance changes go through the group-commit stage on the group's shard worker, which opens
+ * the transaction there; these methods are deliberately not @Transactional so callers hold no connection while waiting.
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class ExpenseIntegrationService {
 
-    private final BalanceService balanceService;
+    private final BalanceGroupCommitter balanceGroupCommitter;
 
     /**
-     * Called when a new expense is created - updates all relevant balances
+     * Called when a new expense is created - updates all relevant balances.
+     * Only for expenses recorded elsewhere: ExpenseService.createExpense already applies its own.
      */
-    @Transactional
     public void handleExpenseCreated(Long expenseId, Long groupId, Long paidByUserId,
                                      BigDecimal totalAmount, String splitType,
                                      List<Long> groupUserIds, List<UserShareDto> userShares,
@@ -45,15 +47,15 @@ public class ExpenseIntegrationService {
                 .description(description)
                 .build();
 
-        balanceService.updateBalancesForExpense(request);
+        balanceGroupCommitter.applyExpense(request);
 
         log.info("Successfully updated balances for expense ID: {}", expenseId);
     }
 
     /**
-     * Called when an expense is deleted - reverses the balance changes
+     * Called when an expense is deleted - reverses the balance changes.
+     * For expenses stored by this service, ExpenseService.deleteExpense reverses them from the persisted shares.
      */
-    @Transactional
     public void handleExpenseDeleted(Long expenseId, Long groupId, Long paidByUserId,
                                      BigDecimal totalAmount, String splitType,
                                      List<Long> groupUserIds, List<UserShareDto> userShares) {
@@ -83,7 +85,7 @@ public class ExpenseIntegrationService {
                 .description("Reversal for deleted expense")
                 .build();
 
-        balanceService.updateBalancesForExpense(reverseRequest);
+        balanceGroupCommitter.applyExpense(reverseRequest);
 
         log.info("Successfully reversed balances for deleted expense ID: {}", expenseId);
     }
@@ -91,7 +93,6 @@ public class ExpenseIntegrationService {
     /**
      * Convenience method for equal split expense
      */
-    @Transactional
     public void handleEqualSplitExpense(Long expenseId, Long groupId, Long paidByUserId,
                                         BigDecimal totalAmount, List<Long> groupUserIds,
                                         String description) {
@@ -103,7 +104,6 @@ public class ExpenseIntegrationService {
     /**
      * Convenience method for unequal split expense
      */
-    @Transactional
     public void handleUnequalSplitExpense(Long expenseId, Long groupId, Long paidByUserId,
                                           BigDecimal totalAmount, List<UserShareDto> userShares,
                                           String description) {
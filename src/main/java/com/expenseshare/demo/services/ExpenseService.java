@@ -1,21 +1,27 @@
 package com.expenseshare.demo.services;
 
+import com.expenseshare.demo.dto.BalanceDelta;
 import com.expenseshare.demo.dto.ExpenseDto;
 import com.expenseshare.demo.dto.ExpenseResponseDto;
 import com.expenseshare.demo.dto.ExpenseShareResponseDto;
+import com.expenseshare.demo.dto.ExpenseUpdateDto;
 import com.expenseshare.demo.entity.Expense;
 import com.expenseshare.demo.entity.ExpenseShare;
 import com.expenseshare.demo.entity.Group;
 import com.expenseshare.demo.entity.User;
 import com.expenseshare.demo.enums.SplitType;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
 import com.expenseshare.demo.exception.GroupNotFoundException;
 import com.expenseshare.demo.exception.InvalidExpenseDataException;
+import com.expenseshare.demo.exception.ResourceNotFoundException;
 import com.expenseshare.demo.dto.UserShareDto;
 import com.expenseshare.demo.exception.UserNotFoundException;
 import com.expenseshare.demo.repository.ExpenseRepository;
 import com.expenseshare.demo.repository.ExpenseShareRepository;
 import com.expenseshare.demo.repository.GroupRepository;
 import com.expenseshare.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -24,7 +30,12 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -35,14 +46,24 @@ public class ExpenseService {
     private final GroupRepository groupRepository;
     private final UserRepository userRepository;
     private final ExpenseShareRepository expenseShareRepository;
+    private final BalanceService balanceService;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public ExpenseService(ExpenseRepository expenseRepository, GroupRepository groupRepository, UserRepository userRepository, ExpenseShareRepository expenseShareRepository){
+    public ExpenseService(ExpenseRepository expenseRepository, GroupRepository groupRepository, UserRepository userRepository, ExpenseShareRepository expenseShareRepository, BalanceService balanceService, ApplicationEventPublisher eventPublisher){
         this.expenseRepository = expenseRepository;
         this.groupRepository = groupRepository;
         this.userRepository = userRepository;
         this.expenseShareRepository = expenseShareRepository;
+        this.balanceService = balanceService;
+        this.eventPublisher = eventPublisher;
     }
+    /**
+     * Records an expense and applies its balance changes in the same transaction, so
+     * updateExpense and deleteExpense always reverse balances this service has applied.
+     * Expenses recorded elsewhere update balances through ExpenseIntegrationService instead.
+     */
     @Transactional
+    @Timed(value = "expenseshare.expense.create", histogram = true)
     public ExpenseResponseDto createExpense(ExpenseDto expenseDto) {
         log.info("Creating expense: {}", expenseDto.getDescription());
 
@@ -78,10 +99,198 @@ public class ExpenseService {
         expenseShareRepository.saveAll(expenseShares);
         expense.setExpenseShares(expenseShares);
 
-        log.info("Expense created successfully with id: {}", expense.getId());
+        Long payerId = paidByUser.getId();
+        List<BalanceDelta> deltas = expenseShares.stream()
+                .filter(share -> !share.getUser().getId().equals(payerId))
+                .map(share -> new BalanceDelta(group.getId(), share.getUser().getId(), payerId, share.getShare()))
+                .collect(Collectors.toList());
+        List<BalanceDelta> balanceChanges = BalanceService.netByPair(deltas);
+        if (!balanceChanges.isEmpty()) {
+            balanceService.applyDeltas(balanceChanges);
+        }
+        eventPublisher.publishEvent(ExpenseSpendingEvent.recorded(expense));
+
+        log.info("Expense created successfully with id: {}, {} balance pairs updated",
+                expense.getId(), balanceChanges.size());
+        return mapToExpenseResponse(expense);
+    }
+
+    /**
+     * Applies a partial update. Balances change only for the user pairs whose share or payer changed,
+     * written through BalanceService in one batch.
+     */
+    @Transactional
+    @Timed(value = "expenseshare.expense.update", histogram = true)
+    public ExpenseResponseDto updateExpense(Long expenseId, ExpenseUpdateDto update) {
+        log.info("Updating expense with id: {}", expenseId);
+
+        Expense expense = getExpenseForChange(expenseId);
+        ExpenseSpendingEvent previousSpending = ExpenseSpendingEvent.reversed(expense);
+        Group group = expense.getGroup();
+        Long oldPayerId = expense.getPaidBy().getId();
+        Map<Long, ExpenseShare> oldShares = expense.getExpenseShares().stream()
+                .collect(Collectors.toMap(share -> share.getUser().getId(), Function.identity(),
+                        (a, b) -> a, LinkedHashMap::new));
+
+        if (update.getDescription() != null) {
+            if (update.getDescription().trim().isEmpty()) {
+                throw new InvalidExpenseDataException("Description is required");
+            }
+            expense.setDescription(update.getDescription());
+        }
+
+        User newPayer = expense.getPaidBy();
+        if (update.getPaidByUserId() != null && !update.getPaidByUserId().equals(oldPayerId)) {
+            newPayer = getGroupMember(group, update.getPaidByUserId());
+        }
+
+        SplitType newSplitType = expense.getSplitType();
+        if (update.getSplitType() != null) {
+            try {
+                newSplitType = SplitType.valueOf(update.getSplitType().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new InvalidExpenseDataException("Invalid split type. Must be EQUAL or UNEQUAL");
+            }
+        } else if (update.getUserShares() != null) {
+            newSplitType = SplitType.UNEQUAL;
+        }
+
+        // New share per user, starting from the persisted shares
+        Map<Long, BigDecimal> newShares = new LinkedHashMap<>();
+        oldShares.forEach((userId, share) -> newShares.put(userId, share.getShare()));
+        if (update.getUserShares() != null) {
+            if (newSplitType == SplitType.EQUAL) {
+                throw new InvalidExpenseDataException("User shares can only be given for an unequal split");
+            }
+            for (UserShareDto userShare : update.getUserShares()) {
+                if (userShare.getUserId() == null || userShare.getShare() == null
+                        || userShare.getShare().compareTo(BigDecimal.ZERO) < 0) {
+                    throw new InvalidExpenseDataException("Each user share needs a user ID and a non-negative share");
+                }
+                if (userShare.getShare().compareTo(BigDecimal.ZERO) == 0) {
+                    newShares.remove(userShare.getUserId());
+                } else {
+                    newShares.put(userShare.getUserId(), userShare.getShare());
+                }
+            }
+        }
+        if (newShares.isEmpty()) {
+            throw new InvalidExpenseDataException("An expense needs at least one share");
+        }
+
+        BigDecimal newAmount = update.getAmount() != null ? update.getAmount()
+                : update.getUserShares() != null ? sum(newShares.values()) : expense.getAmount();
+        if (newAmount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidExpenseDataException("Amount must be greater than zero");
+        }
+
+        if (newSplitType == SplitType.EQUAL) {
+            boolean resplit = expense.getSplitType() != SplitType.EQUAL
+                    || newAmount.compareTo(expense.getAmount()) != 0;
+            if (resplit) {
+                BigDecimal sharePerUser = newAmount.divide(BigDecimal.valueOf(newShares.size()), 2, RoundingMode.HALF_UP);
+                newShares.replaceAll((userId, share) -> sharePerUser);
+            }
+        } else if (sum(newShares.values()).compareTo(newAmount) != 0) {
+            throw new InvalidExpenseDataException("Sum of user shares must equal the total expense amount");
+        }
+
+        // Old contributions reversed, new ones added; netByPair drops the pairs that did not change
+        List<BalanceDelta> deltas = new ArrayList<>();
+        Set<Long> participants = new LinkedHashSet<>(oldShares.keySet());
+        participants.addAll(newShares.keySet());
+        for (Long userId : participants) {
+            ExpenseShare oldShare = oldShares.get(userId);
+            if (oldShare != null && !userId.equals(oldPayerId)) {
+                deltas.add(new BalanceDelta(group.getId(), userId, oldPayerId, oldShare.getShare().negate()));
+            }
+            BigDecimal newShare = newShares.get(userId);
+            if (newShare != null && !userId.equals(newPayer.getId())) {
+                deltas.add(new BalanceDelta(group.getId(), userId, newPayer.getId(), newShare));
+            }
+        }
+        List<BalanceDelta> balanceChanges = BalanceService.netByPair(deltas);
+
+        // Write back only the share rows that changed
+        List<ExpenseShare> removedShares = new ArrayList<>();
+        List<ExpenseShare> addedShares = new ArrayList<>();
+        for (Long userId : participants) {
+            ExpenseShare oldShare = oldShares.get(userId);
+            BigDecimal newShare = newShares.get(userId);
+            if (oldShare == null) {
+                addedShares.add(ExpenseShare.builder()
+                        .expense(expense)
+                        .user(getGroupMember(group, userId))
+                        .share(newShare)
+                        .build());
+            } else if (newShare == null) {
+                removedShares.add(oldShare);
+            } else if (oldShare.getShare().compareTo(newShare) != 0) {
+                oldShare.setShare(newShare);
+            }
+        }
+        expense.getExpenseShares().removeAll(removedShares);
+        expenseShareRepository.deleteAll(removedShares);
+        expense.getExpenseShares().addAll(expenseShareRepository.saveAll(addedShares));
+
+        expense.setAmount(newAmount);
+        expense.setPaidBy(newPayer);
+        expense.setSplitType(newSplitType);
+        expense = expenseRepository.save(expense);
+
+        if (!balanceChanges.isEmpty()) {
+            balanceService.applyDeltas(balanceChanges);
+        }
+        eventPublisher.publishEvent(previousSpending);
+        eventPublisher.publishEvent(ExpenseSpendingEvent.recorded(expense));
+
+        log.info("Expense {} updated, {} balance pairs changed", expenseId, balanceChanges.size());
         return mapToExpenseResponse(expense);
     }
 
+    /**
+     * Deletes an expense and reverses its effect on balances using the persisted shares
+     */
+    @Transactional
+    @Timed(value = "expenseshare.expense.delete", histogram = true)
+    public void deleteExpense(Long expenseId) {
+        log.info("Deleting expense with id: {}", expenseId);
+
+        Expense expense = getExpenseForChange(expenseId);
+        Long groupId = expense.getGroup().getId();
+        Long payerId = expense.getPaidBy().getId();
+
+        List<BalanceDelta> reversal = expense.getExpenseShares().stream()
+                .filter(share -> !share.getUser().getId().equals(payerId))
+                .map(share -> new BalanceDelta(groupId, share.getUser().getId(), payerId, share.getShare().negate()))
+                .collect(Collectors.toList());
+        List<BalanceDelta> balanceChanges = BalanceService.netByPair(reversal);
+        if (!balanceChanges.isEmpty()) {
+            balanceService.applyDeltas(balanceChanges);
+        }
+
+        eventPublisher.publishEvent(ExpenseSpendingEvent.reversed(expense));
+        expenseRepository.delete(expense);
+        log.info("Expense {} deleted, {} balance pairs reversed", expenseId, balanceChanges.size());
+    }
+
+    /**
+     * Whether the expense was recorded by this service, which applied its balances on creation
+     */
+    @Transactional(readOnly = true)
+    public boolean isRecordedExpense(Long expenseId) {
+        return expenseId != null && expenseRepository.existsById(expenseId);
+    }
+
+    /**
+     * Group of an expense, used to route changes to the group's balance writer
+     */
+    public Long getGroupIdForExpense(Long expenseId) {
+        return expenseRepository.findGroupIdById(expenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + expenseId));
+    }
+
+    @Transactional(readOnly = true)
     public List<ExpenseResponseDto> getExpensesByGroup(Long groupId) {
         log.info("Fetching expenses for group id: {}", groupId);
 
@@ -95,6 +304,7 @@ public class ExpenseService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public List<ExpenseResponseDto> getExpensesByUser(Long userId) {
         log.info("Fetching expenses for user id: {}", userId);
 
@@ -108,6 +318,7 @@ public class ExpenseService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public ExpenseResponseDto getExpenseById(Long expenseId) {
         log.info("Fetching expense with id: {}", expenseId);
 
@@ -117,6 +328,28 @@ public class ExpenseService {
         return mapToExpenseResponse(expense);
     }
 
+    private Expense getExpenseForChange(Long expenseId) {
+        return expenseRepository.findById(expenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Expense not found with id: " + expenseId));
+    }
+
+    private User getGroupMember(Group group, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        if (!group.getUsers().contains(user)) {
+            throw new InvalidExpenseDataException("User with id " + userId + " is not part of the group");
+        }
+        return user;
+    }
+
+    private BigDecimal sum(Iterable<BigDecimal> amounts) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (BigDecimal amount : amounts) {
+            total = total.add(amount);
+        }
+        return total;
+    }
+
     private void validateCreateExpenseexpenseDto(ExpenseDto expenseDto) {
         if (expenseDto.getDescription() == null || expenseDto.getDescription().trim().isEmpty()) {
             throw new InvalidExpenseDataException("Description is required");
@@ -0,0 +1,239 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.CustomOAuth2User;
+import com.expenseshare.demo.entity.IdempotencyRecord;
+import com.expenseshare.demo.enums.IdempotencyStatus;
+import com.expenseshare.demo.exception.GenericException;
+import com.expenseshare.demo.exception.IdempotencyConflictException;
+import com.expenseshare.demo.repository.IdempotencyRecordRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Makes POST endpoints safe to retry. The first request with a given Idempotency-Key runs the action
+ * and stores its response; later requests with the same key get the stored response back without
+ * running the action again. Keys are scoped to the authenticated caller, so two users sending the
+ * same key never see each other's responses.
+ * Completed responses are kept in a bounded in-memory LRU in front of the idempotency_keys table.
+ * A claim is marked completed only after the action's transaction commits; a claim left IN_PROGRESS
+ * longer than the lease (the process died in between) is treated as abandoned and can be taken over
+ * by a retry of the same request. The lease cannot tell a dead process from a slow one: an action
+ * still running when its lease runs out can run a second time, so the lease must stay longer than
+ * any request takes.
+ */
+@Service
+@Slf4j
+public class IdempotencyService {
+
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    // Length of idempotency_keys.id, which holds "<scope>:<caller>:<key>"
+    private static final int MAX_ID_LENGTH = 255;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration inProgressLease;
+    private final Map<String, CachedResponse> cache;
+
+    public IdempotencyService(IdempotencyRecordRepository idempotencyRecordRepository, ObjectMapper objectMapper,
+                              @Value("${expenseshare.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${expenseshare.idempotency.in-progress-lease:2m}") Duration inProgressLease,
+                              @Value("${expenseshare.idempotency.cache-size:10000}") int cacheSize) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.inProgressLease = inProgressLease;
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > cacheSize;
+            }
+        });
+    }
+
+    /**
+     * Run the action once per (scope, caller, key). Without a key the action simply runs.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Class<T> responseType,
+                                         Supplier<ResponseEntity<T>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String prefix = scope + ":" + principalId() + ":";
+        if (prefix.length() + key.length() > MAX_ID_LENGTH) {
+            throw new GenericException(HEADER + " must be at most " + (MAX_ID_LENGTH - prefix.length()) + " characters");
+        }
+        String id = prefix + key;
+        String requestHash = hash(request);
+
+        CachedResponse cached = cache.get(id);
+        if (cached != null && cached.isExpired()) {
+            cache.remove(id);
+            cached = null;
+        }
+        if (cached == null) {
+            cached = loadCompleted(id, requestHash);
+        }
+        if (cached != null) {
+            return replay(id, cached, requestHash, responseType);
+        }
+
+        IdempotencyRecord claim = claim(id, requestHash);
+        ResponseEntity<T> response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Let the client retry with the same key after a failure
+            idempotencyRecordRepository.deleteById(id);
+            throw e;
+        }
+        complete(claim, response);
+        return response;
+    }
+
+    @Scheduled(fixedDelayString = "${expenseshare.idempotency.purge-interval:10m}")
+    public void purgeExpired() {
+        int removed = idempotencyRecordRepository.deleteExpired(LocalDateTime.now());
+        synchronized (cache) {
+            cache.values().removeIf(CachedResponse::isExpired);
+        }
+        if (removed > 0) {
+            log.info("Purged {} expired idempotency keys", removed);
+        }
+    }
+
+    private CachedResponse loadCompleted(String id, String requestHash) {
+        Optional<IdempotencyRecord> existing = idempotencyRecordRepository.findById(id);
+        if (existing.isEmpty()) {
+            return null;
+        }
+
+        IdempotencyRecord record = existing.get();
+        if (record.getExpiresAt().isBefore(LocalDateTime.now())) {
+            idempotencyRecordRepository.delete(record);
+            return null;
+        }
+        if (record.getStatus() == IdempotencyStatus.IN_PROGRESS) {
+            // Only a retry of the same request may take over an abandoned claim
+            if (!record.getRequestHash().equals(requestHash)) {
+                throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+            }
+            LocalDateTime cutoff = LocalDateTime.now().minus(inProgressLease);
+            if (record.getCreatedAt().isBefore(cutoff)
+                    && idempotencyRecordRepository.deleteStaleClaim(id, IdempotencyStatus.IN_PROGRESS, cutoff) > 0) {
+                log.warn("Idempotency key {} was claimed at {} and never completed, running the request again",
+                        id, record.getCreatedAt());
+                return null;
+            }
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+
+        CachedResponse cached = new CachedResponse(record.getRequestHash(), record.getResponseStatus(),
+                record.getResponseBody(), record.getExpiresAt());
+        cache.put(id, cached);
+        return cached;
+    }
+
+    private IdempotencyRecord claim(String id, String requestHash) {
+        LocalDateTime now = LocalDateTime.now();
+        IdempotencyRecord record = IdempotencyRecord.builder()
+                .id(id)
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .createdAt(now)
+                .expiresAt(now.plus(ttl))
+                .build();
+        try {
+            return idempotencyRecordRepository.saveAndFlush(record);
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Concurrent request claimed idempotency key {}", id);
+            throw new IdempotencyConflictException("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private void complete(IdempotencyRecord record, ResponseEntity<?> response) {
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setResponseStatus(response.getStatusCode().value());
+        record.setResponseBody(toJson(response.getBody()));
+        idempotencyRecordRepository.save(record);
+
+        cache.put(record.getId(), new CachedResponse(record.getRequestHash(), record.getResponseStatus(),
+                record.getResponseBody(), record.getExpiresAt()));
+    }
+
+    private <T> ResponseEntity<T> replay(String id, CachedResponse cached, String requestHash, Class<T> responseType) {
+        if (!cached.requestHash().equals(requestHash)) {
+            throw new IdempotencyConflictException("Idempotency-Key was already used with a different request");
+        }
+        log.info("Replaying stored response for idempotency key {}", id);
+
+        T body;
+        try {
+            body = cached.body() == null ? null : objectMapper.readValue(cached.body(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for idempotency key " + id + " is unreadable", e);
+        }
+        return ResponseEntity.status(cached.status())
+                .header(REPLAYED_HEADER, "true")
+                .body(body);
+    }
+
+    private static String principalId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated()
+                || authentication instanceof AnonymousAuthenticationToken) {
+            return "anonymous";
+        }
+        if (authentication.getPrincipal() instanceof CustomOAuth2User principal
+                && principal.getUser().getId() != null) {
+            return "user-" + principal.getUser().getId();
+        }
+        return "name-" + authentication.getName();
+    }
+
+    private String hash(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to fingerprint request", e);
+        }
+    }
+
+    private String toJson(Object body) {
+        try {
+            return body == null ? null : objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unable to store response for idempotent replay", e);
+        }
+    }
+
+    private record CachedResponse(String requestHash, int status, String body, LocalDateTime expiresAt) {
+        boolean isExpired() {
+            return expiresAt.isBefore(LocalDateTime.now());
+        }
+    }
+}
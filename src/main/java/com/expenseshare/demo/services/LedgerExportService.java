@@ -0,0 +1,245 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.enums.ExportFormat;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.InvalidExpenseDataException;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+
+/**
+ * Streams a group's ledger (expense shares and settlement details, live and archived) as CSV or NDJSON.
+ * Rows are read from a forward-only, read-only cursor and written straight to the response,
+ * so memory use does not depend on the size of the group's history.
+ */
+@Service
+@Slf4j
+public class LedgerExportService {
+
+    static final String[] COLUMNS = {"record_type", "record_id", "occurred_at", "description", "total_amount",
+            "from_user_id", "to_user_id", "amount", "detail"};
+
+    // Each share is owed by its user to the payer
+    private static final String EXPENSE_SHARES_SQL = """
+            SELECT e.id, e.created_at, e.description, e.amount, es.user_id, e.paid_by_user_id, es.share, e.split_type
+            FROM expenses e JOIN expense_shares es ON es.expense_id = e.id
+            WHERE e.group_id = ?
+            ORDER BY e.id, es.id""";
+
+    // Settlements moved out by ArchiveService are still part of the group's history; the trailing
+    // detail id only orders the union and is not written
+    private static final String SETTLEMENT_DETAILS_SQL = """
+            SELECT s.id, s.settlement_date, s.description, s.amount, s.payer_id, s.receiver_id, sd.amount_settled, s.status,
+                   sd.id AS detail_id
+            FROM settlement_details sd JOIN settlements s ON s.id = sd.settlement_id
+            WHERE sd.group_id = ?
+            UNION ALL
+            SELECT s.id, s.settlement_date, s.description, s.amount, s.payer_id, s.receiver_id, sd.amount_settled, s.status,
+                   sd.id AS detail_id
+            FROM archived_settlement_details sd JOIN archived_settlements s ON s.id = sd.settlement_id
+            WHERE sd.group_id = ?
+            ORDER BY 1, 9""";
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final GroupRepository groupRepository;
+
+    public LedgerExportService(DataSource dataSource, PlatformTransactionManager transactionManager,
+                               ObjectMapper objectMapper, GroupRepository groupRepository,
+                               @Value("${expenseshare.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.objectMapper = objectMapper;
+        this.groupRepository = groupRepository;
+    }
+
+    public static ExportFormat parseFormat(String format) {
+        try {
+            return ExportFormat.valueOf(format.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExpenseDataException("Invalid export format. Must be CSV or NDJSON");
+        }
+    }
+
+    /**
+     * Checks the group up front so a missing group is still a 404; the rows are read when the body is written
+     */
+    public StreamingResponseBody exportGroupLedger(Long groupId, ExportFormat format) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), WRITE_BUFFER_SIZE);
+            LedgerWriter ledgerWriter = format == ExportFormat.CSV ? new CsvLedgerWriter(writer) : new NdjsonLedgerWriter(writer);
+            long started = System.nanoTime();
+            long[] rows = new long[1];
+            try {
+                ledgerWriter.writeHeader();
+                // One read-only transaction: both cursors see the same snapshot
+                transactionTemplate.executeWithoutResult(status -> {
+                    stream(EXPENSE_SHARES_SQL, 1, groupId, "EXPENSE_SHARE", ledgerWriter, rows);
+                    stream(SETTLEMENT_DETAILS_SQL, 2, groupId, "SETTLEMENT", ledgerWriter, rows);
+                });
+                ledgerWriter.finish();
+            } catch (UncheckedIOException e) {
+                log.warn("Ledger export for group {} aborted after {} rows: {}", groupId, rows[0], e.getCause().getMessage());
+                throw e.getCause();
+            }
+            log.info("Exported {} ledger rows for group {} as {} in {} ms",
+                    rows[0], groupId, format, (System.nanoTime() - started) / 1_000_000);
+        };
+    }
+
+    /**
+     * Binds the group id to each of the query's groupIdParameters placeholders
+     */
+    private void stream(String sql, int groupIdParameters, Long groupId, String recordType, LedgerWriter ledgerWriter, long[] rows) {
+        RowCallbackHandler handler = resultSet -> {
+            try {
+                ledgerWriter.writeRow(recordType, resultSet);
+            } catch (IOException e) {
+                // Client went away; stop reading instead of draining the cursor
+                throw new UncheckedIOException(e);
+            }
+            rows[0]++;
+        };
+        jdbcTemplate.query(connection -> {
+            var statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            for (int parameter = 1; parameter <= groupIdParameters; parameter++) {
+                statement.setLong(parameter, groupId);
+            }
+            return statement;
+        }, handler);
+    }
+
+    private abstract static class LedgerWriter {
+
+        protected final Writer writer;
+
+        LedgerWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        void writeHeader() throws IOException {
+        }
+
+        abstract void writeRow(String recordType, ResultSet row) throws SQLException, IOException;
+
+        void finish() throws IOException {
+            writer.flush();
+        }
+
+        static String timestamp(ResultSet row, int column) throws SQLException {
+            Timestamp value = row.getTimestamp(column);
+            return value != null ? value.toLocalDateTime().toString() : null;
+        }
+
+        static String amount(ResultSet row, int column) throws SQLException {
+            BigDecimal value = row.getBigDecimal(column);
+            return value != null ? value.toPlainString() : null;
+        }
+    }
+
+    private static class CsvLedgerWriter extends LedgerWriter {
+
+        CsvLedgerWriter(Writer writer) {
+            super(writer);
+        }
+
+        @Override
+        void writeHeader() throws IOException {
+            writer.write(String.join(",", COLUMNS));
+            writer.write("\r\n");
+        }
+
+        @Override
+        void writeRow(String recordType, ResultSet row) throws SQLException, IOException {
+            writer.write(recordType);
+            for (int column = 1; column < COLUMNS.length; column++) {
+                writer.write(',');
+                writeField(value(row, column));
+            }
+            writer.write("\r\n");
+        }
+
+        private String value(ResultSet row, int column) throws SQLException {
+            return switch (column) {
+                case 2 -> timestamp(row, column);
+                case 4, 7 -> amount(row, column);
+                default -> row.getString(column);
+            };
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+
+    private class NdjsonLedgerWriter extends LedgerWriter {
+
+        private final JsonGenerator generator;
+
+        NdjsonLedgerWriter(Writer writer) throws IOException {
+            super(writer);
+            this.generator = objectMapper.getFactory().createGenerator(writer);
+            this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeRow(String recordType, ResultSet row) throws SQLException, IOException {
+            generator.writeStartObject();
+            generator.writeStringField(COLUMNS[0], recordType);
+            generator.writeNumberField(COLUMNS[1], row.getLong(1));
+            generator.writeStringField(COLUMNS[2], timestamp(row, 2));
+            generator.writeStringField(COLUMNS[3], row.getString(3));
+            generator.writeNumberField(COLUMNS[4], row.getBigDecimal(4));
+            generator.writeNumberField(COLUMNS[5], row.getLong(5));
+            generator.writeNumberField(COLUMNS[6], row.getLong(6));
+            generator.writeNumberField(COLUMNS[7], row.getBigDecimal(7));
+            generator.writeStringField(COLUMNS[8], row.getString(8));
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void finish() throws IOException {
+            generator.flush();
+            super.finish();
+        }
+    }
+}
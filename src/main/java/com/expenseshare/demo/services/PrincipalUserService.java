@@ -0,0 +1,108 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.enums.Role;
+import com.expenseshare.demo.events.UserCreatedEvent;
+import com.expenseshare.demo.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Maps an identity provider subject to its User, creating the user on first sign-in. Used by the
+ * OAuth2 login and by every bearer-token request, so lookups are cached for a short TTL; a role
+ * change takes effect once the entry expires.
+ *
+ * The cache holds a detached snapshot of the user's own columns and every caller gets its own copy,
+ * so changing a principal's User never changes what later requests are authorized with.
+ */
+@Service
+@Slf4j
+public class PrincipalUserService {
+
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration ttl;
+    private final int maxEntries;
+    private final ConcurrentMap<String, CachedUser> cache = new ConcurrentHashMap<>();
+
+    public PrincipalUserService(UserRepository userRepository, ApplicationEventPublisher eventPublisher,
+                                @Value("${expenseshare.security.principal-cache-ttl:1m}") Duration ttl,
+                                @Value("${expenseshare.security.principal-cache-size:10000}") int maxEntries) {
+        this.userRepository = userRepository;
+        this.eventPublisher = eventPublisher;
+        this.ttl = ttl;
+        this.maxEntries = maxEntries;
+    }
+
+    public User resolve(String provider, String subject, String email, String firstName, String lastName) {
+        String normalizedProvider = provider.toUpperCase(Locale.ROOT);
+        String key = normalizedProvider + ":" + subject;
+        Instant now = Instant.now();
+        CachedUser cached = cache.get(key);
+        if (cached != null && now.isBefore(cached.expiresAt())) {
+            return snapshot(cached.user());
+        }
+
+        User user = userRepository.findByProviderAndProviderId(normalizedProvider, subject)
+                .orElseGet(() -> createUser(normalizedProvider, subject, email, firstName, lastName));
+        if (cache.size() >= maxEntries) {
+            cache.values().removeIf(entry -> !now.isBefore(entry.expiresAt()));
+            if (cache.size() >= maxEntries) {
+                cache.clear(); // Every entry is still live; start over rather than grow without bound
+            }
+        }
+        cache.put(key, new CachedUser(snapshot(user), now.plus(ttl)));
+        return snapshot(user);
+    }
+
+    /**
+     * Copy without the lazy group collection, safe to hold across requests and threads
+     */
+    private static User snapshot(User user) {
+        return User.builder()
+                .id(user.getId())
+                .userName(user.getUserName())
+                .emailId(user.getEmailId())
+                .googleId(user.getGoogleId())
+                .firstName(user.getFirstName())
+                .lastName(user.getLastName())
+                .role(user.getRole())
+                .provider(user.getProvider())
+                .providerId(user.getProviderId())
+                .createdAt(user.getCreatedAt())
+                .updatedAt(user.getUpdatedAt())
+                .build();
+    }
+
+    private User createUser(String provider, String subject, String email, String firstName, String lastName) {
+        User newUser = new User();
+        newUser.setProvider(provider);
+        newUser.setProviderId(subject);
+        newUser.setEmailId(email);
+        newUser.setFirstName(firstName != null ? firstName : "");
+        newUser.setLastName(lastName != null ? lastName : "");
+        newUser.setUserName(email);
+        newUser.setRole(Role.USER);
+        try {
+            User savedUser = userRepository.save(newUser);
+            eventPublisher.publishEvent(UserCreatedEvent.of(savedUser));
+            log.info("Created user {} for {} subject on first sign-in", savedUser.getId(), provider);
+            return savedUser;
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent first request for the same subject created it
+            return userRepository.findByProviderAndProviderId(provider, subject).orElseThrow(() -> e);
+        }
+    }
+
+    private record CachedUser(User user, Instant expiresAt) {
+    }
+}
@@ -0,0 +1,61 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * Periodically materializes due recurring expenses. Groups are split by balance shard and each
+ * shard's groups are processed in one transaction on that shard's worker, so shards run in parallel
+ * and never race the regular balance writes of the same group.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringExpenseScheduler {
+
+    private final RecurringExpenseService recurringExpenseService;
+    private final GroupShardedExecutor groupShardedExecutor;
+
+    @Scheduled(fixedDelayString = "${expenseshare.recurring.interval:1h}",
+            initialDelayString = "${expenseshare.recurring.initial-delay:1m}")
+    public void materializeDueExpenses() {
+        materializeDue(LocalDate.now());
+    }
+
+    public int materializeDue(LocalDate date) {
+        List<Long> groupIds = recurringExpenseService.findGroupsWithDueExpenses(date);
+        if (groupIds.isEmpty()) {
+            return 0;
+        }
+
+        Map<Integer, List<Long>> groupsByShard = groupIds.stream()
+                .collect(Collectors.groupingBy(groupShardedExecutor::shardFor));
+        List<CompletableFuture<Integer>> runs = new ArrayList<>();
+        for (List<Long> shardGroupIds : groupsByShard.values()) {
+            runs.add(groupShardedExecutor.submit(shardGroupIds.get(0),
+                    () -> recurringExpenseService.materializeDue(shardGroupIds, date)));
+        }
+
+        int created = 0;
+        for (CompletableFuture<Integer> run : runs) {
+            try {
+                created += GroupShardedExecutor.await(run);
+            } catch (RuntimeException e) {
+                // Nothing from the failed shard was committed; its occurrences stay due for the next run
+                log.error("Recurring expense run failed for one shard", e);
+            }
+        }
+        log.info("Recurring expense run for {} created {} expenses across {} shards", date, created, runs.size());
+        return created;
+    }
+}
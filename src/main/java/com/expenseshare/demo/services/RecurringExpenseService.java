@@ -0,0 +1,334 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.BalanceDelta;
+import com.expenseshare.demo.dto.RecurringExpenseDto;
+import com.expenseshare.demo.dto.RecurringExpenseResponseDto;
+import com.expenseshare.demo.dto.UserShareDto;
+import com.expenseshare.demo.entity.Expense;
+import com.expenseshare.demo.entity.ExpenseShare;
+import com.expenseshare.demo.entity.Group;
+import com.expenseshare.demo.entity.RecurringExpense;
+import com.expenseshare.demo.entity.RecurringShare;
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.enums.RecurrenceFrequency;
+import com.expenseshare.demo.enums.SplitType;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.InvalidExpenseDataException;
+import com.expenseshare.demo.exception.ResourceNotFoundException;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.repository.ExpenseRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.RecurringExpenseRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RecurringExpenseService {
+
+    // Bounds one run after a long outage; the rest is caught up by the following runs
+    private static final int MAX_OCCURRENCES_PER_RUN = 400;
+
+    private final RecurringExpenseRepository recurringExpenseRepository;
+    private final ExpenseRepository expenseRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final BalanceService balanceService;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Transactional
+    public RecurringExpenseResponseDto createRecurringExpense(RecurringExpenseDto dto) {
+        log.info("Creating recurring expense for group {}: {}", dto.getGroupId(), dto.getDescription());
+
+        validateRecurringExpense(dto);
+
+        Group group = groupRepository.findById(dto.getGroupId())
+                .orElseThrow(() -> new GroupNotFoundException("Group not found with id: " + dto.getGroupId()));
+        User paidBy = getGroupMember(group, dto.getPaidByUserId());
+
+        SplitType splitType = SplitType.valueOf(dto.getSplitType().toUpperCase());
+        List<RecurringShare> shares = new ArrayList<>();
+        if (splitType == SplitType.UNEQUAL) {
+            for (UserShareDto userShare : dto.getUserShares()) {
+                getGroupMember(group, userShare.getUserId());
+                shares.add(new RecurringShare(userShare.getUserId(), userShare.getShare()));
+            }
+        }
+
+        LocalDate startDate = dto.getStartDate() != null ? dto.getStartDate() : LocalDate.now();
+        RecurringExpense recurringExpense = RecurringExpense.builder()
+                .description(dto.getDescription())
+                .amount(dto.getAmount())
+                .group(group)
+                .paidBy(paidBy)
+                .splitType(splitType)
+                .shares(shares)
+                .frequency(RecurrenceFrequency.valueOf(dto.getFrequency().toUpperCase()))
+                .startDate(startDate)
+                .nextOccurrence(startDate)
+                .endDate(dto.getEndDate())
+                .build();
+
+        recurringExpense = recurringExpenseRepository.save(recurringExpense);
+        log.info("Recurring expense created with id: {}", recurringExpense.getId());
+        return mapToResponse(recurringExpense);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringExpenseResponseDto> getRecurringExpensesByGroup(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return recurringExpenseRepository.findByGroupIdAndActiveTrue(groupId).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Stops future occurrences; expenses already materialized are kept
+     */
+    @Transactional
+    public void deactivateRecurringExpense(Long recurringExpenseId) {
+        RecurringExpense recurringExpense = recurringExpenseRepository.findById(recurringExpenseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Recurring expense not found with id: " + recurringExpenseId));
+        recurringExpense.setActive(false);
+        log.info("Recurring expense {} deactivated", recurringExpenseId);
+    }
+
+    @Transactional(readOnly = true)
+    public List<Long> findGroupsWithDueExpenses(LocalDate date) {
+        return recurringExpenseRepository.findGroupIdsWithDueExpenses(date);
+    }
+
+    /**
+     * Materializes every occurrence due on or before the date for the given groups in one transaction:
+     * expenses and shares are batch-inserted and balances get one netted update per user pair.
+     * The next occurrence is advanced in the same transaction, so a run after downtime catches up
+     * without creating anything twice. A definition that can no longer be materialized (its group has
+     * no members, or a share user is gone) is deactivated and skipped instead of failing the others.
+     */
+    @Transactional
+    @Timed(value = "expenseshare.recurring.materialize", histogram = true)
+    public int materializeDue(Collection<Long> groupIds, LocalDate date) {
+        List<RecurringExpense> dueExpenses = recurringExpenseRepository.findDueInGroupsForUpdate(groupIds, date);
+        if (dueExpenses.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> shareUserIds = dueExpenses.stream()
+                .flatMap(recurring -> recurring.getShares().stream())
+                .map(RecurringShare::getUserId)
+                .collect(Collectors.toSet());
+        Map<Long, User> shareUsers = userRepository.findAllById(shareUserIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<Expense> expenses = new ArrayList<>();
+        List<BalanceDelta> deltas = new ArrayList<>();
+        for (RecurringExpense recurring : dueExpenses) {
+            String invalidReason = invalidReason(recurring, shareUsers);
+            if (invalidReason != null) {
+                log.warn("Deactivating recurring expense {} in group {}: {}",
+                        recurring.getId(), recurring.getGroup().getId(), invalidReason);
+                recurring.setActive(false);
+                continue;
+            }
+
+            int created = 0;
+            while (recurring.isDueOn(date) && created < MAX_OCCURRENCES_PER_RUN) {
+                Expense expense = buildOccurrence(recurring, shareUsers);
+                expenses.add(expense);
+                for (ExpenseShare share : expense.getExpenseShares()) {
+                    if (!share.getUser().getId().equals(recurring.getPaidBy().getId())) {
+                        deltas.add(new BalanceDelta(recurring.getGroup().getId(), share.getUser().getId(),
+                                recurring.getPaidBy().getId(), share.getShare()));
+                    }
+                }
+                recurring.setNextOccurrence(recurring.getFrequency()
+                        .next(recurring.getStartDate(), recurring.getNextOccurrence()));
+                created++;
+            }
+            if (recurring.getEndDate() != null && recurring.getNextOccurrence().isAfter(recurring.getEndDate())) {
+                recurring.setActive(false);
+            }
+        }
+
+        // Cascades to the shares; sequence ids let Hibernate batch both inserts
+        expenseRepository.saveAll(expenses);
+        expenses.forEach(expense -> eventPublisher.publishEvent(ExpenseSpendingEvent.recorded(expense)));
+
+        List<BalanceDelta> balanceChanges = BalanceService.netByPair(deltas);
+        if (!balanceChanges.isEmpty()) {
+            balanceService.applyDeltas(balanceChanges);
+        }
+
+        log.info("Materialized {} recurring expense occurrences for {} groups ({} balance pairs updated)",
+                expenses.size(), groupIds.size(), balanceChanges.size());
+        return expenses.size();
+    }
+
+    /**
+     * Why the definition cannot be materialized any more, or null if it can
+     */
+    private String invalidReason(RecurringExpense recurring, Map<Long, User> shareUsers) {
+        Set<User> members = recurring.getGroup().getUsers();
+        if (members == null || members.isEmpty()) {
+            return "group has no members";
+        }
+        if (!members.contains(recurring.getPaidBy())) {
+            return "payer " + recurring.getPaidBy().getId() + " is no longer a group member";
+        }
+        if (recurring.getSplitType() == SplitType.UNEQUAL) {
+            for (RecurringShare share : recurring.getShares()) {
+                User user = shareUsers.get(share.getUserId());
+                if (user == null || !members.contains(user)) {
+                    return "share user " + share.getUserId() + " is no longer a group member";
+                }
+            }
+        }
+        return null;
+    }
+
+    private Expense buildOccurrence(RecurringExpense recurring, Map<Long, User> shareUsers) {
+        Expense expense = Expense.builder()
+                .description(recurring.getDescription() + " (" + recurring.getNextOccurrence() + ")")
+                .amount(recurring.getAmount())
+                .group(recurring.getGroup())
+                .paidBy(recurring.getPaidBy())
+                .splitType(recurring.getSplitType())
+                .expenseShares(new ArrayList<>())
+                .build();
+
+        if (recurring.getSplitType() == SplitType.EQUAL) {
+            Set<User> members = recurring.getGroup().getUsers();
+            BigDecimal sharePerUser = recurring.getAmount()
+                    .divide(BigDecimal.valueOf(members.size()), 2, RoundingMode.HALF_UP);
+            for (User member : members) {
+                expense.getExpenseShares().add(ExpenseShare.builder()
+                        .expense(expense)
+                        .user(member)
+                        .share(sharePerUser)
+                        .build());
+            }
+        } else {
+            for (RecurringShare share : recurring.getShares()) {
+                User user = shareUsers.get(share.getUserId());
+                expense.getExpenseShares().add(ExpenseShare.builder()
+                        .expense(expense)
+                        .user(user)
+                        .share(share.getShare())
+                        .build());
+            }
+        }
+        return expense;
+    }
+
+    private void validateRecurringExpense(RecurringExpenseDto dto) {
+        if (dto.getDescription() == null || dto.getDescription().trim().isEmpty()) {
+            throw new InvalidExpenseDataException("Description is required");
+        }
+
+        if (dto.getAmount() == null || dto.getAmount().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new InvalidExpenseDataException("Amount must be greater than zero");
+        }
+
+        if (dto.getGroupId() == null) {
+            throw new InvalidExpenseDataException("Group ID is required");
+        }
+
+        if (dto.getPaidByUserId() == null) {
+            throw new InvalidExpenseDataException("Paid by user ID is required");
+        }
+
+        if (dto.getFrequency() == null) {
+            throw new InvalidExpenseDataException("Frequency is required");
+        }
+
+        try {
+            RecurrenceFrequency.valueOf(dto.getFrequency().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExpenseDataException("Invalid frequency. Must be DAILY, WEEKLY, MONTHLY or YEARLY");
+        }
+
+        if (dto.getStartDate() != null && dto.getEndDate() != null && dto.getEndDate().isBefore(dto.getStartDate())) {
+            throw new InvalidExpenseDataException("End date must not be before the start date");
+        }
+
+        if (dto.getSplitType() == null) {
+            throw new InvalidExpenseDataException("Split type is required");
+        }
+
+        SplitType splitType;
+        try {
+            splitType = SplitType.valueOf(dto.getSplitType().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidExpenseDataException("Invalid split type. Must be EQUAL or UNEQUAL");
+        }
+
+        if (splitType == SplitType.UNEQUAL) {
+            if (dto.getUserShares() == null || dto.getUserShares().isEmpty()) {
+                throw new InvalidExpenseDataException("User shares are required for unequal split");
+            }
+            boolean hasInvalidShare = dto.getUserShares().stream()
+                    .anyMatch(share -> share.getUserId() == null || share.getShare() == null
+                            || share.getShare().compareTo(BigDecimal.ZERO) <= 0);
+            if (hasInvalidShare) {
+                throw new InvalidExpenseDataException("All user shares must be positive");
+            }
+            BigDecimal totalShares = dto.getUserShares().stream()
+                    .map(UserShareDto::getShare)
+                    .reduce(BigDecimal.ZERO, BigDecimal::add);
+            if (totalShares.compareTo(dto.getAmount()) != 0) {
+                throw new InvalidExpenseDataException("Sum of user shares must equal the total expense amount");
+            }
+        }
+    }
+
+    private User getGroupMember(Group group, Long userId) {
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found with id: " + userId));
+        if (!group.getUsers().contains(user)) {
+            throw new InvalidExpenseDataException("User with id " + userId + " is not part of the group");
+        }
+        return user;
+    }
+
+    private RecurringExpenseResponseDto mapToResponse(RecurringExpense recurring) {
+        return RecurringExpenseResponseDto.builder()
+                .id(recurring.getId())
+                .description(recurring.getDescription())
+                .amount(recurring.getAmount())
+                .groupId(recurring.getGroup().getId())
+                .paidByUserId(recurring.getPaidBy().getId())
+                .splitType(recurring.getSplitType().name())
+                .userShares(recurring.getShares().stream()
+                        .map(share -> UserShareDto.builder()
+                                .userId(share.getUserId())
+                                .share(share.getShare())
+                                .build())
+                        .collect(Collectors.toList()))
+                .frequency(recurring.getFrequency().name())
+                .startDate(recurring.getStartDate())
+                .nextOccurrence(recurring.getNextOccurrence())
+                .endDate(recurring.getEndDate())
+                .active(recurring.isActive())
+                .build();
+    }
+}
@@ -0,0 +1,243 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.BalanceDelta;
+import com.expenseshare.demo.dto.SettleBalanceRequestDto;
+import com.expenseshare.demo.dto.SettlementPlanDto;
+import com.expenseshare.demo.entity.BalanceRewrite;
+import com.expenseshare.demo.entity.UserBalance;
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.PreconditionFailedException;
+import com.expenseshare.demo.readmodel.ResourceVersions;
+import com.expenseshare.demo.repository.BalanceRewriteRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserBalanceRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * "Who should pay whom" per group: at most one transfer fewer than the number of members with a
+ * non-zero net position, found greedily by matching the largest debtor with the largest creditor.
+ *
+ * Plans are cached per group and dropped when a balance of the group changes; the next read
+ * recomputes. A per-group version guards against caching a plan computed from data that changed
+ * while it was being computed. The cache is per instance, like the other in-memory state that
+ * SingleInstanceGuard protects.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SettlementPlanService {
+
+    private final UserBalanceRepository userBalanceRepository;
+    private final GroupRepository groupRepository;
+    private final BalanceService balanceService;
+    private final BalanceRewriteRepository balanceRewriteRepository;
+    private final ResourceVersions resourceVersions;
+
+    private final ConcurrentMap<Long, CachedPlan> plans = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onBalanceChanged(BalanceChangedEvent event) {
+        version(event.getGroupId()).incrementAndGet();
+        plans.remove(event.getGroupId());
+    }
+
+    @Transactional(readOnly = true)
+    public SettlementPlanDto getPlan(Long groupId) {
+        long version = version(groupId).get();
+        CachedPlan cached = plans.get(groupId);
+        if (cached != null && cached.version() == version) {
+            return cached.plan();
+        }
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        SettlementPlanDto plan = computePlan(groupId, userBalanceRepository.findByGroupId(groupId));
+        // A plan computed across a change carries the old version and is recomputed on the next read
+        plans.put(groupId, new CachedPlan(version, plan));
+        return plan;
+    }
+
+    /**
+     * Rewrites the group's balances to exactly the plan's transfers, keeping every member's net
+     * position, so each transfer can then be settled through the settlement endpoints.
+     *
+     * planETag must be the group ETag the client read the plan under. Callers run this on the group's
+     * worker, so every balance write of the group has committed and bumped the ETag before the check. Each
+     * pair that changes is recorded in balance_rewrites before its balance is rewritten.
+     */
+    @Transactional
+    @Timed(value = "expenseshare.balance.plan.apply", histogram = true)
+    public SettlementPlanDto applyPlan(Long groupId, String planETag) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        String currentETag = resourceVersions.groupETag(groupId);
+        if (!currentETag.equals(planETag)) {
+            throw new PreconditionFailedException("Group " + groupId + " changed since the plan was read (ETag "
+                    + currentETag + ", If-Match " + planETag + "); fetch the plan again");
+        }
+        List<UserBalance> balances = userBalanceRepository.findByGroupId(groupId);
+        SettlementPlanDto plan = computePlan(groupId, balances);
+
+        List<BalanceDelta> current = new ArrayList<>();
+        for (UserBalance balance : balances) {
+            if (balance.getAmount().signum() != 0) {
+                current.add(new BalanceDelta(groupId, balance.getDebtor().getId(), balance.getCreditor().getId(),
+                        balance.getAmount()));
+            }
+        }
+        List<BalanceDelta> planned = new ArrayList<>();
+        for (SettleBalanceRequestDto transfer : plan.getTransfers()) {
+            planned.add(new BalanceDelta(groupId, transfer.getPayerId(), transfer.getReceiverId(), transfer.getAmount()));
+        }
+
+        List<BalanceDelta> deltas = new ArrayList<>(planned);
+        for (BalanceDelta balance : current) {
+            deltas.add(new BalanceDelta(groupId, balance.getDebtorId(), balance.getCreditorId(),
+                    balance.getAmount().negate()));
+        }
+        List<BalanceDelta> changes = BalanceService.netByPair(deltas);
+        if (!changes.isEmpty()) {
+            balanceRewriteRepository.saveAll(rewrites(groupId, current, planned, planETag));
+            balanceService.applyDeltas(changes);
+        }
+        log.info("Applied settlement plan for group {}: {} transfers, {} balance pairs changed",
+                groupId, plan.getTransfers().size(), changes.size());
+        plan.setMatchesBalances(true);
+        return plan;
+    }
+
+    public SettlementPlanDto computePlan(Long groupId, List<UserBalance> balances) {
+        // Positive: the user is owed money overall
+        Map<Long, BigDecimal> netPositions = new TreeMap<>();
+        Set<List<Long>> existingDebts = new HashSet<>();
+        for (UserBalance balance : balances) {
+            if (balance.getAmount().signum() <= 0) {
+                continue;
+            }
+            Long debtorId = balance.getDebtor().getId();
+            Long creditorId = balance.getCreditor().getId();
+            netPositions.merge(debtorId, balance.getAmount().negate(), BigDecimal::add);
+            netPositions.merge(creditorId, balance.getAmount(), BigDecimal::add);
+            existingDebts.add(List.of(debtorId, creditorId));
+        }
+
+        Comparator<Position> largestFirst = Comparator.comparing(Position::amount).reversed()
+                .thenComparing(Position::userId);
+        PriorityQueue<Position> debtors = new PriorityQueue<>(largestFirst);
+        PriorityQueue<Position> creditors = new PriorityQueue<>(largestFirst);
+        netPositions.forEach((userId, net) -> {
+            if (net.signum() < 0) {
+                debtors.add(new Position(userId, net.negate()));
+            } else if (net.signum() > 0) {
+                creditors.add(new Position(userId, net));
+            }
+        });
+
+        List<SettleBalanceRequestDto> transfers = new ArrayList<>();
+        BigDecimal total = BigDecimal.ZERO;
+        boolean matchesBalances = true;
+        while (!debtors.isEmpty() && !creditors.isEmpty()) {
+            Position debtor = debtors.poll();
+            Position creditor = creditors.poll();
+            BigDecimal amount = debtor.amount().min(creditor.amount());
+            transfers.add(SettleBalanceRequestDto.builder()
+                    .payerId(debtor.userId())
+                    .receiverId(creditor.userId())
+                    .amount(amount)
+                    .description("Settlement plan for group " + groupId)
+                    .build());
+            total = total.add(amount);
+            matchesBalances &= existingDebts.contains(List.of(debtor.userId(), creditor.userId()));
+
+            if (debtor.amount().compareTo(amount) > 0) {
+                debtors.add(new Position(debtor.userId(), debtor.amount().subtract(amount)));
+            }
+            if (creditor.amount().compareTo(amount) > 0) {
+                creditors.add(new Position(creditor.userId(), creditor.amount().subtract(amount)));
+            }
+        }
+
+        return SettlementPlanDto.builder()
+                .groupId(groupId)
+                .transfers(transfers)
+                .totalAmount(total)
+                .matchesBalances(matchesBalances && transfers.size() == existingDebts.size())
+                .computedAt(LocalDateTime.now())
+                .build();
+    }
+
+    private static List<BalanceRewrite> rewrites(Long groupId, List<BalanceDelta> current,
+                                                 List<BalanceDelta> planned, String planETag) {
+        Map<List<Long>, BigDecimal> before = byUserPair(current);
+        Map<List<Long>, BigDecimal> after = byUserPair(planned);
+        Set<List<Long>> pairs = new LinkedHashSet<>(before.keySet());
+        pairs.addAll(after.keySet());
+
+        LocalDateTime appliedAt = LocalDateTime.now();
+        List<BalanceRewrite> rewrites = new ArrayList<>();
+        for (List<Long> pair : pairs) {
+            BigDecimal balanceBefore = before.getOrDefault(pair, BigDecimal.ZERO);
+            BigDecimal balanceAfter = after.getOrDefault(pair, BigDecimal.ZERO);
+            if (balanceBefore.compareTo(balanceAfter) != 0) {
+                rewrites.add(BalanceRewrite.builder()
+                        .groupId(groupId)
+                        .debtorId(pair.get(0))
+                        .creditorId(pair.get(1))
+                        .balanceBefore(balanceBefore)
+                        .balanceAfter(balanceAfter)
+                        .planETag(planETag)
+                        .appliedAt(appliedAt)
+                        .build());
+            }
+        }
+        return rewrites;
+    }
+
+    // Key: lower user id, higher user id. Positive: lower user owes higher user
+    private static Map<List<Long>, BigDecimal> byUserPair(List<BalanceDelta> balances) {
+        Map<List<Long>, BigDecimal> byPair = new LinkedHashMap<>();
+        for (BalanceDelta balance : balances) {
+            boolean debtorIsLow = balance.getDebtorId() < balance.getCreditorId();
+            List<Long> pair = debtorIsLow
+                    ? List.of(balance.getDebtorId(), balance.getCreditorId())
+                    : List.of(balance.getCreditorId(), balance.getDebtorId());
+            byPair.merge(pair, debtorIsLow ? balance.getAmount() : balance.getAmount().negate(), BigDecimal::add);
+        }
+        return byPair;
+    }
+
+    private AtomicLong version(Long groupId) {
+        return versions.computeIfAbsent(groupId, id -> new AtomicLong());
+    }
+
+    private record Position(Long userId, BigDecimal amount) {
+    }
+
+    private record CachedPlan(long version, SettlementPlanDto plan) {
+    }
+}
@@ -3,13 +3,16 @@ package com.expenseshare.demo.services;
 import com.expenseshare.demo.dto.*;
 import com.expenseshare.demo.entity.*;
 import com.expenseshare.demo.enums.SettlementStatus;
+import com.expenseshare.demo.events.BalanceChangedEvent;
 import com.expenseshare.demo.exception.*;
 import com.expenseshare.demo.repository.*;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.OptimisticLockingFailureException;
-import org.springframework.retry.annotation.Backoff;
-import org.springframework.retry.annotation.Retryable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,13 +20,19 @@ import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class SettlementService {
 
@@ -32,10 +41,34 @@ public class SettlementService {
     private final SettlementDetailRepository settlementDetailRepository;
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Timer lockWaitTimer;
+    private final Counter concurrentSettlementCounter;
+
+    public SettlementService(SettlementRepository settlementRepository, UserBalanceRepository userBalanceRepository,
+                             SettlementDetailRepository settlementDetailRepository, UserRepository userRepository,
+                             GroupRepository groupRepository, ApplicationEventPublisher eventPublisher,
+                             MeterRegistry meterRegistry) {
+        this.settlementRepository = settlementRepository;
+        this.userBalanceRepository = userBalanceRepository;
+        this.settlementDetailRepository = settlementDetailRepository;
+        this.userRepository = userRepository;
+        this.groupRepository = groupRepository;
+        this.eventPublisher = eventPublisher;
+        this.lockWaitTimer = Timer.builder("expenseshare.balance.lock.wait")
+                .description("Time spent acquiring pessimistic locks on balances between two users in a group")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.concurrentSettlementCounter = Counter.builder("expenseshare.settlement.concurrent")
+                .description("Settlements rejected with ConcurrentSettlementException")
+                .register(meterRegistry);
+    }
 
+    /**
+     * One attempt; ShardedSettlementService retries conflicts off the shard worker
+     */
     @Transactional(isolation = Isolation.SERIALIZABLE)
-    @Retryable(value = {OptimisticLockingFailureException.class, ConcurrentSettlementException.class},
-            maxAttempts = 3, backoff = @Backoff(delay = 100))
+    @Timed(value = "expenseshare.settlement.settle", histogram = true)
     public SettlementResponseDto settleBalance(SettleBalanceRequestDto request) {
         log.info("Processing settlement: Payer={}, Receiver={}, Amount={}",
                 request.getPayerId(), request.getReceiverId(), request.getAmount());
@@ -96,6 +129,7 @@ public class SettlementService {
 
         } catch (OptimisticLockingFailureException e) {
             log.warn("Optimistic locking failure during settlement, will retry", e);
+            concurrentSettlementCounter.increment();
             throw new ConcurrentSettlementException("Concurrent settlement detected, please retry");
         } catch (Exception e) {
             log.error("Settlement failed", e);
@@ -103,7 +137,154 @@ public class SettlementService {
         }
     }
 
+    /**
+     * Settle many payer/receiver pairs in one transaction. The balance rows of the requested pairs are
+     * locked once, in primary key order, and every settlement is applied against that in-memory view,
+     * so later entries see the debits of earlier ones. Any failure rolls back the whole batch.
+     * Conflicts are retried by ShardedSettlementService.
+     */
+    @Transactional(isolation = Isolation.SERIALIZABLE)
+    @Timed(value = "expenseshare.settlement.batch", histogram = true)
+    public BatchSettlementResponseDto settleBatch(BatchSettlementRequestDto request) {
+        if (request.getSettlements() == null || request.getSettlements().isEmpty()) {
+            throw new InvalidSettlementException("At least one settlement is required");
+        }
+        log.info("Processing batch of {} settlements", request.getSettlements().size());
+
+        try {
+            request.getSettlements().forEach(this::validateSettlementRequest);
+
+            Set<Long> userIds = new LinkedHashSet<>();
+            Set<Long> payerIds = new LinkedHashSet<>();
+            Set<Long> receiverIds = new LinkedHashSet<>();
+            Set<String> pairKeys = new LinkedHashSet<>();
+            for (SettleBalanceRequestDto settlementRequest : request.getSettlements()) {
+                userIds.add(settlementRequest.getPayerId());
+                userIds.add(settlementRequest.getReceiverId());
+                payerIds.add(settlementRequest.getPayerId());
+                receiverIds.add(settlementRequest.getReceiverId());
+                pairKeys.add(UserBalanceRepository.pairKey(settlementRequest.getPayerId(), settlementRequest.getReceiverId()));
+            }
+            Map<Long, User> users = userRepository.findAllById(userIds).stream()
+                    .collect(Collectors.toMap(User::getId, Function.identity()));
+            for (Long userId : userIds) {
+                if (!users.containsKey(userId)) {
+                    throw new UserNotFoundException("User not found with ID: " + userId);
+                }
+            }
+
+            List<UserBalance> lockedBalances = lockWaitTimer.record(() ->
+                    userBalanceRepository.findBalancesForPairsForUpdate(payerIds, receiverIds, pairKeys));
+            Map<UserPair, List<UserBalance>> balancesByPair = lockedBalances.stream()
+                    .sorted(Comparator.comparing((UserBalance balance) -> balance.getGroup().getId()))
+                    .collect(Collectors.groupingBy(
+                            balance -> new UserPair(balance.getDebtor().getId(), balance.getCreditor().getId())));
+
+            List<Settlement> settlements = new ArrayList<>();
+            List<SettlementDetail> settlementDetails = new ArrayList<>();
+            // Identity set: UserBalance equals/hashCode include the amount being changed
+            Set<UserBalance> touchedBalances = Collections.newSetFromMap(new IdentityHashMap<>());
+
+            for (SettleBalanceRequestDto settlementRequest : request.getSettlements()) {
+                List<UserBalance> pairBalances = balancesByPair.getOrDefault(
+                        new UserPair(settlementRequest.getPayerId(), settlementRequest.getReceiverId()), List.of());
+
+                BigDecimal totalOwed = pairBalances.stream()
+                        .map(UserBalance::getAmount)
+                        .reduce(BigDecimal.ZERO, BigDecimal::add);
+                if (totalOwed.compareTo(BigDecimal.ZERO) <= 0) {
+                    throw new InsufficientBalanceException("No outstanding balance found between users "
+                            + settlementRequest.getPayerId() + " and " + settlementRequest.getReceiverId());
+                }
+                if (settlementRequest.getAmount().compareTo(totalOwed) > 0) {
+                    throw new GenericException("Excess settlement amount not supported");
+                }
+
+                Settlement settlement = Settlement.builder()
+                        .payer(users.get(settlementRequest.getPayerId()))
+                        .receiver(users.get(settlementRequest.getReceiverId()))
+                        .amount(settlementRequest.getAmount())
+                        .description(settlementRequest.getDescription())
+                        .status(SettlementStatus.COMPLETED)
+                        .settlementDate(LocalDateTime.now())
+                        .settlementDetails(new ArrayList<>())
+                        .build();
+                settlements.add(settlement);
+
+                BigDecimal amountToSettle = settlementRequest.getAmount();
+                for (UserBalance balance : pairBalances) {
+                    if (amountToSettle.compareTo(BigDecimal.ZERO) <= 0) {
+                        break;
+                    }
+                    BigDecimal balanceBefore = balance.getAmount();
+                    if (balanceBefore.compareTo(BigDecimal.ZERO) <= 0) {
+                        continue;
+                    }
+                    BigDecimal settledHere = amountToSettle.min(balanceBefore);
+                    BigDecimal balanceAfter = balanceBefore.subtract(settledHere);
+                    balance.setAmount(balanceAfter);
+                    touchedBalances.add(balance);
+                    eventPublisher.publishEvent(BalanceChangedEvent.of(balance, balanceBefore, balanceAfter));
+
+                    SettlementDetail detail = SettlementDetail.builder()
+                            .settlement(settlement)
+                            .group(balance.getGroup())
+                            .amountSettled(settledHere)
+                            .balanceBefore(balanceBefore)
+                            .balanceAfter(balanceAfter)
+                            .build();
+                    settlement.getSettlementDetails().add(detail);
+                    settlementDetails.add(detail);
+
+                    amountToSettle = amountToSettle.subtract(settledHere);
+                }
+            }
+
+            // Sequence ids + hibernate.jdbc.batch_size turn these into batched inserts/updates
+            settlementRepository.saveAll(settlements);
+            settlementDetailRepository.saveAll(settlementDetails);
+            userBalanceRepository.saveAll(touchedBalances);
+
+            List<SettlementResponseDto> responses = settlements.stream()
+                    .map(this::mapToSettlementResponse)
+                    .collect(Collectors.toList());
+
+            log.info("Batch settlement completed: {} settlements, {} balance rows updated",
+                    settlements.size(), touchedBalances.size());
+
+            return BatchSettlementResponseDto.builder()
+                    .settlementCount(responses.size())
+                    .totalAmountSettled(settlements.stream()
+                            .map(Settlement::getAmount)
+                            .reduce(BigDecimal.ZERO, BigDecimal::add))
+                    .settlements(responses)
+                    .build();
+
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Optimistic locking failure during batch settlement, will retry", e);
+            concurrentSettlementCounter.increment();
+            throw new ConcurrentSettlementException("Concurrent settlement detected, please retry");
+        }
+    }
+
+    /**
+     * Groups holding balances between the payer and receiver of each request, read without locks.
+     * Used to route settlements to the group's balance writer.
+     */
+    @Transactional(readOnly = true)
+    public Set<Long> findAffectedGroupIds(Collection<SettleBalanceRequestDto> requests) {
+        Set<Long> groupIds = new LinkedHashSet<>();
+        for (SettleBalanceRequestDto request : requests) {
+            if (request.getPayerId() != null && request.getReceiverId() != null) {
+                groupIds.addAll(userBalanceRepository.findGroupsWithBalancesBetweenUsers(
+                        request.getPayerId(), request.getReceiverId()));
+            }
+        }
+        return groupIds;
+    }
+
     @Transactional(readOnly = true)
+    @Timed(value = "expenseshare.balance.user.read", histogram = true)
     public UserBalanceResponseDto getUserBalance(Long userId) {
         log.info("Fetching user balance for user ID: {}", userId);
 
@@ -209,8 +390,7 @@ public class SettlementService {
         BigDecimal totalOwed = BigDecimal.ZERO;
 
         for (Long groupId : groupIds) {
-            List<UserBalance> balances = userBalanceRepository
-                    .findBalancesBetweenUsersInGroupForUpdate(payerId, receiverId, groupId);
+            List<UserBalance> balances = lockBalancesBetweenUsers(payerId, receiverId, groupId);
 
             for (UserBalance balance : balances) {
                 if (balance.getDebtor().getId().equals(payerId) &&
@@ -223,6 +403,11 @@ public class SettlementService {
         return totalOwed;
     }
 
+    private List<UserBalance> lockBalancesBetweenUsers(Long payerId, Long receiverId, Long groupId) {
+        return lockWaitTimer.record(() -> userBalanceRepository
+                .findBalancesBetweenUsersInGroupForUpdate(payerId, receiverId, groupId));
+    }
+
     // CRITICAL METHOD: Handles the atomic debit/credit operation
     private List<SettlementDetail> processSettlementAcrossGroups(
             Settlement settlement, List<Group> commonGroups, BigDecimal remainingAmount) {
@@ -236,11 +421,10 @@ public class SettlementService {
             }
 
             // Get balances for this group with pessimistic lock to prevent concurrent modifications
-            List<UserBalance> balances = userBalanceRepository
-                    .findBalancesBetweenUsersInGroupForUpdate(
-                            settlement.getPayer().getId(),
-                            settlement.getReceiver().getId(),
-                            group.getId());
+            List<UserBalance> balances = lockBalancesBetweenUsers(
+                    settlement.getPayer().getId(),
+                    settlement.getReceiver().getId(),
+                    group.getId());
 
             for (UserBalance balance : balances) {
                 if (amountToSettle.compareTo(BigDecimal.ZERO) <= 0) {
@@ -260,8 +444,15 @@ public class SettlementService {
                     // Reducing this balance = debiting payer + crediting receiver
                     balance.setAmount(balanceAfter);
 
-                    // If balance becomes zero, we could delete it, but keeping for audit trail
+                    // A balance that reaches zero stays until ArchiveScheduler moves it to the archive
                     userBalanceRepository.save(balance);
+                    eventPublisher.publishEvent(BalanceChangedEvent.builder()
+                            .groupId(group.getId())
+                            .debtorId(balance.getDebtor().getId())
+                            .creditorId(balance.getCreditor().getId())
+                            .previousAmount(balanceBefore)
+                            .newAmount(balanceAfter)
+                            .build());
 
                     // Create settlement detail for audit trail
                     SettlementDetail detail = SettlementDetail.builder()
@@ -277,8 +468,8 @@ public class SettlementService {
                     amountToSettle = amountToSettle.subtract(settlementForThisBalance);
 
                     log.debug("SETTLEMENT PROCESSED: Group={}, Payer={} paid {} to Receiver={}. Balance: {} -> {}",
-                            group.getName(), settlement.getPayer().getUserName(), settlementForThisBalance,
-                            settlement.getReceiver().getUserName(), balanceBefore, balanceAfter);
+                            group.getId(), settlement.getPayer().getId(), settlementForThisBalance,
+                            settlement.getReceiver().getId(), balanceBefore, balanceAfter);
                 }
             }
         }
@@ -314,5 +505,18 @@ public class SettlementService {
     public  List<Settlement> findSettlementsBetweenUsers(Long userId1, Long userId2){
         return settlementRepository.findSettlementsBetweenUsers(userId1, userId2);
     }
+
+    /**
+     * Mapped inside the read transaction, since the details are lazy and there is no open session in the view
+     */
+    @Transactional(readOnly = true)
+    public List<SettlementResponseDto> getSettlementsBetweenUsers(Long userId1, Long userId2) {
+        return settlementRepository.findSettlementsBetweenUsers(userId1, userId2).stream()
+                .map(this::mapToSettlementResponse)
+                .collect(Collectors.toList());
+    }
+
+    private record UserPair(Long debtorId, Long creditorId) {
+    }
 }
 
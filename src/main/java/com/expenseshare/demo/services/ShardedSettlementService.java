@@ -0,0 +1,40 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import com.expenseshare.demo.dto.BatchSettlementRequestDto;
+import com.expenseshare.demo.dto.BatchSettlementResponseDto;
+import com.expenseshare.demo.dto.SettleBalanceRequestDto;
+import com.expenseshare.demo.dto.SettlementResponseDto;
+import com.expenseshare.demo.exception.ConcurrentSettlementException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.retry.annotation.Backoff;
+import org.springframework.retry.annotation.Retryable;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+
+/**
+ * Runs settlements on the worker that owns their groups and retries conflicts from the calling
+ * thread. Each attempt is a fresh hop onto the shard, so the backoff between attempts does not
+ * hold up the other groups queued on that worker.
+ */
+@Service
+@RequiredArgsConstructor
+public class ShardedSettlementService {
+
+    private final SettlementService settlementService;
+    private final GroupShardedExecutor groupShardedExecutor;
+
+    @Retryable(value = {OptimisticLockingFailureException.class, ConcurrentSettlementException.class},
+            maxAttempts = 3, backoff = @Backoff(delay = 100), label = "settlement.settle")
+    public SettlementResponseDto settleBalance(Collection<Long> groupIds, SettleBalanceRequestDto request) {
+        return groupShardedExecutor.execute(groupIds, () -> settlementService.settleBalance(request));
+    }
+
+    @Retryable(value = {OptimisticLockingFailureException.class, ConcurrentSettlementException.class},
+            maxAttempts = 3, backoff = @Backoff(delay = 100), label = "settlement.batch")
+    public BatchSettlementResponseDto settleBatch(Collection<Long> groupIds, BatchSettlementRequestDto request) {
+        return groupShardedExecutor.execute(groupIds, () -> settlementService.settleBatch(request));
+    }
+}
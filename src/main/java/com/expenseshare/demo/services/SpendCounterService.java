@@ -0,0 +1,143 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.GroupSpendTotalsDto;
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.entity.SpendCounter;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.SpendCounterRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Running spend totals per group and per user in a group, updated in the same transaction as the
+ * expense change. Each change goes to one randomly chosen stripe, so concurrent expenses in a group
+ * mostly update different rows; a read sums the stripes in one query.
+ */
+@Service
+@Slf4j
+public class SpendCounterService {
+
+    // userId of the counter holding the group's own total
+    public static final long GROUP_TOTAL = 0L;
+
+    private final SpendCounterRepository spendCounterRepository;
+    private final GroupRepository groupRepository;
+    private final TransactionTemplate stripeCreation;
+    private final int stripes;
+
+    public SpendCounterService(SpendCounterRepository spendCounterRepository, GroupRepository groupRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${expenseshare.counters.stripes:8}") int stripes) {
+        this.spendCounterRepository = spendCounterRepository;
+        this.groupRepository = groupRepository;
+        this.stripeCreation = new TransactionTemplate(transactionManager);
+        this.stripeCreation.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.stripes = Math.max(1, stripes);
+    }
+
+    /**
+     * Runs synchronously inside the transaction that recorded, changed or deleted the expense
+     */
+    @EventListener
+    @Transactional
+    public void onExpenseSpending(ExpenseSpendingEvent event) {
+        // Sorted by user so two writers on the same stripe lock rows in the same order
+        Map<Long, BigDecimal[]> changes = new TreeMap<>();
+        changes.put(GROUP_TOTAL, new BigDecimal[]{event.getAmount(), event.getAmount()});
+        changes.computeIfAbsent(event.getPayerId(), userId -> zero())[0] = event.getAmount();
+        event.getShares().forEach((userId, share) -> changes.computeIfAbsent(userId, id -> zero())[1] = share);
+
+        int stripe = ThreadLocalRandom.current().nextInt(stripes);
+        changes.forEach((userId, amounts) -> {
+            // The group total and the payer count the expense; share holders only add their share
+            long count = userId == GROUP_TOTAL || userId.equals(event.getPayerId()) ? event.getExpenseCount() : 0;
+            add(event.getGroupId(), userId, stripe, amounts[0], amounts[1], count);
+        });
+    }
+
+    @Transactional(readOnly = true)
+    public GroupSpendTotalsDto getGroupTotals(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        BigDecimal totalSpent = BigDecimal.ZERO;
+        long expenseCount = 0;
+        List<MemberSpendingDto> members = new ArrayList<>();
+        for (MemberSpendingDto counter : spendCounterRepository.sumByGroupId(groupId)) {
+            if (counter.getUserId() == GROUP_TOTAL) {
+                totalSpent = counter.getPaidAmount();
+                expenseCount = counter.getExpenseCount();
+            } else {
+                members.add(counter);
+            }
+        }
+        return GroupSpendTotalsDto.builder()
+                .groupId(groupId)
+                .totalSpent(totalSpent)
+                .expenseCount(expenseCount)
+                .members(members)
+                .build();
+    }
+
+    @Transactional(readOnly = true)
+    public MemberSpendingDto getMemberTotals(Long groupId, Long userId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return spendCounterRepository.sumByGroupIdAndUserId(groupId, userId)
+                .orElseGet(() -> new MemberSpendingDto(userId, BigDecimal.ZERO, BigDecimal.ZERO, 0L));
+    }
+
+    private void add(Long groupId, Long userId, int stripe, BigDecimal paid, BigDecimal share, long count) {
+        if (spendCounterRepository.addToStripe(groupId, userId, stripe, paid, share, count) > 0) {
+            return;
+        }
+        createStripes(groupId, userId);
+        if (spendCounterRepository.addToStripe(groupId, userId, stripe, paid, share, count) == 0) {
+            throw new IllegalStateException("Spend counter stripe " + stripe + " missing for group " + groupId
+                    + " and user " + userId);
+        }
+    }
+
+    /**
+     * Creates all stripes of a counter in their own committed transaction, so the insert never
+     * fails the expense; if another writer created them first the duplicate is ignored
+     */
+    private void createStripes(Long groupId, Long userId) {
+        try {
+            stripeCreation.executeWithoutResult(status -> spendCounterRepository.saveAll(IntStream.range(0, stripes)
+                    .mapToObj(stripe -> SpendCounter.builder()
+                            .groupId(groupId)
+                            .userId(userId)
+                            .stripe(stripe)
+                            .paidAmount(BigDecimal.ZERO)
+                            .shareAmount(BigDecimal.ZERO)
+                            .build())
+                    .toList()));
+            log.debug("Created {} spend counter stripes for group {} user {}", stripes, groupId, userId);
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Spend counter stripes for group {} user {} were created concurrently", groupId, userId);
+        }
+    }
+
+    private static BigDecimal[] zero() {
+        return new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO};
+    }
+}
@@ -0,0 +1,183 @@
+package com.expenseshare.demo.services;
+
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.dto.SpendingBucketDto;
+import com.expenseshare.demo.entity.SpendingRollup;
+import com.expenseshare.demo.enums.RollupGranularity;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.exception.GenericException;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.repository.ExpenseRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.SpendingRollupRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Spending analytics served from daily and monthly rollups only; raw expenses are read solely
+ * when a group's rollups are rebuilt.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpendingAnalyticsService {
+
+    private static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    private static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final SpendingRollupRepository spendingRollupRepository;
+    private final ExpenseRepository expenseRepository;
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+
+    public static RollupGranularity parseGranularity(String granularity) {
+        try {
+            return RollupGranularity.valueOf(granularity.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new GenericException("Invalid granularity. Must be DAILY or MONTHLY");
+        }
+    }
+
+    /**
+     * Adds one expense's spending to the day and month buckets of the payer and every share holder.
+     * Joins the expense write's transaction, which runs on the group's shard, so a bucket's first
+     * insert never races another.
+     */
+    @Transactional
+    @Timed("expenseshare.analytics.rollup.apply")
+    public void applySpending(ExpenseSpendingEvent event) {
+        Map<Long, SpendingRollup> changes = new LinkedHashMap<>();
+        SpendingRollup payer = changes.computeIfAbsent(event.getPayerId(), userId -> emptyRollup(event.getGroupId(), userId));
+        payer.setPaidAmount(event.getAmount());
+        payer.setExpenseCount(event.getExpenseCount());
+        event.getShares().forEach((userId, share) ->
+                changes.computeIfAbsent(userId, id -> emptyRollup(event.getGroupId(), id)).setShareAmount(share));
+
+        for (RollupGranularity granularity : RollupGranularity.values()) {
+            LocalDate bucketStart = granularity.bucketStart(event.getDate());
+            for (SpendingRollup change : changes.values()) {
+                int updated = spendingRollupRepository.addToBucket(event.getGroupId(), change.getUserId(), granularity,
+                        bucketStart, change.getPaidAmount(), change.getShareAmount(), change.getExpenseCount());
+                if (updated == 0) {
+                    spendingRollupRepository.save(SpendingRollup.builder()
+                            .groupId(event.getGroupId())
+                            .userId(change.getUserId())
+                            .granularity(granularity)
+                            .bucketStart(bucketStart)
+                            .paidAmount(change.getPaidAmount())
+                            .shareAmount(change.getShareAmount())
+                            .expenseCount(change.getExpenseCount())
+                            .build());
+                }
+            }
+        }
+    }
+
+    /**
+     * Recomputes a group's rollups from its expenses, e.g. after data was loaded outside the service.
+     * Callers run this on the group's shard so no expense write commits halfway through.
+     */
+    @Transactional
+    @Timed("expenseshare.analytics.rollup.rebuild")
+    public int rebuildGroup(Long groupId) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        spendingRollupRepository.deleteByGroupId(groupId);
+
+        Map<List<Object>, SpendingRollup> rollups = new LinkedHashMap<>();
+        for (Object[] row : expenseRepository.sumPaidByPayerAndDay(groupId)) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                SpendingRollup rollup = rollupFor(rollups, groupId, (Long) row[0], granularity, (LocalDate) row[1]);
+                rollup.setPaidAmount(rollup.getPaidAmount().add((BigDecimal) row[2]));
+                rollup.setExpenseCount(rollup.getExpenseCount() + (Long) row[3]);
+            }
+        }
+        for (Object[] row : expenseRepository.sumSharesByUserAndDay(groupId)) {
+            for (RollupGranularity granularity : RollupGranularity.values()) {
+                SpendingRollup rollup = rollupFor(rollups, groupId, (Long) row[0], granularity, (LocalDate) row[1]);
+                rollup.setShareAmount(rollup.getShareAmount().add((BigDecimal) row[2]));
+            }
+        }
+        spendingRollupRepository.saveAll(rollups.values());
+        log.info("Rebuilt {} spending rollups for group {}", rollups.size(), groupId);
+        return rollups.size();
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendingBucketDto> getGroupSpending(Long groupId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return spendingRollupRepository.findGroupBuckets(groupId, granularity, start(granularity, from), end(to));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendingBucketDto> getGroupMemberSpending(Long groupId, Long userId, RollupGranularity granularity,
+                                                         LocalDate from, LocalDate to) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return spendingRollupRepository.findGroupMemberBuckets(groupId, userId, granularity,
+                start(granularity, from), end(to));
+    }
+
+    /**
+     * Totals per member over the months overlapping the range
+     */
+    @Transactional(readOnly = true)
+    public List<MemberSpendingDto> getGroupMemberTotals(Long groupId, LocalDate from, LocalDate to) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new GroupNotFoundException("Group not found with id: " + groupId);
+        }
+        return spendingRollupRepository.findMemberTotals(groupId, start(RollupGranularity.MONTHLY, from), end(to));
+    }
+
+    @Transactional(readOnly = true)
+    public List<SpendingBucketDto> getUserSpending(Long userId, RollupGranularity granularity, LocalDate from, LocalDate to) {
+        if (!userRepository.existsById(userId)) {
+            throw new UserNotFoundException("User not found with id: " + userId);
+        }
+        return spendingRollupRepository.findUserBuckets(userId, granularity, start(granularity, from), end(to));
+    }
+
+    // A range starting mid-month still includes that month's bucket
+    private LocalDate start(RollupGranularity granularity, LocalDate from) {
+        return from != null ? granularity.bucketStart(from) : EARLIEST;
+    }
+
+    private LocalDate end(LocalDate to) {
+        return to != null ? to : LATEST;
+    }
+
+    private SpendingRollup rollupFor(Map<List<Object>, SpendingRollup> rollups, Long groupId, Long userId,
+                                     RollupGranularity granularity, LocalDate day) {
+        LocalDate bucketStart = granularity.bucketStart(day);
+        return rollups.computeIfAbsent(List.of(userId, granularity, bucketStart), key -> {
+            SpendingRollup rollup = emptyRollup(groupId, userId);
+            rollup.setGranularity(granularity);
+            rollup.setBucketStart(bucketStart);
+            return rollup;
+        });
+    }
+
+    private SpendingRollup emptyRollup(Long groupId, Long userId) {
+        return SpendingRollup.builder()
+                .groupId(groupId)
+                .userId(userId)
+                .paidAmount(BigDecimal.ZERO)
+                .shareAmount(BigDecimal.ZERO)
+                .build();
+    }
+}
@@ -4,17 +4,27 @@ import com.expenseshare.demo.dto.*;
 import com.expenseshare.demo.entity.Group;
 import com.expenseshare.demo.entity.User;
 import com.expenseshare.demo.enums.Role;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import com.expenseshare.demo.events.UserCreatedEvent;
 import com.expenseshare.demo.exception.DuplicateResourceException;
 import com.expenseshare.demo.exception.ResourceNotFoundException;
 import com.expenseshare.demo.mapper.GroupMapper;
+import com.expenseshare.demo.readmodel.DirectoryIndex;
 import com.expenseshare.demo.repository.GroupRepository;
 import com.expenseshare.demo.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
@@ -23,11 +33,16 @@ public class UserGroupService {
 
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
+    private final DirectoryIndex directoryIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserGroupService(UserRepository userRepository, GroupRepository groupRepository){
+    public UserGroupService(UserRepository userRepository, GroupRepository groupRepository,
+                            DirectoryIndex directoryIndex, ApplicationEventPublisher eventPublisher){
 
         this.userRepository = userRepository;
         this.groupRepository = groupRepository;
+        this.directoryIndex = directoryIndex;
+        this.eventPublisher = eventPublisher;
     }
     public User createUser(UserDto request) {
         log.info("Creating user with username: {}", request.getUserName());
@@ -50,6 +65,7 @@ public class UserGroupService {
                 .build();
 
         User savedUser = userRepository.save(user);
+        eventPublisher.publishEvent(UserCreatedEvent.of(savedUser));
         log.info("User created successfully with ID: {}", savedUser.getId());
         return savedUser;
     }
@@ -63,6 +79,10 @@ public class UserGroupService {
         }
 
         Group savedGroup = groupRepository.save(GroupMapper.INSTANCE.toEntity(groupDto));
+        eventPublisher.publishEvent(GroupChangedEvent.builder()
+                .groupId(savedGroup.getId())
+                .name(savedGroup.getName())
+                .build());
         log.info("Group created successfully with ID: {}", savedGroup.getId());
         return savedGroup;
     }
@@ -112,6 +132,70 @@ public class UserGroupService {
                 .orElseThrow(() -> new ResourceNotFoundException("Group not found with ID: " + id));
     }
 
+    @Transactional(readOnly = true)
+    public PageResponseDto<UserSummaryDto> getUsers(Pageable pageable) {
+        log.info("Fetching users page {} of size {}", pageable.getPageNumber(), pageable.getPageSize());
+        return PageResponseDto.of(userRepository.findUserSummaries(pageable));
+    }
+
+    @Transactional(readOnly = true)
+    public PageResponseDto<GroupSummaryDto> getGroups(Pageable pageable) {
+        log.info("Fetching groups page {} of size {}", pageable.getPageNumber(), pageable.getPageSize());
+        return PageResponseDto.of(groupRepository.findGroupSummaries(pageable));
+    }
+
+    /**
+     * Users whose user name, email or names start with the prefix, in index order. Only the first
+     * expenseshare.search.max-matches are kept; totalTruncated reports when there were more.
+     */
+    @Transactional(readOnly = true)
+    public PageResponseDto<UserSummaryDto> searchUsers(String prefix, Pageable pageable) {
+        log.info("Searching users by prefix '{}', page {}", prefix, pageable.getPageNumber());
+        DirectoryIndex.Matches matches = directoryIndex.matchUsers(prefix);
+        List<Long> pageIds = pageOf(matches.ids(), pageable);
+        Map<Long, UserSummaryDto> users = pageIds.isEmpty() ? Map.of()
+                : userRepository.findSummariesByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(UserSummaryDto::getId, Function.identity()));
+        return pageResponse(pageIds, users, pageable, matches);
+    }
+
+    /**
+     * Groups whose name starts with the prefix, ordered by name, capped like searchUsers
+     */
+    @Transactional(readOnly = true)
+    public PageResponseDto<GroupSummaryDto> searchGroups(String prefix, Pageable pageable) {
+        log.info("Searching groups by prefix '{}', page {}", prefix, pageable.getPageNumber());
+        DirectoryIndex.Matches matches = directoryIndex.matchGroups(prefix);
+        List<Long> pageIds = pageOf(matches.ids(), pageable);
+        Map<Long, GroupSummaryDto> groups = pageIds.isEmpty() ? Map.of()
+                : groupRepository.findSummariesByIdIn(pageIds).stream()
+                        .collect(Collectors.toMap(GroupSummaryDto::getId, Function.identity()));
+        return pageResponse(pageIds, groups, pageable, matches);
+    }
+
+    @Transactional(readOnly = true)
+    public UserSummaryDto getUserSummary(Long id) {
+        log.info("Fetching user summary with ID: {}", id);
+        return userRepository.findSummaryById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + id));
+    }
+
+    /**
+     * Group with its members, read as two column projections instead of the entity graph
+     */
+    @Transactional(readOnly = true)
+    public GroupDetailDto getGroupDetails(Long id) {
+        log.info("Fetching group details with ID: {}", id);
+        GroupSummaryDto group = groupRepository.findSummaryById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Group not found with ID: " + id));
+        return GroupDetailDto.builder()
+                .id(group.getId())
+                .name(group.getName())
+                .memberCount(group.getMemberCount())
+                .members(userRepository.findSummariesByGroupId(id))
+                .build();
+    }
+
     public void removeUserFromGroup(Long userId, Long groupId) {
         log.info("Removing user ID {} from group ID {}", userId, groupId);
 
@@ -128,12 +212,24 @@ public class UserGroupService {
 
     public Group modifyGroup(GroupDto groupDto) {
         Optional<Group> group = groupRepository.findById(groupDto.getId());
+        String previousName = group.map(Group::getName).orElse(null);
         group.ifPresent(value -> value.setName(groupDto.getName()));
-        return  groupRepository.save(group.get());
+        Group savedGroup = groupRepository.save(group.get());
+        eventPublisher.publishEvent(GroupChangedEvent.builder()
+                .groupId(savedGroup.getId())
+                .previousName(previousName)
+                .name(savedGroup.getName())
+                .build());
+        return savedGroup;
     }
 
     public void deleteGroup(Long id) {
+        Optional<String> name = groupRepository.findNameById(id);
         groupRepository.deleteById(id);
+        name.ifPresent(previousName -> eventPublisher.publishEvent(GroupChangedEvent.builder()
+                .groupId(id)
+                .previousName(previousName)
+                .build()));
     }
 
     public UserResponseDto updateUserRole(UpdateUserRoleDto updateUserRoleDto, User updateUser) {
@@ -143,14 +239,30 @@ public class UserGroupService {
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with ID: " + updateUserRoleDto.getUserId()));
 
         Role oldRole = user.getRole();
-        user.setRole(updateUser.getRole());
+        user.setRole(updateUserRoleDto.getRole());
         User updatedUser = userRepository.save(user);
 
-        log.info("User {} role updated from {} to {}",
-                user.getUserName(), oldRole, updateUserRoleDto.getRole());
+        log.info("User {} role updated from {} to {} by user {}",
+                user.getUserName(), oldRole, updateUserRoleDto.getRole(), updateUser.getId());
         return convertToUserResponse(updatedUser);
     }
 
+    private static List<Long> pageOf(List<Long> ids, Pageable pageable) {
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        int to = Math.min(from + pageable.getPageSize(), ids.size());
+        return ids.subList(from, to);
+    }
+
+    // Keeps the index order; rows deleted since they were indexed are dropped
+    private static <T> PageResponseDto<T> pageResponse(List<Long> pageIds, Map<Long, T> rows, Pageable pageable,
+                                                       DirectoryIndex.Matches matches) {
+        List<T> content = pageIds.stream()
+                .map(rows::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return PageResponseDto.of(new PageImpl<>(content, pageable, matches.ids().size()), matches.truncated());
+    }
+
     private UserResponseDto convertToUserResponse(User user) {
         return UserResponseDto.builder()
                 .id(user.getId())
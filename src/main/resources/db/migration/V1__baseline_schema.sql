@@ -0,0 +1,199 @@
+-- Baseline schema, matching the JPA mappings (validated with spring.jpa.hibernate.ddl-auto=validate)
+
+-- Sequence-generated ids use the pooled optimizer, so increments match allocationSize
+CREATE SEQUENCE group_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE expense_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE expense_share_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE settlement_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE settlement_detail_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE recurring_expense_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE spend_counter_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE spending_rollup_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE users (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    user_name VARCHAR(20) NOT NULL,
+    email_id VARCHAR(50) NOT NULL,
+    password VARCHAR(120),
+    google_id VARCHAR(255),
+    first_name VARCHAR(255),
+    last_name VARCHAR(255),
+    role ENUM('USER', 'ADMIN') NOT NULL,
+    provider VARCHAR(255),
+    provider_id VARCHAR(255),
+    created_at TIMESTAMP(6),
+    updated_at TIMESTAMP(6),
+    CONSTRAINT uk_users_user_name UNIQUE (user_name),
+    CONSTRAINT uk_users_email_id UNIQUE (email_id)
+);
+CREATE INDEX idx_users_first_name ON users (first_name);
+CREATE INDEX idx_users_last_name ON users (last_name);
+
+CREATE TABLE groups (
+    id BIGINT NOT NULL PRIMARY KEY,
+    name VARCHAR(255)
+);
+CREATE INDEX idx_groups_name ON groups (name);
+
+CREATE TABLE group_members (
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    PRIMARY KEY (group_id, user_id),
+    CONSTRAINT fk_group_members_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_group_members_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE expenses (
+    id BIGINT NOT NULL PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    group_id BIGINT NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    split_type ENUM('EQUAL', 'UNEQUAL'),
+    created_at TIMESTAMP(6),
+    CONSTRAINT fk_expenses_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_expenses_paid_by FOREIGN KEY (paid_by_user_id) REFERENCES users (id)
+);
+
+CREATE TABLE expense_shares (
+    id BIGINT NOT NULL PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    share NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT fk_expense_shares_expense FOREIGN KEY (expense_id) REFERENCES expenses (id),
+    CONSTRAINT fk_expense_shares_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE TABLE user_balances (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    debtor_id BIGINT NOT NULL,
+    creditor_id BIGINT NOT NULL,
+    amount NUMERIC(12, 2) NOT NULL,
+    last_updated TIMESTAMP(6),
+    version BIGINT,
+    CONSTRAINT uk_user_balances_pair UNIQUE (group_id, debtor_id, creditor_id),
+    CONSTRAINT fk_user_balances_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_user_balances_debtor FOREIGN KEY (debtor_id) REFERENCES users (id),
+    CONSTRAINT fk_user_balances_creditor FOREIGN KEY (creditor_id) REFERENCES users (id)
+);
+
+CREATE TABLE settlements (
+    id BIGINT NOT NULL PRIMARY KEY,
+    payer_id BIGINT NOT NULL,
+    receiver_id BIGINT NOT NULL,
+    amount NUMERIC(12, 2) NOT NULL,
+    description VARCHAR(255),
+    status ENUM('COMPLETED', 'FAILED', 'PARTIAL'),
+    settlement_date TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT fk_settlements_payer FOREIGN KEY (payer_id) REFERENCES users (id),
+    CONSTRAINT fk_settlements_receiver FOREIGN KEY (receiver_id) REFERENCES users (id)
+);
+
+CREATE TABLE settlement_details (
+    id BIGINT NOT NULL PRIMARY KEY,
+    settlement_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    amount_settled NUMERIC(12, 2) NOT NULL,
+    balance_before NUMERIC(12, 2) NOT NULL,
+    balance_after NUMERIC(12, 2) NOT NULL,
+    CONSTRAINT fk_settlement_details_settlement FOREIGN KEY (settlement_id) REFERENCES settlements (id),
+    CONSTRAINT fk_settlement_details_group FOREIGN KEY (group_id) REFERENCES groups (id)
+);
+
+CREATE TABLE recurring_expenses (
+    id BIGINT NOT NULL PRIMARY KEY,
+    description VARCHAR(255) NOT NULL,
+    amount NUMERIC(10, 2) NOT NULL,
+    group_id BIGINT NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    split_type ENUM('EQUAL', 'UNEQUAL') NOT NULL,
+    frequency ENUM('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY') NOT NULL,
+    next_occurrence DATE NOT NULL,
+    end_date DATE,
+    active BOOLEAN NOT NULL,
+    version BIGINT,
+    created_at TIMESTAMP(6),
+    CONSTRAINT fk_recurring_expenses_group FOREIGN KEY (group_id) REFERENCES groups (id),
+    CONSTRAINT fk_recurring_expenses_paid_by FOREIGN KEY (paid_by_user_id) REFERENCES users (id)
+);
+CREATE INDEX idx_recurring_expenses_due ON recurring_expenses (active, next_occurrence);
+
+CREATE TABLE recurring_expense_shares (
+    recurring_expense_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    share NUMERIC(10, 2) NOT NULL,
+    CONSTRAINT fk_recurring_expense_shares_expense FOREIGN KEY (recurring_expense_id)
+        REFERENCES recurring_expenses (id)
+);
+
+CREATE TABLE idempotency_keys (
+    id VARCHAR(255) NOT NULL PRIMARY KEY,
+    request_hash VARCHAR(64) NOT NULL,
+    status ENUM('IN_PROGRESS', 'COMPLETED') NOT NULL,
+    response_status INTEGER,
+    response_body CLOB,
+    created_at TIMESTAMP(6) NOT NULL,
+    expires_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE spend_counters (
+    id BIGINT NOT NULL PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    stripe INTEGER NOT NULL,
+    paid_amount NUMERIC(14, 2) NOT NULL,
+    share_amount NUMERIC(14, 2) NOT NULL,
+    expense_count BIGINT NOT NULL,
+    CONSTRAINT uk_spend_counters_stripe UNIQUE (group_id, user_id, stripe)
+);
+
+CREATE TABLE spending_rollups (
+    id BIGINT NOT NULL PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    granularity ENUM('DAILY', 'MONTHLY') NOT NULL,
+    bucket_start DATE NOT NULL,
+    paid_amount NUMERIC(14, 2) NOT NULL,
+    share_amount NUMERIC(14, 2) NOT NULL,
+    expense_count BIGINT NOT NULL,
+    CONSTRAINT uk_spending_rollups_bucket UNIQUE (group_id, user_id, granularity, bucket_start)
+);
+CREATE INDEX idx_spending_rollups_user ON spending_rollups (user_id, granularity, bucket_start);
+
+-- Archive tables hold plain ids, with no foreign keys into the hot tables
+CREATE TABLE archived_user_balances (
+    id BIGINT NOT NULL PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    debtor_id BIGINT NOT NULL,
+    creditor_id BIGINT NOT NULL,
+    amount NUMERIC(12, 2) NOT NULL,
+    last_updated TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX idx_archived_user_balances_group ON archived_user_balances (group_id);
+
+CREATE TABLE archived_settlements (
+    id BIGINT NOT NULL PRIMARY KEY,
+    payer_id BIGINT NOT NULL,
+    receiver_id BIGINT NOT NULL,
+    amount NUMERIC(12, 2) NOT NULL,
+    description VARCHAR(255),
+    status ENUM('COMPLETED', 'FAILED', 'PARTIAL'),
+    settlement_date TIMESTAMP(6) NOT NULL,
+    created_at TIMESTAMP(6),
+    archived_at TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX idx_archived_settlements_payer ON archived_settlements (payer_id);
+CREATE INDEX idx_archived_settlements_receiver ON archived_settlements (receiver_id);
+
+CREATE TABLE archived_settlement_details (
+    id BIGINT NOT NULL PRIMARY KEY,
+    settlement_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    amount_settled NUMERIC(12, 2) NOT NULL,
+    balance_before NUMERIC(12, 2) NOT NULL,
+    balance_after NUMERIC(12, 2) NOT NULL
+);
+CREATE INDEX idx_archived_settlement_details_settlement ON archived_settlement_details (settlement_id);
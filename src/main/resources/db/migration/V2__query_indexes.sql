@@ -0,0 +1,23 @@
+-- Indexes for the lookups the repositories run on every request or job (H2 already indexes
+-- primary keys, unique constraints and foreign keys)
+
+-- Principal resolution on login and for bearer tokens
+CREATE INDEX idx_users_provider ON users (provider, provider_id);
+
+-- Balances between two users across groups, and all balances of one user as debtor or creditor
+CREATE INDEX idx_user_balances_debtor_creditor ON user_balances (debtor_id, creditor_id);
+CREATE INDEX idx_user_balances_creditor ON user_balances (creditor_id);
+-- Archive job: settled rows older than the grace period
+CREATE INDEX idx_user_balances_settled ON user_balances (amount, last_updated);
+
+-- A user's settlement history, newest first, and the archive cutoff scan
+CREATE INDEX idx_settlements_payer_date ON settlements (payer_id, settlement_date);
+CREATE INDEX idx_settlements_receiver_date ON settlements (receiver_id, settlement_date);
+CREATE INDEX idx_settlements_date ON settlements (settlement_date);
+
+-- Group expense listings and the per-day analytics rebuild
+CREATE INDEX idx_expenses_group_created ON expenses (group_id, created_at);
+CREATE INDEX idx_expense_shares_user ON expense_shares (user_id, expense_id);
+
+-- Purge of expired idempotency keys
+CREATE INDEX idx_idempotency_keys_expires ON idempotency_keys (expires_at);
@@ -0,0 +1,4 @@
+-- Recurring occurrences are counted from the first one, so month-end dates do not drift
+ALTER TABLE recurring_expenses ADD COLUMN start_date DATE;
+UPDATE recurring_expenses SET start_date = next_occurrence;
+ALTER TABLE recurring_expenses ALTER COLUMN start_date SET NOT NULL;
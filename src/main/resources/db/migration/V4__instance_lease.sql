@@ -0,0 +1,6 @@
+-- Held by the one application instance allowed to run against this database
+CREATE TABLE instance_leases (
+    id VARCHAR(64) NOT NULL PRIMARY KEY,
+    owner VARCHAR(128) NOT NULL,
+    heartbeat_at TIMESTAMP(6) NOT NULL
+);
@@ -0,0 +1,15 @@
+-- Balances replaced by POST /balances/group/{id}/plan/apply, one row per user pair that changed.
+-- No foreign keys, so the audit outlives the group and its users.
+CREATE SEQUENCE balance_rewrite_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE balance_rewrites (
+    id BIGINT NOT NULL PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    debtor_id BIGINT NOT NULL,
+    creditor_id BIGINT NOT NULL,
+    balance_before NUMERIC(12, 2) NOT NULL,
+    balance_after NUMERIC(12, 2) NOT NULL,
+    plan_etag VARCHAR(64) NOT NULL,
+    applied_at TIMESTAMP(6) NOT NULL
+);
+CREATE INDEX idx_balance_rewrites_group ON balance_rewrites (group_id, applied_at);
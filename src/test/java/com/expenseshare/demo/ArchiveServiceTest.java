@@ -0,0 +1,163 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.SettlementResponseDto;
+import com.expenseshare.demo.entity.ArchivedSettlement;
+import com.expenseshare.demo.entity.ArchivedSettlementDetail;
+import com.expenseshare.demo.enums.SettlementStatus;
+import com.expenseshare.demo.exception.ResourceNotFoundException;
+import com.expenseshare.demo.repository.ArchivedSettlementDetailRepository;
+import com.expenseshare.demo.repository.ArchivedSettlementRepository;
+import com.expenseshare.demo.repository.ArchivedUserBalanceRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.SettlementDetailRepository;
+import com.expenseshare.demo.repository.SettlementRepository;
+import com.expenseshare.demo.repository.UserBalanceRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import com.expenseshare.demo.services.ArchiveService;
+import com.expenseshare.demo.services.SettlementService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ArchiveServiceTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @Mock
+    private SettlementRepository settlementRepository;
+
+    @Mock
+    private SettlementDetailRepository settlementDetailRepository;
+
+    @Mock
+    private ArchivedUserBalanceRepository archivedUserBalanceRepository;
+
+    @Mock
+    private ArchivedSettlementRepository archivedSettlementRepository;
+
+    @Mock
+    private ArchivedSettlementDetailRepository archivedSettlementDetailRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private SettlementService settlementService;
+
+    @InjectMocks
+    private ArchiveService archiveService;
+
+    private final LocalDateTime cutoff = LocalDateTime.of(2025, 10, 1, 0, 0);
+
+    @Test
+    void archiveZeroBalances_CopiesLockedRowsBeforeDeletingThem() {
+        // Arrange
+        when(userBalanceRepository.findZeroBalanceIdsForUpdate(eq(List.of(1L)), eq(cutoff), any()))
+                .thenReturn(List.of(4L, 9L));
+        when(userBalanceRepository.deleteZeroBalances(List.of(4L, 9L))).thenReturn(2);
+
+        // Act
+        int archived = archiveService.archiveZeroBalances(List.of(1L), cutoff, 500);
+
+        // Assert
+        assertEquals(2, archived);
+        InOrder inOrder = inOrder(archivedUserBalanceRepository, userBalanceRepository);
+        inOrder.verify(archivedUserBalanceRepository).copyFromUserBalances(eq(List.of(4L, 9L)), any(LocalDateTime.class));
+        inOrder.verify(userBalanceRepository).deleteZeroBalances(List.of(4L, 9L));
+    }
+
+    @Test
+    void archiveZeroBalances_NothingSettled_WritesNothing() {
+        // Arrange
+        when(userBalanceRepository.findZeroBalanceIdsForUpdate(anyCollection(), any(), any())).thenReturn(List.of());
+
+        // Act
+        int archived = archiveService.archiveZeroBalances(List.of(1L), cutoff, 500);
+
+        // Assert
+        assertEquals(0, archived);
+        verifyNoInteractions(archivedUserBalanceRepository);
+        verify(userBalanceRepository, never()).deleteZeroBalances(any());
+    }
+
+    @Test
+    void archiveSettlements_MovesDetailsWithTheirSettlements() {
+        // Arrange
+        when(settlementRepository.findIdsSettledBefore(eq(cutoff), any())).thenReturn(List.of(3L));
+
+        // Act
+        int archived = archiveService.archiveSettlements(cutoff, 500);
+
+        // Assert
+        assertEquals(1, archived);
+        InOrder inOrder = inOrder(archivedSettlementRepository, archivedSettlementDetailRepository,
+                settlementDetailRepository, settlementRepository);
+        inOrder.verify(archivedSettlementRepository).copyFromSettlements(eq(List.of(3L)), any(LocalDateTime.class));
+        inOrder.verify(archivedSettlementDetailRepository).copyFromSettlementDetails(List.of(3L));
+        inOrder.verify(settlementDetailRepository).deleteBySettlementIds(List.of(3L));
+        inOrder.verify(settlementRepository).deleteByIds(List.of(3L));
+    }
+
+    @Test
+    void getSettlementForAudit_ArchivedSettlement_ReturnsArchivedDetails() {
+        // Arrange
+        when(settlementRepository.findById(3L)).thenReturn(Optional.empty());
+        when(archivedSettlementRepository.findById(3L)).thenReturn(Optional.of(ArchivedSettlement.builder()
+                .id(3L)
+                .payerId(1L)
+                .receiverId(2L)
+                .amount(new BigDecimal("25.00"))
+                .status(SettlementStatus.COMPLETED)
+                .settlementDate(cutoff.minusDays(30))
+                .build()));
+        when(archivedSettlementDetailRepository.findBySettlementIdIn(List.of(3L))).thenReturn(List.of(
+                ArchivedSettlementDetail.builder()
+                        .id(7L)
+                        .settlementId(3L)
+                        .groupId(5L)
+                        .amountSettled(new BigDecimal("25.00"))
+                        .balanceBefore(new BigDecimal("40.00"))
+                        .balanceAfter(new BigDecimal("15.00"))
+                        .build()));
+        when(userRepository.findUserNameById(1L)).thenReturn(Optional.of("payer"));
+        when(userRepository.findUserNameById(2L)).thenReturn(Optional.of("receiver"));
+        when(groupRepository.findNameById(5L)).thenReturn(Optional.of("Trip"));
+
+        // Act
+        SettlementResponseDto result = archiveService.getSettlementForAudit(3L);
+
+        // Assert
+        assertEquals("payer", result.getPayerName());
+        assertEquals("COMPLETED", result.getStatus());
+        assertEquals(1, result.getGroupDetails().size());
+        assertEquals("Trip", result.getGroupDetails().get(0).getGroupName());
+        assertEquals(new BigDecimal("15.00"), result.getGroupDetails().get(0).getBalanceAfter());
+    }
+
+    @Test
+    void getSettlementForAudit_Unknown_ThrowsException() {
+        // Arrange
+        when(settlementRepository.findById(99L)).thenReturn(Optional.empty());
+        when(archivedSettlementRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> archiveService.getSettlementForAudit(99L));
+    }
+}
@@ -0,0 +1,138 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.concurrency.BalanceGroupCommitter;
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import com.expenseshare.demo.dto.BalanceDelta;
+import com.expenseshare.demo.dto.ExpenseBalanceUpdateRequest;
+import com.expenseshare.demo.services.BalanceService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceGroupCommitterTest {
+
+    @Mock
+    private BalanceService balanceService;
+
+    private GroupShardedExecutor shardedExecutor;
+    private BalanceGroupCommitter committer;
+
+    private ExpenseBalanceUpdateRequest first;
+    private ExpenseBalanceUpdateRequest second;
+    private ExpenseBalanceUpdateRequest third;
+
+    @BeforeEach
+    void setUp() {
+        shardedExecutor = new GroupShardedExecutor(2, 100);
+        // Long window: a batch is cut only once three expenses are queued
+        committer = new BalanceGroupCommitter(balanceService, shardedExecutor,
+                Duration.ofSeconds(5), 3, new SimpleMeterRegistry());
+
+        first = ExpenseBalanceUpdateRequest.builder().expenseId(1L).groupId(1L).build();
+        second = ExpenseBalanceUpdateRequest.builder().expenseId(2L).groupId(1L).build();
+        third = ExpenseBalanceUpdateRequest.builder().expenseId(3L).groupId(1L).build();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        shardedExecutor.destroy();
+    }
+
+    @Test
+    void testSubmit_ConcurrentExpenses_CommittedOnceWithNettedDeltas() {
+        when(balanceService.computeDeltas(first)).thenReturn(List.of(delta(2L, 1L, "10.00")));
+        when(balanceService.computeDeltas(second)).thenReturn(List.of(delta(1L, 2L, "4.00")));
+        when(balanceService.computeDeltas(third)).thenReturn(List.of(delta(3L, 1L, "5.00")));
+
+        CompletableFuture.allOf(committer.submit(first), committer.submit(second), committer.submit(third)).join();
+
+        verify(balanceService).applyDeltas(List.of(delta(2L, 1L, "6.00"), delta(3L, 1L, "5.00")));
+        verify(balanceService, never()).updateBalancesForExpense(any());
+    }
+
+    @Test
+    void testSubmit_FailedBatch_FallsBackToOneExpenseAtATime() {
+        when(balanceService.computeDeltas(any())).thenReturn(List.of(delta(2L, 1L, "10.00")));
+        doThrow(new IllegalArgumentException("User not found with ID: 9")).when(balanceService).applyDeltas(anyList());
+        // lenient: the same method is also called for the other two expenses, unstubbed
+        lenient().doThrow(new IllegalArgumentException("User not found with ID: 9"))
+                .when(balanceService).updateBalancesForExpense(second);
+
+        CompletableFuture<Void> firstResult = committer.submit(first);
+        CompletableFuture<Void> secondResult = committer.submit(second);
+        CompletableFuture<Void> thirdResult = committer.submit(third);
+
+        assertDoesNotThrow(firstResult::join);
+        CompletionException failure = assertThrows(CompletionException.class, secondResult::join);
+        assertInstanceOf(IllegalArgumentException.class, failure.getCause());
+        assertDoesNotThrow(thirdResult::join);
+        verify(balanceService).updateBalancesForExpense(first);
+        verify(balanceService).updateBalancesForExpense(third);
+    }
+
+    @Test
+    void testSubmit_InvalidExpense_FailsAloneAndRestOfBatchCommits() {
+        when(balanceService.computeDeltas(first)).thenReturn(List.of(delta(2L, 1L, "10.00")));
+        when(balanceService.computeDeltas(second)).thenThrow(new IllegalArgumentException("Split type is required"));
+        when(balanceService.computeDeltas(third)).thenReturn(List.of(delta(2L, 1L, "5.00")));
+
+        CompletableFuture<Void> firstResult = committer.submit(first);
+        CompletableFuture<Void> secondResult = committer.submit(second);
+        CompletableFuture<Void> thirdResult = committer.submit(third);
+
+        assertDoesNotThrow(firstResult::join);
+        assertThrows(CompletionException.class, secondResult::join);
+        assertDoesNotThrow(thirdResult::join);
+        verify(balanceService).applyDeltas(List.of(delta(2L, 1L, "15.00")));
+    }
+
+    @Test
+    void testApplyExpense_FromOtherShardWorker_RunsOnGroupWorker() {
+        Thread groupWorker = shardedExecutor.execute(1L, Thread::currentThread);
+        AtomicReference<Thread> appliedOn = new AtomicReference<>();
+        doAnswer(invocation -> {
+            appliedOn.set(Thread.currentThread());
+            return null;
+        }).when(balanceService).updateBalancesForExpense(first);
+
+        // Group 2 lives on the other shard
+        shardedExecutor.run(2L, () -> committer.applyExpense(first));
+
+        assertSame(groupWorker, appliedOn.get());
+        verify(balanceService, never()).applyDeltas(anyList());
+    }
+
+    @Test
+    void testSubmit_LoneExpense_CommittedWhenWindowCloses() {
+        BalanceGroupCommitter shortWindow = new BalanceGroupCommitter(balanceService, shardedExecutor,
+                Duration.ofMillis(20), 3, new SimpleMeterRegistry());
+
+        long started = System.nanoTime();
+        shortWindow.submit(first).join();
+
+        assertTrue(System.nanoTime() - started < Duration.ofSeconds(2).toNanos());
+        verify(balanceService).updateBalancesForExpense(first);
+        verify(balanceService, never()).applyDeltas(anyList());
+    }
+
+    private BalanceDelta delta(Long debtorId, Long creditorId, String amount) {
+        return new BalanceDelta(1L, debtorId, creditorId, new BigDecimal(amount));
+    }
+}
@@ -0,0 +1,158 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.BalanceRowDto;
+import com.expenseshare.demo.dto.GroupBalanceSummary;
+import com.expenseshare.demo.dto.UserBalanceResponseDto;
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.readmodel.BalanceReadModel;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserBalanceRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceReadModelTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @InjectMocks
+    private BalanceReadModel balanceReadModel;
+
+    @BeforeEach
+    void setUp() {
+        // User 2 owes user 1 40.00 and user 3 owes user 1 10.00 in group 1
+        when(userBalanceRepository.findAllOutstandingBalanceRows()).thenReturn(List.of(
+                new BalanceRowDto(1L, 2L, 1L, new BigDecimal("40.00")),
+                new BalanceRowDto(1L, 3L, 1L, new BigDecimal("10.00"))));
+        balanceReadModel.rebuild();
+    }
+
+    @Test
+    void testGetUserBalance_BootstrappedRows_ServedFromMemory() {
+        when(userRepository.findUserNameById(anyLong()))
+                .thenAnswer(invocation -> Optional.of("user" + invocation.getArgument(0)));
+        when(groupRepository.findNameById(1L)).thenReturn(Optional.of("Trip"));
+
+        UserBalanceResponseDto response = balanceReadModel.getUserBalance(1L);
+
+        assertEquals(BigDecimal.ZERO, response.getTotalOwed());
+        assertEquals(new BigDecimal("50.00"), response.getTotalOwedBy());
+        assertEquals(1, response.getGroupBalances().size());
+        assertEquals("Trip", response.getGroupBalances().get(0).getGroupName());
+        assertEquals(new BigDecimal("-40.00"), response.getGroupBalances().get(0).getBalances().get(0).getAmount());
+        verify(userBalanceRepository, never()).findAllBalancesForUser(anyLong());
+    }
+
+    @Test
+    void testOnBalanceChanged_Delta_AppliedAndSettledPairsDropped() {
+        when(groupRepository.findNameById(1L)).thenReturn(Optional.of("Trip"));
+        when(userRepository.findUserNameById(anyLong()))
+                .thenAnswer(invocation -> Optional.of("user" + invocation.getArgument(0)));
+
+        // User 3 settles in full; user 1 now owes user 2 5.00 after the old 40.00 row is cleared
+        balanceReadModel.onBalanceChanged(event(3L, 1L, "10.00", "0"));
+        balanceReadModel.onBalanceChanged(event(2L, 1L, "40.00", "0"));
+        balanceReadModel.onBalanceChanged(event(1L, 2L, "0", "5.00"));
+
+        GroupBalanceSummary summary = balanceReadModel.getGroupBalances(1L);
+
+        assertEquals(1, summary.getBalances().size());
+        assertEquals(1L, summary.getBalances().get(0).getDebtorId());
+        assertEquals(2L, summary.getBalances().get(0).getCreditorId());
+        assertEquals(new BigDecimal("5.00"), summary.getBalances().get(0).getAmount());
+        assertEquals(new BigDecimal("5.00"), summary.getTotalGroupDebt());
+    }
+
+    @Test
+    void testOnBalanceChanged_ConcurrentCommits_OrderDoesNotMatter() {
+        when(groupRepository.findNameById(1L)).thenReturn(Optional.of("Trip"));
+        when(userRepository.findUserNameById(anyLong()))
+                .thenAnswer(invocation -> Optional.of("user" + invocation.getArgument(0)));
+
+        // Second update's listener runs before the first one's
+        balanceReadModel.onBalanceChanged(event(2L, 1L, "45.00", "60.00"));
+        balanceReadModel.onBalanceChanged(event(2L, 1L, "40.00", "45.00"));
+
+        GroupBalanceSummary summary = balanceReadModel.getGroupBalances(1L);
+
+        assertEquals(new BigDecimal("60.00"), summary.getBalances().get(0).getAmount());
+    }
+
+    @Test
+    void testRebuild_CommitDuringRebuild_NotLostOrDoubled() {
+        when(groupRepository.findNameById(1L)).thenReturn(Optional.of("Trip"));
+        when(userRepository.findUserNameById(anyLong()))
+                .thenAnswer(invocation -> Optional.of("user" + invocation.getArgument(0)));
+
+        // User 2 adds 20.00 while the snapshot is being read; the snapshot already contains it
+        when(userBalanceRepository.findAllOutstandingBalanceRows()).thenAnswer(invocation -> {
+            balanceReadModel.onBalanceChanged(event(2L, 1L, "40.00", "60.00"));
+            GroupBalanceSummary duringRebuild = balanceReadModel.getGroupBalances(1L);
+            assertEquals(new BigDecimal("70.00"), duringRebuild.getTotalGroupDebt());
+            return List.of(
+                    new BalanceRowDto(1L, 2L, 1L, new BigDecimal("60.00")),
+                    new BalanceRowDto(1L, 3L, 1L, new BigDecimal("10.00")));
+        });
+        when(userBalanceRepository.findBalanceRowsBetween(1L, 1L, 2L))
+                .thenReturn(List.of(new BalanceRowDto(1L, 2L, 1L, new BigDecimal("60.00"))));
+
+        balanceReadModel.rebuild();
+        GroupBalanceSummary summary = balanceReadModel.getGroupBalances(1L);
+
+        assertEquals(new BigDecimal("70.00"), summary.getTotalGroupDebt());
+        balanceReadModel.onBalanceChanged(event(3L, 1L, "10.00", "0"));
+        assertEquals(new BigDecimal("60.00"), balanceReadModel.getGroupBalances(1L).getTotalGroupDebt());
+    }
+
+    @Test
+    void testOnGroupChanged_Renamed_ServesNewNameWithoutReload() {
+        when(groupRepository.findNameById(1L)).thenReturn(Optional.of("Trip"));
+        when(userRepository.findUserNameById(anyLong()))
+                .thenAnswer(invocation -> Optional.of("user" + invocation.getArgument(0)));
+        assertEquals("Trip", balanceReadModel.getGroupBalances(1L).getGroupName());
+
+        balanceReadModel.onGroupChanged(GroupChangedEvent.builder().groupId(1L).previousName("Trip").name("Lisbon").build());
+
+        assertEquals("Lisbon", balanceReadModel.getGroupBalances(1L).getGroupName());
+        verify(groupRepository, times(1)).findNameById(1L);
+    }
+
+    @Test
+    void testGetUserBalance_UnknownUser_ThrowsException() {
+        when(userRepository.findUserNameById(99L)).thenReturn(Optional.empty());
+
+        assertThrows(UserNotFoundException.class, () -> balanceReadModel.getUserBalance(99L));
+    }
+
+    private BalanceChangedEvent event(Long debtorId, Long creditorId, String previous, String current) {
+        return BalanceChangedEvent.builder()
+                .groupId(1L)
+                .debtorId(debtorId)
+                .creditorId(creditorId)
+                .previousAmount(new BigDecimal(previous))
+                .newAmount(new BigDecimal(current))
+                .build();
+    }
+}
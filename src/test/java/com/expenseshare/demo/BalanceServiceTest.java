@@ -5,6 +5,7 @@ import com.expenseshare.demo.dto.UserShareDto;
 import com.expenseshare.demo.entity.Group;
 import com.expenseshare.demo.entity.User;
 import com.expenseshare.demo.entity.UserBalance;
+import com.expenseshare.demo.events.BalanceChangedEvent;
 import com.expenseshare.demo.repository.GroupRepository;
 import com.expenseshare.demo.repository.UserBalanceRepository;
 import com.expenseshare.demo.repository.UserRepository;
@@ -15,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
@@ -36,6 +38,9 @@ class BalanceServiceTest {
    
     @Mock
     private GroupRepository groupRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
    
     @InjectMocks
     private BalanceService balanceService;
@@ -106,7 +111,7 @@ class BalanceServiceTest {
         balanceService.updateBalancesForExpense(equalSplitRequest);
 
         // Assert
-        verify(userRepository, times(7)).findById(anyLong());
+        verify(userRepository, times(5)).findById(anyLong());
     }
 
     @Test
@@ -123,7 +128,7 @@ class BalanceServiceTest {
         balanceService.updateBalancesForExpense(unequalSplitRequest);
 
         // Assert
-        verify(userRepository, times(7)).findById(anyLong());
+        verify(userRepository, times(5)).findById(anyLong());
         verify(userBalanceRepository, times(2)).save(any(UserBalance.class));
     }
 
@@ -182,6 +187,13 @@ class BalanceServiceTest {
         // Assert
         verify(userBalanceRepository).save(existingBalance);
         assertEquals(new BigDecimal("15.00"), existingBalance.getAmount());
+        verify(eventPublisher).publishEvent(BalanceChangedEvent.builder()
+                .groupId(1L)
+                .debtorId(2L)
+                .creditorId(1L)
+                .previousAmount(new BigDecimal("5.00"))
+                .newAmount(new BigDecimal("15.00"))
+                .build());
     }
 
     @Test
@@ -0,0 +1,192 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.BalanceNotificationDto;
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.exception.UserNotFoundException;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import com.expenseshare.demo.services.BalanceStreamService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BalanceStreamServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    private final Deque<SseEmitter> emitters = new ArrayDeque<>();
+
+    private BalanceStreamService balanceStreamService;
+
+    @AfterEach
+    void tearDown() {
+        if (balanceStreamService != null) {
+            balanceStreamService.destroy();
+        }
+    }
+
+    @Test
+    void subscribeToUser_UnknownUser_ThrowsException() {
+        // Arrange
+        balanceStreamService = service(4);
+        when(userRepository.existsById(9L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(UserNotFoundException.class, () -> balanceStreamService.subscribeToUser(9L));
+    }
+
+    @Test
+    void onBalanceChanged_ReachesBothUsersAndTheGroupOnly() throws Exception {
+        // Arrange
+        balanceStreamService = service(4);
+        when(userRepository.existsById(anyLong())).thenReturn(true);
+        when(groupRepository.existsById(5L)).thenReturn(true);
+        SseEmitter debtor = mockEmitter();
+        balanceStreamService.subscribeToUser(1L);
+        SseEmitter creditor = mockEmitter();
+        balanceStreamService.subscribeToUser(2L);
+        SseEmitter bystander = mockEmitter();
+        balanceStreamService.subscribeToUser(3L);
+        SseEmitter group = mockEmitter();
+        balanceStreamService.subscribeToGroup(5L);
+
+        // Act
+        balanceStreamService.onBalanceChanged(change(1));
+
+        // Assert
+        verify(debtor, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(creditor, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(group, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+        verify(bystander, after(100).never()).send(any(SseEmitter.SseEventBuilder.class));
+        assertEquals(4, balanceStreamService.getSubscriberCount());
+    }
+
+    @Test
+    void onBalanceChanged_SlowSubscriber_DropsOldestAndReportsOverflow() throws Exception {
+        // Arrange: buffer of two; the first send blocks until released
+        balanceStreamService = service(2);
+        when(userRepository.existsById(1L)).thenReturn(true);
+        SseEmitter emitter = mockEmitter();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return null;
+        }).doNothing().when(emitter).send(any(SseEmitter.SseEventBuilder.class));
+        balanceStreamService.subscribeToUser(1L);
+
+        // Act
+        balanceStreamService.onBalanceChanged(change(1));
+        assertTrue(sending.await(5, TimeUnit.SECONDS));
+        for (int i = 2; i <= 5; i++) {
+            balanceStreamService.onBalanceChanged(change(i));
+        }
+        release.countDown();
+
+        // Assert: 2 and 3 were dropped for 4 and 5
+        ArgumentCaptor<SseEmitter.SseEventBuilder> sent = ArgumentCaptor.forClass(SseEmitter.SseEventBuilder.class);
+        verify(emitter, timeout(1000).times(4)).send(sent.capture());
+        assertEquals(List.of("balance:1", "overflow", "balance:4", "balance:5"),
+                sent.getAllValues().stream().map(this::describe).toList());
+    }
+
+    @Test
+    void closeStalledSubscribers_BlockedEmitter_ClosedAndOthersStillDelivered() throws Exception {
+        // Arrange: one delivery thread, and the user's emitter blocks in send until released
+        balanceStreamService = service(4, Duration.ofMillis(50));
+        when(userRepository.existsById(1L)).thenReturn(true);
+        when(groupRepository.existsById(5L)).thenReturn(true);
+        SseEmitter blocked = mockEmitter();
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            sending.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return null;
+        }).when(blocked).send(any(SseEmitter.SseEventBuilder.class));
+        balanceStreamService.subscribeToUser(1L);
+        SseEmitter group = mockEmitter();
+        balanceStreamService.subscribeToGroup(5L);
+
+        try {
+            // Act: the group's delivery is queued behind the blocked send
+            balanceStreamService.onBalanceChanged(change(1));
+            assertTrue(sending.await(5, TimeUnit.SECONDS));
+            Thread.sleep(100);
+            balanceStreamService.closeStalledSubscribers();
+
+            // Assert
+            verify(group, timeout(1000)).send(any(SseEmitter.SseEventBuilder.class));
+            assertEquals(1, balanceStreamService.getSubscriberCount());
+            balanceStreamService.onBalanceChanged(change(2));
+            verify(group, timeout(1000).times(2)).send(any(SseEmitter.SseEventBuilder.class));
+            verify(blocked, times(1)).send(any(SseEmitter.SseEventBuilder.class));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private BalanceStreamService service(int bufferSize) {
+        return service(bufferSize, Duration.ofMinutes(1));
+    }
+
+    private BalanceStreamService service(int bufferSize, Duration sendTimeout) {
+        return new BalanceStreamService(userRepository, groupRepository, Duration.ofMinutes(1), bufferSize, 1,
+                sendTimeout) {
+            @Override
+            protected SseEmitter createEmitter(long timeoutMillis) {
+                return emitters.removeFirst();
+            }
+        };
+    }
+
+    private SseEmitter mockEmitter() {
+        SseEmitter emitter = mock(SseEmitter.class);
+        emitters.addLast(emitter);
+        return emitter;
+    }
+
+    private BalanceChangedEvent change(int newAmount) {
+        return BalanceChangedEvent.builder()
+                .groupId(5L)
+                .debtorId(1L)
+                .creditorId(2L)
+                .previousAmount(BigDecimal.ZERO)
+                .newAmount(BigDecimal.valueOf(newAmount))
+                .build();
+    }
+
+    private String describe(SseEmitter.SseEventBuilder event) {
+        for (ResponseBodyEmitter.DataWithMediaType part : event.build()) {
+            if (part.getData() instanceof BalanceNotificationDto notification) {
+                return "balance:" + notification.getNewAmount();
+            }
+            if (part.getData().toString().contains("event:overflow")) {
+                return "overflow";
+            }
+        }
+        return "unknown";
+    }
+}
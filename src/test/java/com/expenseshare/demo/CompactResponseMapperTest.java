@@ -0,0 +1,79 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.CompactExpenseDto;
+import com.expenseshare.demo.dto.CompactListDto;
+import com.expenseshare.demo.dto.CompactSettlementDto;
+import com.expenseshare.demo.dto.ExpenseResponseDto;
+import com.expenseshare.demo.dto.ExpenseShareResponseDto;
+import com.expenseshare.demo.dto.SettlementGroupDetailDto;
+import com.expenseshare.demo.dto.SettlementResponseDto;
+import com.expenseshare.demo.mapper.CompactResponseMapper;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactResponseMapperTest {
+
+    @Test
+    void toCompactExpenses_HoistsNamesOutOfRows() {
+        // Arrange: two expenses in one group sharing the same two users
+        List<ExpenseResponseDto> expenses = List.of(expense(1L, 1L), expense(2L, 2L));
+
+        // Act
+        CompactListDto<CompactExpenseDto> result = CompactResponseMapper.toCompactExpenses(expenses);
+
+        // Assert
+        assertEquals(Map.of(1L, "alice", 2L, "bob"), result.getUserNames());
+        assertEquals(Map.of(7L, "Trip"), result.getGroupNames());
+        assertEquals(2, result.getItems().size());
+        CompactExpenseDto second = result.getItems().get(1);
+        assertEquals(2L, second.getPaidByUserId());
+        assertEquals(Map.of(1L, new BigDecimal("5.00"), 2L, new BigDecimal("5.00")), second.getShares());
+    }
+
+    @Test
+    void toCompactSettlements_HoistsPartyAndGroupNames() {
+        // Arrange
+        SettlementResponseDto settlement = SettlementResponseDto.builder()
+                .settlementId(3L)
+                .payerId(1L).payerName("alice")
+                .receiverId(2L).receiverName("bob")
+                .totalAmountSettled(new BigDecimal("10.00"))
+                .status("COMPLETED")
+                .groupDetails(List.of(SettlementGroupDetailDto.builder()
+                        .groupId(7L).groupName("Trip")
+                        .amountSettled(new BigDecimal("10.00"))
+                        .balanceBefore(new BigDecimal("10.00"))
+                        .balanceAfter(BigDecimal.ZERO)
+                        .build()))
+                .build();
+
+        // Act
+        CompactListDto<CompactSettlementDto> result = CompactResponseMapper.toCompactSettlements(List.of(settlement));
+
+        // Assert
+        assertEquals(Map.of(1L, "alice", 2L, "bob"), result.getUserNames());
+        assertEquals(Map.of(7L, "Trip"), result.getGroupNames());
+        assertEquals(7L, result.getItems().get(0).getGroupDetails().get(0).getGroupId());
+    }
+
+    private ExpenseResponseDto expense(Long id, Long payerId) {
+        return ExpenseResponseDto.builder()
+                .id(id)
+                .description("Dinner")
+                .amount(new BigDecimal("10.00"))
+                .groupId(7L)
+                .groupName("Trip")
+                .paidByUserId(payerId)
+                .paidByUserName(payerId == 1L ? "alice" : "bob")
+                .splitType("EQUAL")
+                .shares(List.of(
+                        new ExpenseShareResponseDto(1L, "alice", new BigDecimal("5.00")),
+                        new ExpenseShareResponseDto(2L, "bob", new BigDecimal("5.00"))))
+                .build();
+    }
+}
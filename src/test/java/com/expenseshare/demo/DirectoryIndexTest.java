@@ -0,0 +1,110 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.UserSummaryDto;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import com.expenseshare.demo.events.UserCreatedEvent;
+import com.expenseshare.demo.readmodel.DirectoryIndex;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DirectoryIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    private DirectoryIndex directoryIndex;
+
+    @BeforeEach
+    void setUp() {
+        directoryIndex = new DirectoryIndex(userRepository, groupRepository, 3, 2);
+    }
+
+    @Test
+    void rebuild_ScansUsersInKeysetBatches() {
+        // Arrange: a full batch of two users, then a short batch
+        when(userRepository.findSummariesAfter(eq(0L), any())).thenReturn(List.of(
+                user(1L, "alice", "alice@example.com", "Alice", "Smith"),
+                user(2L, "bob", "bob@example.com", "Bob", "Allen")));
+        when(userRepository.findSummariesAfter(eq(2L), any())).thenReturn(List.of(
+                user(5L, "carol", "carol@example.com", "Carol", "Jones")));
+        when(groupRepository.findIdAndNameAfter(eq(0L), any())).thenReturn(new ArrayList<>());
+
+        // Act
+        directoryIndex.rebuild();
+
+        // Assert: case-insensitive, ordered by matching term, a user listed once
+        assertTrue(directoryIndex.isReady());
+        assertEquals(List.of(1L, 2L), directoryIndex.matchUsers("AL").ids());
+        assertEquals(List.of(5L), directoryIndex.matchUsers("carol@").ids());
+        assertTrue(directoryIndex.matchUsers("dave").ids().isEmpty());
+        verify(userRepository, times(2)).findSummariesAfter(anyLong(), any());
+    }
+
+    @Test
+    void matchUsers_CapsAtMaxMatchesAndReportsTruncation() {
+        // Arrange
+        when(userRepository.findSummariesAfter(anyLong(), any())).thenReturn(List.of());
+        when(groupRepository.findIdAndNameAfter(anyLong(), any())).thenReturn(new ArrayList<>());
+        directoryIndex.rebuild();
+        for (long id = 1; id <= 5; id++) {
+            directoryIndex.onUserCreated(UserCreatedEvent.builder().userId(id).userName("sam" + id).build());
+        }
+
+        // Act
+        DirectoryIndex.Matches matches = directoryIndex.matchUsers("sam");
+        DirectoryIndex.Matches exact = directoryIndex.matchUsers("sam1");
+
+        // Assert
+        assertEquals(List.of(1L, 2L, 3L), matches.ids());
+        assertTrue(matches.truncated());
+        assertEquals(List.of(1L), exact.ids());
+        assertFalse(exact.truncated());
+    }
+
+    @Test
+    void onGroupChanged_RenameAndDeleteReplaceOldName() {
+        // Arrange
+        List<Object[]> groups = new ArrayList<>();
+        groups.add(new Object[]{7L, "Trip"});
+        when(userRepository.findSummariesAfter(anyLong(), any())).thenReturn(List.of());
+        when(groupRepository.findIdAndNameAfter(eq(0L), any())).thenReturn(groups);
+        directoryIndex.rebuild();
+
+        // Act
+        directoryIndex.onGroupChanged(GroupChangedEvent.builder().groupId(7L).previousName("Trip").name("Rent").build());
+        directoryIndex.onGroupChanged(GroupChangedEvent.builder().groupId(8L).name("Travel").build());
+        List<Long> afterRename = directoryIndex.matchGroups("tr").ids();
+        directoryIndex.onGroupChanged(GroupChangedEvent.builder().groupId(8L).previousName("Travel").build());
+
+        // Assert
+        assertEquals(List.of(8L), afterRename);
+        assertEquals(List.of(7L), directoryIndex.matchGroups("rent").ids());
+        assertTrue(directoryIndex.matchGroups("tr").ids().isEmpty());
+    }
+
+    private UserSummaryDto user(Long id, String userName, String emailId, String firstName, String lastName) {
+        return UserSummaryDto.builder()
+                .id(id)
+                .userName(userName)
+                .emailId(emailId)
+                .firstName(firstName)
+                .lastName(lastName)
+                .build();
+    }
+}
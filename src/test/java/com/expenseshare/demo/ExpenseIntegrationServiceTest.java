@@ -1,17 +1,20 @@
 package com.expenseshare.demo;
 
+import com.expenseshare.demo.concurrency.BalanceGroupCommitter;
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
 import com.expenseshare.demo.dto.ExpenseBalanceUpdateRequest;
 import com.expenseshare.demo.dto.UserShareDto;
 import com.expenseshare.demo.services.BalanceService;
 import com.expenseshare.demo.services.ExpenseIntegrationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 
@@ -24,8 +27,7 @@ class ExpenseIntegrationServiceTest {
 
     @Mock
     private BalanceService balanceService;
-   
-    @InjectMocks
+
     private ExpenseIntegrationService expenseIntegrationService;
    
     private List<Long> groupUserIds;
@@ -33,6 +35,11 @@ class ExpenseIntegrationServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Calls are sequential, so every group-commit batch holds a single expense
+        BalanceGroupCommitter committer = new BalanceGroupCommitter(balanceService,
+                new GroupShardedExecutor(2, 100), Duration.ZERO, 256, new SimpleMeterRegistry());
+        expenseIntegrationService = new ExpenseIntegrationService(committer);
+
         groupUserIds = Arrays.asList(1L, 2L, 3L);
        
         userShares = Arrays.asList(
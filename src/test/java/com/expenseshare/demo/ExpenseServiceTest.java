@@ -1,31 +1,41 @@
 package com.expenseshare.demo;
 
+import com.expenseshare.demo.dto.BalanceDelta;
 import com.expenseshare.demo.dto.ExpenseDto;
 import com.expenseshare.demo.dto.ExpenseResponseDto;
+import com.expenseshare.demo.dto.ExpenseUpdateDto;
 import com.expenseshare.demo.dto.UserShareDto;
 import com.expenseshare.demo.entity.Expense;
+import com.expenseshare.demo.entity.ExpenseShare;
 import com.expenseshare.demo.entity.Group;
 import com.expenseshare.demo.entity.User;
 import com.expenseshare.demo.enums.SplitType;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
 import com.expenseshare.demo.exception.GroupNotFoundException;
 import com.expenseshare.demo.exception.InvalidExpenseDataException;
+import com.expenseshare.demo.exception.ResourceNotFoundException;
 import com.expenseshare.demo.exception.UserNotFoundException;
 import com.expenseshare.demo.repository.ExpenseRepository;
 import com.expenseshare.demo.repository.ExpenseShareRepository;
 import com.expenseshare.demo.repository.GroupRepository;
 import com.expenseshare.demo.repository.UserRepository;
+import com.expenseshare.demo.services.BalanceService;
 import com.expenseshare.demo.services.ExpenseService;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
@@ -34,7 +44,7 @@ import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
-class ExpenseServiceTestUpdated {
+class ExpenseServiceTest {
 
     @Mock
     private ExpenseRepository expenseRepository;
@@ -47,6 +57,12 @@ class ExpenseServiceTestUpdated {
    
     @Mock
     private ExpenseShareRepository expenseShareRepository;
+
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
    
     @InjectMocks
     private ExpenseService expenseService;
@@ -116,6 +132,7 @@ class ExpenseServiceTestUpdated {
         assertEquals(new BigDecimal("30.00"), result.getAmount());
         verify(expenseRepository).save(any(Expense.class));
         verify(expenseShareRepository).saveAll(anyList());
+        verify(eventPublisher).publishEvent(any(ExpenseSpendingEvent.class));
     }
 
     @Test
@@ -250,4 +267,148 @@ class ExpenseServiceTestUpdated {
         assertThrows(InvalidExpenseDataException.class, () ->
             expenseService.createExpense(validExpenseDto));
     }
-}
\ No newline at end of file
+
+    @Test
+    void testUpdateExpense_OneShareChanged_TouchesOneBalancePair() {
+        // Arrange
+        testExpense.setSplitType(SplitType.UNEQUAL);
+        testExpense.setExpenseShares(sharesOf("10.00", "10.00", "10.00"));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExpenseUpdateDto update = ExpenseUpdateDto.builder()
+                .userShares(List.of(UserShareDto.builder().userId(2L).share(new BigDecimal("15.00")).build()))
+                .build();
+
+        // Act
+        ExpenseResponseDto result = expenseService.updateExpense(1L, update);
+
+        // Assert
+        assertEquals(new BigDecimal("35.00"), result.getAmount());
+        assertEquals(new BigDecimal("15.00"), testExpense.getExpenseShares().get(1).getShare());
+        verify(balanceService).applyDeltas(List.of(new BalanceDelta(1L, 2L, 1L, new BigDecimal("5.00"))));
+        verify(userRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testUpdateExpense_AmountChanged_ReversesOldSpendingThenRecordsNew() {
+        // Arrange
+        testExpense.setExpenseShares(sharesOf("10.00", "10.00", "10.00"));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
+        when(expenseRepository.save(any(Expense.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ExpenseUpdateDto update = ExpenseUpdateDto.builder()
+                .amount(new BigDecimal("45.00"))
+                .build();
+
+        // Act
+        expenseService.updateExpense(1L, update);
+
+        // Assert: the rollups take off the old state before adding the new one
+        ArgumentCaptor<ExpenseSpendingEvent> spending = ArgumentCaptor.forClass(ExpenseSpendingEvent.class);
+        verify(eventPublisher, times(2)).publishEvent(spending.capture());
+        ExpenseSpendingEvent reversal = spending.getAllValues().get(0);
+        ExpenseSpendingEvent recorded = spending.getAllValues().get(1);
+        assertEquals(new BigDecimal("-30.00"), reversal.getAmount());
+        assertEquals(-1, reversal.getExpenseCount());
+        assertEquals(new BigDecimal("-10.00"), reversal.getShares().get(2L));
+        assertEquals(new BigDecimal("45.00"), recorded.getAmount());
+        assertEquals(1, recorded.getExpenseCount());
+        assertEquals(new BigDecimal("15.00"), recorded.getShares().get(2L));
+    }
+
+    @Test
+    void testUpdateExpense_SharesNotMatchingAmount_ThrowsException() {
+        // Arrange
+        testExpense.setSplitType(SplitType.UNEQUAL);
+        testExpense.setExpenseShares(sharesOf("10.00", "10.00", "10.00"));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
+
+        ExpenseUpdateDto update = ExpenseUpdateDto.builder()
+                .amount(new BigDecimal("30.00"))
+                .userShares(List.of(UserShareDto.builder().userId(2L).share(new BigDecimal("15.00")).build()))
+                .build();
+
+        // Act & Assert
+        assertThrows(InvalidExpenseDataException.class, () -> expenseService.updateExpense(1L, update));
+        verifyNoInteractions(balanceService);
+    }
+
+    @Test
+    void testDeleteExpense_ReversesPersistedShares() {
+        // Arrange
+        testExpense.setExpenseShares(sharesOf("10.00", "10.00", "10.00"));
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
+
+        // Act
+        expenseService.deleteExpense(1L);
+
+        // Assert
+        verify(balanceService).applyDeltas(List.of(
+                new BalanceDelta(1L, 1L, 2L, new BigDecimal("10.00")),
+                new BalanceDelta(1L, 1L, 3L, new BigDecimal("10.00"))));
+        verify(expenseRepository).delete(testExpense);
+
+        ArgumentCaptor<ExpenseSpendingEvent> spending = ArgumentCaptor.forClass(ExpenseSpendingEvent.class);
+        verify(eventPublisher).publishEvent(spending.capture());
+        assertEquals(new BigDecimal("-30.00"), spending.getValue().getAmount());
+        assertEquals(-1, spending.getValue().getExpenseCount());
+    }
+
+    @Test
+    void testDeleteExpense_AfterCreate_LeavesBalancesUnchanged() {
+        // Arrange
+        Map<List<Long>, BigDecimal> balances = new HashMap<>();
+        doAnswer(invocation -> {
+            List<BalanceDelta> deltas = invocation.getArgument(0);
+            for (BalanceDelta delta : deltas) {
+                balances.merge(List.of(delta.getDebtorId(), delta.getCreditorId()), delta.getAmount(), BigDecimal::add);
+                balances.merge(List.of(delta.getCreditorId(), delta.getDebtorId()), delta.getAmount().negate(), BigDecimal::add);
+            }
+            return null;
+        }).when(balanceService).applyDeltas(anyList());
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(testGroup));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(paidByUser));
+        when(expenseRepository.save(any(Expense.class))).thenReturn(testExpense);
+        when(expenseRepository.findById(1L)).thenReturn(Optional.of(testExpense));
+
+        // Act
+        expenseService.createExpense(validExpenseDto);
+        assertEquals(0, new BigDecimal("10.00").compareTo(balances.get(List.of(2L, 1L))));
+        expenseService.deleteExpense(1L);
+
+        // Assert
+        verify(balanceService, times(2)).applyDeltas(anyList());
+        assertEquals(4, balances.size());
+        balances.values().forEach(amount -> assertEquals(0, amount.signum()));
+    }
+
+    @Test
+    void testDeleteExpense_NotFound_ThrowsException() {
+        // Arrange
+        when(expenseRepository.findById(99L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> expenseService.deleteExpense(99L));
+        verifyNoInteractions(balanceService);
+    }
+
+    @Test
+    void testIsRecordedExpense_StoredOrExternalId_OnlyStoredIsRecorded() {
+        // Arrange
+        when(expenseRepository.existsById(1L)).thenReturn(true);
+        when(expenseRepository.existsById(500L)).thenReturn(false);
+
+        // Act & Assert: POST /balances/update-from-expense rejects recorded expenses
+        assertTrue(expenseService.isRecordedExpense(1L));
+        assertFalse(expenseService.isRecordedExpense(500L));
+        assertFalse(expenseService.isRecordedExpense(null));
+    }
+
+    private List<ExpenseShare> sharesOf(String payerShare, String user1Share, String user2Share) {
+        return Lists.newArrayList(
+                ExpenseShare.builder().id(1L).expense(testExpense).user(paidByUser).share(new BigDecimal(payerShare)).build(),
+                ExpenseShare.builder().id(2L).expense(testExpense).user(user1).share(new BigDecimal(user1Share)).build(),
+                ExpenseShare.builder().id(3L).expense(testExpense).user(user2).share(new BigDecimal(user2Share)).build());
+    }
+}
@@ -0,0 +1,93 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import com.expenseshare.demo.exception.InsufficientBalanceException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupShardedExecutorTest {
+
+    private final GroupShardedExecutor executor = new GroupShardedExecutor(4, 1000);
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.destroy();
+    }
+
+    @Test
+    void testExecute_SameGroup_AlwaysRunsOnOneWorkerThread() throws Exception {
+        Set<String> threadNames = ConcurrentHashMap.newKeySet();
+        ExecutorService callers = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                futures.add(callers.submit(() ->
+                        executor.run(42L, () -> threadNames.add(Thread.currentThread().getName()))));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            callers.shutdownNow();
+        }
+
+        assertEquals(Set.of("balance-shard-" + executor.shardFor(42L)), threadNames);
+    }
+
+    @Test
+    void testExecute_TaskThrows_RethrowsExceptionUnchanged() {
+        InsufficientBalanceException thrown = assertThrows(InsufficientBalanceException.class, () ->
+                executor.execute(1L, () -> {
+                    throw new InsufficientBalanceException("No outstanding balance found between users");
+                }));
+
+        assertEquals("No outstanding balance found between users", thrown.getMessage());
+    }
+
+    @Test
+    void testExecute_NestedCallForSameShard_RunsInline() {
+        String caller = executor.execute(1L, () -> {
+            String outer = Thread.currentThread().getName();
+            String inner = executor.execute(5L, () -> Thread.currentThread().getName());
+            return outer.equals(inner) ? outer : null;
+        });
+
+        assertEquals("balance-shard-" + executor.shardFor(1L), caller);
+    }
+
+    @Test
+    void testExecute_NestedCallForOtherShard_RunsOnOwningWorker() {
+        String inner = executor.execute(1L, () -> executor.execute(2L, () -> Thread.currentThread().getName()));
+
+        assertEquals("balance-shard-" + executor.shardFor(2L), inner);
+    }
+
+    @Test
+    void testExecute_NestedCallBackToWaitingShard_RunsInline() {
+        String innermost = executor.execute(1L, () -> executor.execute(2L, () ->
+                executor.execute(1L, () -> Thread.currentThread().getName())));
+
+        assertEquals("balance-shard-" + executor.shardFor(2L), innermost);
+    }
+
+    @Test
+    void testExecute_GroupsOnDifferentShards_RunOnCallerThread() {
+        String callerThread = Thread.currentThread().getName();
+
+        String ranOn = executor.execute(List.of(1L, 2L), () -> Thread.currentThread().getName());
+        String sameShard = executor.execute(List.of(1L, 5L), () -> Thread.currentThread().getName());
+
+        assertEquals(callerThread, ranOn);
+        assertEquals("balance-shard-" + executor.shardFor(1L), sameShard);
+    }
+}
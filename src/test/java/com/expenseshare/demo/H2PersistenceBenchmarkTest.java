@@ -0,0 +1,100 @@
+package com.expenseshare.demo;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.FileSystemUtils;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Expense write throughput (one expense with its shares per transaction) on the in-memory database
+ * against the file-backed MVStore, flushing on every commit and with the h2file profile's settings.
+ * Every database is created by the Flyway migrations. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class H2PersistenceBenchmarkTest {
+
+    private static final int WARMUP_TRANSACTIONS = 1_000;
+    private static final int TRANSACTIONS = 10_000;
+    private static final int MEMBERS = 4;
+
+    @Test
+    void benchmarkExpenseWriteThroughput() throws Exception {
+        Path dir = Files.createTempDirectory("expenseshare-h2");
+        try {
+            System.out.printf("%-28s %12s%n", "mode", "tx/s");
+            report("in-memory", "jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1");
+            report("file, WRITE_DELAY=0", "jdbc:h2:file:" + dir.resolve("sync") + ";WRITE_DELAY=0");
+            report("file, h2file profile", "jdbc:h2:file:" + dir.resolve("tuned")
+                    + ";CACHE_SIZE=65536;WRITE_DELAY=500");
+        } finally {
+            FileSystemUtils.deleteRecursively(dir);
+        }
+    }
+
+    private void report(String mode, String url) throws SQLException {
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        try (Connection connection = DriverManager.getConnection(url, "sa", "")) {
+            connection.setAutoCommit(false);
+            seed(connection);
+            writeExpenses(connection, 1, WARMUP_TRANSACTIONS);
+
+            long start = System.nanoTime();
+            writeExpenses(connection, 1 + WARMUP_TRANSACTIONS, TRANSACTIONS);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            System.out.printf("%-28s %,12.0f%n", mode, TRANSACTIONS / seconds);
+
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+        }
+    }
+
+    private static void seed(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (int member = 1; member <= MEMBERS; member++) {
+                statement.executeUpdate("INSERT INTO users (id, user_name, email_id, role) VALUES ("
+                        + member + ", 'member" + member + "', 'member" + member + "@example.com', 'USER')");
+            }
+            statement.executeUpdate("INSERT INTO groups (id, name) VALUES (1, 'Benchmark')");
+        }
+        connection.commit();
+    }
+
+    private static void writeExpenses(Connection connection, long firstId, int count) throws SQLException {
+        BigDecimal amount = new BigDecimal("100.00");
+        BigDecimal share = amount.divide(BigDecimal.valueOf(MEMBERS));
+        try (PreparedStatement expense = connection.prepareStatement(
+                "INSERT INTO expenses (id, description, amount, group_id, paid_by_user_id, split_type, created_at) "
+                        + "VALUES (?, 'Dinner', ?, 1, ?, 'EQUAL', ?)");
+             PreparedStatement shares = connection.prepareStatement(
+                     "INSERT INTO expense_shares (id, expense_id, user_id, share) VALUES (?, ?, ?, ?)")) {
+            for (long id = firstId; id < firstId + count; id++) {
+                expense.setLong(1, id);
+                expense.setBigDecimal(2, amount);
+                expense.setLong(3, id % MEMBERS + 1);
+                expense.setTimestamp(4, Timestamp.valueOf(LocalDateTime.now()));
+                expense.executeUpdate();
+                for (int member = 1; member <= MEMBERS; member++) {
+                    shares.setLong(1, id * MEMBERS + member);
+                    shares.setLong(2, id);
+                    shares.setLong(3, member);
+                    shares.setBigDecimal(4, share);
+                    shares.addBatch();
+                }
+                shares.executeBatch();
+                connection.commit();
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.ExpenseDto;
+import com.expenseshare.demo.dto.ExpenseResponseDto;
+import com.expenseshare.demo.entity.IdempotencyRecord;
+import com.expenseshare.demo.enums.IdempotencyStatus;
+import com.expenseshare.demo.exception.GenericException;
+import com.expenseshare.demo.exception.IdempotencyConflictException;
+import com.expenseshare.demo.repository.IdempotencyRecordRepository;
+import com.expenseshare.demo.services.IdempotencyService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private IdempotencyService idempotencyService;
+    private ExpenseDto request;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        idempotencyService = new IdempotencyService(idempotencyRecordRepository,
+                objectMapper, Duration.ofHours(24), Duration.ofMinutes(2), 100);
+        request = ExpenseDto.builder()
+                .description("Dinner")
+                .amount(new BigDecimal("30.00"))
+                .groupId(1L)
+                .paidByUserId(1L)
+                .splitType("EQUAL")
+                .build();
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private ResponseEntity<ExpenseResponseDto> createExpense() {
+        executions.incrementAndGet();
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(ExpenseResponseDto.builder().id(7L).description("Dinner").createdAt(LocalDateTime.now()).build());
+    }
+
+    @Test
+    void testExecute_WithoutKey_AlwaysRunsAction() {
+        idempotencyService.execute("expenses", null, request, ExpenseResponseDto.class, this::createExpense);
+        idempotencyService.execute("expenses", " ", request, ExpenseResponseDto.class, this::createExpense);
+
+        assertEquals(2, executions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void testExecute_ReplayedKey_ReturnsStoredResponseWithoutRunningAction() {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ExpenseResponseDto> first =
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+        ResponseEntity<ExpenseResponseDto> second =
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, second.getStatusCode());
+        assertEquals(first.getBody().getId(), second.getBody().getId());
+        assertEquals("true", second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(idempotencyRecordRepository).save(argThat(record -> record.getStatus() == IdempotencyStatus.COMPLETED));
+    }
+
+    @Test
+    void testExecute_SameKeyDifferentCallers_RunsActionForEach() {
+        when(idempotencyRecordRepository.findById(anyString())).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("alice", null, "ROLE_USER"));
+        idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+        SecurityContextHolder.getContext().setAuthentication(new TestingAuthenticationToken("bob", null, "ROLE_USER"));
+        ResponseEntity<ExpenseResponseDto> second =
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+
+        assertEquals(2, executions.get());
+        assertNull(second.getHeaders().getFirst(IdempotencyService.REPLAYED_HEADER));
+        verify(idempotencyRecordRepository).findById("expenses:name-alice:abc");
+        verify(idempotencyRecordRepository).findById("expenses:name-bob:abc");
+    }
+
+    @Test
+    void testExecute_StoredRecordAfterRestart_IsReplayed() {
+        IdempotencyRecord stored = IdempotencyRecord.builder()
+                .id("expenses:anonymous:abc")
+                .status(IdempotencyStatus.COMPLETED)
+                .responseStatus(201)
+                .responseBody("{\"id\":7,\"description\":\"Dinner\"}")
+                .createdAt(LocalDateTime.now())
+                .expiresAt(LocalDateTime.now().plusHours(1))
+                .build();
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> {
+            IdempotencyRecord claim = invocation.getArgument(0);
+            stored.setRequestHash(claim.getRequestHash());
+            return claim;
+        });
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.empty());
+        idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+
+        IdempotencyService restarted = new IdempotencyService(idempotencyRecordRepository,
+                new ObjectMapper().findAndRegisterModules(), Duration.ofHours(24), Duration.ofMinutes(2), 100);
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.of(stored));
+
+        ResponseEntity<ExpenseResponseDto> replayed =
+                restarted.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+
+        assertEquals(1, executions.get());
+        assertEquals(7L, replayed.getBody().getId());
+    }
+
+    @Test
+    void testExecute_SameKeyDifferentRequest_ThrowsConflict() {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+
+        request.setAmount(new BigDecimal("45.00"));
+
+        assertThrows(IdempotencyConflictException.class, () ->
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense));
+        assertEquals(1, executions.get());
+    }
+
+    @Test
+    void testExecute_ConcurrentClaim_ThrowsConflict() {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThrows(IdempotencyConflictException.class, () ->
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense));
+        assertEquals(0, executions.get());
+    }
+
+    @Test
+    void testExecute_ClaimInProgress_ThrowsConflict() throws Exception {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.of(claimCreatedAt(
+                LocalDateTime.now().minusSeconds(5), requestHash())));
+
+        assertThrows(IdempotencyConflictException.class, () ->
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense));
+        assertEquals(0, executions.get());
+        verify(idempotencyRecordRepository, never()).deleteStaleClaim(any(), any(), any());
+    }
+
+    @Test
+    void testExecute_ClaimOlderThanLease_IsTakenOver() throws Exception {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.of(claimCreatedAt(
+                LocalDateTime.now().minusMinutes(10), requestHash())));
+        when(idempotencyRecordRepository.deleteStaleClaim(eq("expenses:anonymous:abc"),
+                eq(IdempotencyStatus.IN_PROGRESS), any(LocalDateTime.class))).thenReturn(1);
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        ResponseEntity<ExpenseResponseDto> response =
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense);
+
+        assertEquals(1, executions.get());
+        assertEquals(HttpStatus.CREATED, response.getStatusCode());
+        verify(idempotencyRecordRepository).save(argThat(record -> record.getStatus() == IdempotencyStatus.COMPLETED));
+    }
+
+    @Test
+    void testExecute_ClaimOlderThanLeaseForDifferentRequest_ThrowsConflictWithoutTakeover() {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.of(claimCreatedAt(
+                LocalDateTime.now().minusMinutes(10), "0".repeat(64))));
+
+        assertThrows(IdempotencyConflictException.class, () ->
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, this::createExpense));
+        assertEquals(0, executions.get());
+        verify(idempotencyRecordRepository, never()).deleteStaleClaim(any(), any(), any());
+    }
+
+    @Test
+    void testExecute_KeyLongerThanColumn_RejectedBeforeLookup() {
+        String key = "k".repeat(250);
+
+        GenericException e = assertThrows(GenericException.class, () ->
+                idempotencyService.execute("expenses", key, request, ExpenseResponseDto.class, this::createExpense));
+        assertTrue(e.getMessage().contains("at most 236 characters"));
+        assertEquals(0, executions.get());
+        verifyNoInteractions(idempotencyRecordRepository);
+    }
+
+    @Test
+    void testExecute_ActionFails_ReleasesKey() {
+        when(idempotencyRecordRepository.findById("expenses:anonymous:abc")).thenReturn(Optional.empty());
+        when(idempotencyRecordRepository.saveAndFlush(any(IdempotencyRecord.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        assertThrows(IllegalArgumentException.class, () ->
+                idempotencyService.execute("expenses", "abc", request, ExpenseResponseDto.class, () -> {
+                    throw new IllegalArgumentException("Group not found");
+                }));
+
+        verify(idempotencyRecordRepository).deleteById("expenses:anonymous:abc");
+        verify(idempotencyRecordRepository, never()).save(any(IdempotencyRecord.class));
+    }
+
+    private IdempotencyRecord claimCreatedAt(LocalDateTime createdAt, String requestHash) {
+        return IdempotencyRecord.builder()
+                .id("expenses:anonymous:abc")
+                .requestHash(requestHash)
+                .status(IdempotencyStatus.IN_PROGRESS)
+                .createdAt(createdAt)
+                .expiresAt(createdAt.plusHours(24))
+                .build();
+    }
+
+    private String requestHash() throws Exception {
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(objectMapper.writeValueAsBytes(request)));
+    }
+}
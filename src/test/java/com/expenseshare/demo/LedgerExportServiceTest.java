@@ -0,0 +1,187 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.enums.ExportFormat;
+import com.expenseshare.demo.exception.GroupNotFoundException;
+import com.expenseshare.demo.exception.InvalidExpenseDataException;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.services.LedgerExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LedgerExportServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement expenseStatement;
+
+    @Mock
+    private PreparedStatement settlementStatement;
+
+    // lenient: CSV and NDJSON read the same row through different getters
+    @Mock(strictness = Mock.Strictness.LENIENT)
+    private ResultSet expenseRows;
+
+    @Mock
+    private ResultSet settlementRows;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    private LedgerExportService ledgerExportService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ledgerExportService = new LedgerExportService(dataSource, transactionManager, new ObjectMapper(),
+                groupRepository, 500);
+
+        when(expenseRows.next()).thenReturn(true, false);
+        when(expenseRows.getLong(1)).thenReturn(7L);
+        when(expenseRows.getString(1)).thenReturn("7");
+        when(expenseRows.getTimestamp(2)).thenReturn(Timestamp.valueOf(LocalDateTime.of(2026, 10, 1, 19, 30)));
+        when(expenseRows.getString(3)).thenReturn("Dinner, \"fancy\"");
+        when(expenseRows.getBigDecimal(4)).thenReturn(new BigDecimal("30.00"));
+        when(expenseRows.getLong(5)).thenReturn(2L);
+        when(expenseRows.getString(5)).thenReturn("2");
+        when(expenseRows.getLong(6)).thenReturn(1L);
+        when(expenseRows.getString(6)).thenReturn("1");
+        when(expenseRows.getBigDecimal(7)).thenReturn(new BigDecimal("10.00"));
+        when(expenseRows.getString(8)).thenReturn("EQUAL");
+    }
+
+    private void stubCursors() throws Exception {
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.prepareStatement(anyString(), anyInt(), anyInt()))
+                .thenReturn(expenseStatement, settlementStatement);
+        when(expenseStatement.executeQuery()).thenReturn(expenseRows);
+        when(settlementStatement.executeQuery()).thenReturn(settlementRows);
+        when(settlementRows.next()).thenReturn(false);
+    }
+
+    @Test
+    void exportGroupLedger_Csv_StreamsRowsFromForwardOnlyCursor() throws Exception {
+        // Arrange
+        stubCursors();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        ledgerExportService.exportGroupLedger(1L, ExportFormat.CSV).writeTo(output);
+
+        // Assert
+        assertEquals("record_type,record_id,occurred_at,description,total_amount,from_user_id,to_user_id,amount,detail\r\n"
+                        + "EXPENSE_SHARE,7,2026-10-01T19:30,\"Dinner, \"\"fancy\"\"\",30.00,2,1,10.00,EQUAL\r\n",
+                output.toString(StandardCharsets.UTF_8));
+        verify(connection, times(2)).prepareStatement(anyString(),
+                eq(ResultSet.TYPE_FORWARD_ONLY), eq(ResultSet.CONCUR_READ_ONLY));
+        verify(expenseStatement).setFetchSize(500);
+        verify(expenseStatement).setLong(1, 1L);
+        verify(expenseRows).close();
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void exportGroupLedger_Ndjson_WritesOneObjectPerLine() throws Exception {
+        // Arrange
+        stubCursors();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        ledgerExportService.exportGroupLedger(1L, ExportFormat.NDJSON).writeTo(output);
+
+        // Assert
+        assertEquals("{\"record_type\":\"EXPENSE_SHARE\",\"record_id\":7,\"occurred_at\":\"2026-10-01T19:30\","
+                        + "\"description\":\"Dinner, \\\"fancy\\\"\",\"total_amount\":30.00,\"from_user_id\":2,"
+                        + "\"to_user_id\":1,\"amount\":10.00,\"detail\":\"EQUAL\"}\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportGroupLedger_ArchivedSettlement_StillExported() throws Exception {
+        // Arrange: two settlements in a migrated database, then the older one archived the way ArchiveService does
+        String url = "jdbc:h2:mem:ledger_export_archive;DB_CLOSE_DELAY=-1";
+        Flyway.configure().dataSource(url, "sa", "").load().migrate();
+        DriverManagerDataSource database = new DriverManagerDataSource(url, "sa", "");
+        try (Connection seed = database.getConnection(); Statement statement = seed.createStatement()) {
+            statement.executeUpdate("INSERT INTO users (id, user_name, email_id, role) VALUES "
+                    + "(1, 'alice', 'alice@example.com', 'USER'), (2, 'bob', 'bob@example.com', 'USER')");
+            statement.executeUpdate("INSERT INTO groups (id, name) VALUES (1, 'Flat')");
+            statement.executeUpdate("INSERT INTO settlements (id, payer_id, receiver_id, amount, description, status, "
+                    + "settlement_date) VALUES (5, 2, 1, 25.00, 'Rent', 'COMPLETED', TIMESTAMP '2026-01-10 12:00:00'), "
+                    + "(6, 2, 1, 10.00, 'Power', 'COMPLETED', TIMESTAMP '2026-09-10 12:00:00')");
+            statement.executeUpdate("INSERT INTO settlement_details (id, settlement_id, group_id, amount_settled, "
+                    + "balance_before, balance_after) VALUES (50, 5, 1, 25.00, 25.00, 0.00), (60, 6, 1, 10.00, 10.00, 0.00)");
+
+            statement.executeUpdate("INSERT INTO archived_settlements (id, payer_id, receiver_id, amount, description, "
+                    + "status, settlement_date, created_at, archived_at) SELECT id, payer_id, receiver_id, amount, "
+                    + "description, status, settlement_date, created_at, CURRENT_TIMESTAMP FROM settlements WHERE id = 5");
+            statement.executeUpdate("INSERT INTO archived_settlement_details (id, settlement_id, group_id, amount_settled, "
+                    + "balance_before, balance_after) SELECT id, settlement_id, group_id, amount_settled, balance_before, "
+                    + "balance_after FROM settlement_details WHERE settlement_id = 5");
+            statement.executeUpdate("DELETE FROM settlement_details WHERE settlement_id = 5");
+            statement.executeUpdate("DELETE FROM settlements WHERE id = 5");
+        }
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        LedgerExportService exportService = new LedgerExportService(database,
+                new DataSourceTransactionManager(database), new ObjectMapper(), groupRepository, 500);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        exportService.exportGroupLedger(1L, ExportFormat.CSV).writeTo(output);
+
+        // Assert
+        assertEquals("record_type,record_id,occurred_at,description,total_amount,from_user_id,to_user_id,amount,detail\r\n"
+                        + "SETTLEMENT,5,2026-01-10T12:00,Rent,25.00,2,1,25.00,COMPLETED\r\n"
+                        + "SETTLEMENT,6,2026-09-10T12:00,Power,10.00,2,1,10.00,COMPLETED\r\n",
+                output.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void exportGroupLedger_UnknownGroup_ThrowsBeforeStreaming() {
+        // Arrange
+        when(groupRepository.existsById(99L)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(GroupNotFoundException.class, () ->
+                ledgerExportService.exportGroupLedger(99L, ExportFormat.CSV));
+        verifyNoInteractions(dataSource);
+    }
+
+    @Test
+    void parseFormat_UnknownFormat_ThrowsException() {
+        assertEquals(ExportFormat.NDJSON, LedgerExportService.parseFormat("ndjson"));
+        assertThrows(InvalidExpenseDataException.class, () -> LedgerExportService.parseFormat("xlsx"));
+    }
+}
@@ -0,0 +1,178 @@
+package com.expenseshare.demo;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.expenseshare.demo.dto.ExpenseDto;
+import com.expenseshare.demo.dto.UserShareDto;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caller-side logging throughput: synchronous vs async file appender, and the cost of
+ * building log messages eagerly on a disabled level. The async appender is measured lossless
+ * (blocking when full, as outside prod) and with prod's neverBlock, which drops events when the
+ * queue is full; the dropped count is reported, since it inflates that rate. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class LoggingThroughputBenchmarkTest {
+
+    private static final int THREADS = 8;
+    private static final int EVENTS_PER_THREAD = 50_000;
+
+    @TempDir
+    Path tempDir;
+
+    private enum AppenderMode { SYNC, ASYNC_BLOCKING, ASYNC_NEVER_BLOCK }
+
+    @Test
+    void benchmarkSyncVersusAsyncFileAppender() throws Exception {
+        // warm-up
+        for (AppenderMode mode : AppenderMode.values()) {
+            measureAppender(mode, "warmup-" + mode + ".log");
+        }
+
+        double sync = measureAppender(AppenderMode.SYNC, "sync.log");
+        double blocking = measureAppender(AppenderMode.ASYNC_BLOCKING, "async-blocking.log");
+        double neverBlock = measureAppender(AppenderMode.ASYNC_NEVER_BLOCK, "async-never-block.log");
+        long total = (long) THREADS * EVENTS_PER_THREAD;
+        long dropped = total - countLines("async-never-block.log");
+
+        System.out.printf("Logging throughput (%d threads): sync=%,.0f events/s, async lossless=%,.0f events/s (%.1fx)%n",
+                THREADS, sync, blocking, blocking / sync);
+        System.out.printf("  async neverBlock=%,.0f events/s, %,d of %,d events dropped%n", neverBlock, dropped, total);
+    }
+
+    @Test
+    void benchmarkEagerVersusParameterizedDisabledDebug() {
+        LoggerContext context = new LoggerContext();
+        Logger logger = context.getLogger("com.expenseshare.demo.controller.ExpenseController");
+        logger.setLevel(Level.INFO);
+        ExpenseDto dto = sampleExpense(50);
+
+        int iterations = 200_000;
+        for (int i = 0; i < iterations; i++) {
+            logger.debug("Creating expense request: " + dto);
+            logger.debug("Creating expense request - Group: {}, Paid by: {}", dto.getGroupId(), dto.getPaidByUserId());
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            logger.debug("Creating expense request: " + dto);
+        }
+        long eager = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            logger.debug("Creating expense request - Group: {}, Paid by: {}", dto.getGroupId(), dto.getPaidByUserId());
+        }
+        long parameterized = System.nanoTime() - start;
+
+        System.out.printf("Disabled debug call: eager toString=%d ns/op, parameterized=%d ns/op%n",
+                eager / iterations, parameterized / iterations);
+    }
+
+    private double measureAppender(AppenderMode mode, String fileName) throws Exception {
+        LoggerContext context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger{36} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> file = new FileAppender<>();
+        file.setContext(context);
+        file.setFile(tempDir.resolve(fileName).toString());
+        file.setEncoder(encoder);
+        file.start();
+
+        Appender<ILoggingEvent> appender = file;
+        if (mode != AppenderMode.SYNC) {
+            AsyncAppender asyncAppender = new AsyncAppender();
+            asyncAppender.setContext(context);
+            asyncAppender.setQueueSize(16384);
+            if (mode == AppenderMode.ASYNC_BLOCKING) {
+                // Lossless: callers wait for queue space and INFO is never discarded
+                asyncAppender.setDiscardingThreshold(0);
+            } else {
+                // Prod settings: default discarding threshold, never wait for queue space
+                asyncAppender.setNeverBlock(true);
+            }
+            asyncAppender.addAppender(file);
+            asyncAppender.start();
+            appender = asyncAppender;
+        }
+
+        Logger logger = context.getLogger("com.expenseshare.demo.services.BalanceService");
+        logger.setLevel(Level.INFO);
+        logger.setAdditive(false);
+        logger.addAppender(appender);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch ready = new CountDownLatch(THREADS);
+        CountDownLatch go = new CountDownLatch(1);
+        List<java.util.concurrent.Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                ready.countDown();
+                go.await();
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    logger.info("Updating balance - Group: {}, Debtor: {}, Creditor: {}, Amount: {}",
+                            1L, i, i + 1, BigDecimal.TEN);
+                }
+                return null;
+            }));
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (java.util.concurrent.Future<?> future : futures) {
+            future.get();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+        context.stop();
+
+        return (double) THREADS * EVENTS_PER_THREAD / (elapsed / 1_000_000_000.0);
+    }
+
+    private long countLines(String fileName) throws IOException {
+        try (var lines = Files.lines(tempDir.resolve(fileName))) {
+            return lines.count();
+        }
+    }
+
+    private static ExpenseDto sampleExpense(int members) {
+        List<UserShareDto> shares = new ArrayList<>();
+        for (long i = 1; i <= members; i++) {
+            shares.add(UserShareDto.builder().userId(i).share(new BigDecimal("10.00")).build());
+        }
+        return ExpenseDto.builder()
+                .description("Dinner")
+                .amount(new BigDecimal("10.00").multiply(BigDecimal.valueOf(members)))
+                .groupId(1L)
+                .paidByUserId(1L)
+                .splitType("UNEQUAL")
+                .userShares(shares)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.concurrency.TokenBucket;
+import com.expenseshare.demo.enums.RateLimitClass;
+import com.expenseshare.demo.exception.RateLimitExceededException;
+import com.expenseshare.demo.security.RateLimitFilter;
+import com.expenseshare.demo.security.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("expenseshare.ratelimit.settlement.principal.capacity", "2")
+                .withProperty("expenseshare.ratelimit.settlement.principal.refill-per-second", "0.5")
+                .withProperty("expenseshare.ratelimit.settlement.group.capacity", "1")
+                .withProperty("expenseshare.ratelimit.settlement.group.refill-per-second", "0.5");
+        rateLimiter = new RateLimiter(meterRegistry, environment, true);
+    }
+
+    @Test
+    void tokenBucket_AllowsBurstThenRefillsAtRate() {
+        // Arrange: 3 tokens, 10 per second
+        long start = 0;
+        TokenBucket bucket = new TokenBucket(3, 10, start);
+        long interval = TimeUnit.MILLISECONDS.toNanos(100);
+
+        // Act & Assert
+        assertEquals(0, bucket.tryAcquire(start));
+        assertEquals(0, bucket.tryAcquire(start));
+        assertEquals(0, bucket.tryAcquire(start));
+        assertEquals(interval, bucket.tryAcquire(start));
+        assertEquals(0, bucket.tryAcquire(start + interval));
+        assertFalse(bucket.isFull(start + interval));
+        assertTrue(bucket.isFull(start + 4 * interval));
+    }
+
+    @Test
+    void tryAcquirePrincipal_OverLimit_ReturnsWaitAndCountsThrottle() {
+        // Act
+        Duration first = rateLimiter.tryAcquirePrincipal(RateLimitClass.SETTLEMENT, "user:1");
+        Duration second = rateLimiter.tryAcquirePrincipal(RateLimitClass.SETTLEMENT, "user:1");
+        Duration third = rateLimiter.tryAcquirePrincipal(RateLimitClass.SETTLEMENT, "user:1");
+        Duration otherUser = rateLimiter.tryAcquirePrincipal(RateLimitClass.SETTLEMENT, "user:2");
+
+        // Assert
+        assertTrue(first.isZero());
+        assertTrue(second.isZero());
+        assertTrue(third.compareTo(Duration.ofMillis(1500)) > 0);
+        assertTrue(otherUser.isZero());
+        assertEquals(1.0, meterRegistry.counter(RateLimiter.THROTTLED,
+                "class", "settlement", "scope", "principal").count());
+    }
+
+    @Test
+    void checkGroups_SecondSettlementInGroup_ThrowsWithRetryAfter() {
+        // Arrange
+        rateLimiter.checkGroups(RateLimitClass.SETTLEMENT, List.of(7L));
+
+        // Act
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.checkGroups(RateLimitClass.SETTLEMENT, List.of(8L, 7L)));
+
+        // Assert
+        assertEquals(2, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.counter(RateLimiter.THROTTLED,
+                "class", "settlement", "scope", "group").count());
+    }
+
+    @Test
+    void filter_ExhaustedBucket_Answers429WithRetryAfter() throws Exception {
+        // Arrange
+        RateLimitFilter filter = new RateLimitFilter(rateLimiter);
+        MockHttpServletResponse allowed = new MockHttpServletResponse();
+        MockHttpServletResponse throttled = new MockHttpServletResponse();
+        MockFilterChain throttledChain = new MockFilterChain();
+
+        // Act: group 7 only has one settlement token
+        filter.doFilter(settleRequest("/balances/group/7/plan/apply", "10.0.0.1"), allowed, new MockFilterChain());
+        filter.doFilter(settleRequest("/balances/group/7/plan/apply", "10.0.0.2"), throttled, throttledChain);
+
+        // Assert
+        assertEquals(200, allowed.getStatus());
+        assertEquals(429, throttled.getStatus());
+        assertEquals("2", throttled.getHeader("Retry-After"));
+        assertNull(throttledChain.getRequest());
+    }
+
+    private static MockHttpServletRequest settleRequest(String path, String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
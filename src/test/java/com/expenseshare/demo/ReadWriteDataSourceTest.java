@@ -0,0 +1,96 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.config.ReadWriteDataSourceConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReadWriteDataSourceTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+
+    @BeforeEach
+    void setUp() {
+        // Arrange: two separate databases, each naming itself in a marker table
+        DataSource primary = database("routing_primary");
+        DataSource replica = database("routing_replica");
+        DataSource routing = new ReadWriteDataSourceConfig().dataSource(primary, replica);
+
+        jdbcTemplate = new JdbcTemplate(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(routing);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @Test
+    void readOnlyTransaction_UsesReadPool() {
+        // Act
+        String source = readOnly.execute(status -> currentDatabase());
+
+        // Assert
+        assertEquals("routing_replica", source);
+    }
+
+    @Test
+    void readWriteTransactionAndPlainStatements_UseWritePool() {
+        // Act
+        String inTransaction = readWrite.execute(status -> currentDatabase());
+        String withoutTransaction = currentDatabase();
+
+        // Assert
+        assertEquals("routing_primary", inTransaction);
+        assertEquals("routing_primary", withoutTransaction);
+    }
+
+    @Test
+    void readDataSource_SharedHikariSettingsThenReadOverrides() {
+        // Arrange
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:routing_primary");
+        properties.setUsername("sa");
+        properties.setDriverClassName("org.h2.Driver");
+        MockEnvironment environment = new MockEnvironment()
+                .withProperty("spring.datasource.hikari.connection-timeout", "1234")
+                .withProperty("spring.datasource.hikari.maximum-pool-size", "50")
+                .withProperty("spring.datasource.hikari.pool-name", "write-pool");
+
+        // Act
+        try (HikariDataSource read = new ReadWriteDataSourceConfig().readDataSource(properties, environment,
+                "jdbc:h2:mem:routing_replica", "read-pool", 5)) {
+
+            // Assert
+            assertEquals(1234, read.getConnectionTimeout());
+            assertEquals(5, read.getMaximumPoolSize());
+            assertEquals("read-pool", read.getPoolName());
+            assertEquals("jdbc:h2:mem:routing_replica", read.getJdbcUrl());
+            assertTrue(read.isReadOnly());
+        }
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject("SELECT name FROM marker", String.class);
+    }
+
+    private static DataSource database(String name) {
+        DriverManagerDataSource dataSource =
+                new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS marker (name VARCHAR(64))");
+        jdbcTemplate.update("DELETE FROM marker");
+        jdbcTemplate.update("INSERT INTO marker (name) VALUES (?)", name);
+        return dataSource;
+    }
+}
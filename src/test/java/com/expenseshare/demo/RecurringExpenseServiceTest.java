@@ -0,0 +1,230 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.BalanceDelta;
+import com.expenseshare.demo.dto.RecurringExpenseDto;
+import com.expenseshare.demo.entity.Expense;
+import com.expenseshare.demo.entity.Group;
+import com.expenseshare.demo.entity.RecurringExpense;
+import com.expenseshare.demo.entity.RecurringShare;
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.enums.RecurrenceFrequency;
+import com.expenseshare.demo.enums.SplitType;
+import com.expenseshare.demo.exception.InvalidExpenseDataException;
+import com.expenseshare.demo.repository.ExpenseRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.RecurringExpenseRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import com.expenseshare.demo.services.BalanceService;
+import com.expenseshare.demo.services.RecurringExpenseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecurringExpenseServiceTest {
+
+    @Mock
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private RecurringExpenseService recurringExpenseService;
+
+    private Group testGroup;
+    private User payer;
+    private RecurringExpense rent;
+
+    @BeforeEach
+    void setUp() {
+        payer = User.builder().id(1L).userName("payer").build();
+        User user1 = User.builder().id(2L).userName("user1").build();
+        User user2 = User.builder().id(3L).userName("user2").build();
+
+        testGroup = Group.builder()
+                .id(1L)
+                .name("Flat")
+                .users(Set.of(payer, user1, user2))
+                .build();
+
+        rent = RecurringExpense.builder()
+                .id(1L)
+                .description("Rent")
+                .amount(new BigDecimal("30.00"))
+                .group(testGroup)
+                .paidBy(payer)
+                .splitType(SplitType.EQUAL)
+                .frequency(RecurrenceFrequency.MONTHLY)
+                .startDate(LocalDate.of(2026, 7, 1))
+                .nextOccurrence(LocalDate.of(2026, 7, 1))
+                .build();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void materializeDue_CatchesUpMissedOccurrencesWithOneBalanceUpdate() {
+        // Arrange: three monthly occurrences were missed
+        when(recurringExpenseRepository.findDueInGroupsForUpdate(List.of(1L), LocalDate.of(2026, 9, 15)))
+                .thenReturn(List.of(rent));
+
+        // Act
+        int created = recurringExpenseService.materializeDue(List.of(1L), LocalDate.of(2026, 9, 15));
+
+        // Assert
+        assertEquals(3, created);
+        assertEquals(LocalDate.of(2026, 10, 1), rent.getNextOccurrence());
+
+        ArgumentCaptor<List<Expense>> expenses = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepository).saveAll(expenses.capture());
+        assertEquals(3, expenses.getValue().size());
+        assertEquals("Rent (2026-08-01)", expenses.getValue().get(1).getDescription());
+        assertEquals(3, expenses.getValue().get(0).getExpenseShares().size());
+
+        ArgumentCaptor<List<BalanceDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(balanceService, times(1)).applyDeltas(deltas.capture());
+        assertEquals(Set.of(
+                new BalanceDelta(1L, 2L, 1L, new BigDecimal("30.00")),
+                new BalanceDelta(1L, 3L, 1L, new BigDecimal("30.00"))), Set.copyOf(deltas.getValue()));
+    }
+
+    @Test
+    void materializeDue_PastEndDate_DeactivatesDefinition() {
+        // Arrange
+        rent.setEndDate(LocalDate.of(2026, 8, 15));
+        when(recurringExpenseRepository.findDueInGroupsForUpdate(anyCollection(), any(LocalDate.class)))
+                .thenReturn(List.of(rent));
+
+        // Act
+        int created = recurringExpenseService.materializeDue(List.of(1L), LocalDate.of(2026, 12, 1));
+
+        // Assert
+        assertEquals(2, created);
+        assertFalse(rent.isActive());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void materializeDue_InvalidDefinitions_DeactivatedWithoutFailingOthers() {
+        // Arrange: an equal split in a group that lost its members, and a share user who left the group
+        Group emptyGroup = Group.builder().id(2L).name("Empty").users(Set.of()).build();
+        RecurringExpense emptyGroupRent = RecurringExpense.builder()
+                .id(2L)
+                .description("Storage")
+                .amount(new BigDecimal("10.00"))
+                .group(emptyGroup)
+                .paidBy(payer)
+                .splitType(SplitType.EQUAL)
+                .frequency(RecurrenceFrequency.MONTHLY)
+                .nextOccurrence(LocalDate.of(2026, 9, 1))
+                .build();
+        RecurringExpense departedShare = RecurringExpense.builder()
+                .id(3L)
+                .description("Internet")
+                .amount(new BigDecimal("20.00"))
+                .group(testGroup)
+                .paidBy(payer)
+                .splitType(SplitType.UNEQUAL)
+                .shares(List.of(new RecurringShare(9L, new BigDecimal("20.00"))))
+                .frequency(RecurrenceFrequency.MONTHLY)
+                .nextOccurrence(LocalDate.of(2026, 9, 1))
+                .build();
+        when(recurringExpenseRepository.findDueInGroupsForUpdate(anyCollection(), any(LocalDate.class)))
+                .thenReturn(List.of(rent, emptyGroupRent, departedShare));
+        when(userRepository.findAllById(Set.of(9L))).thenReturn(List.of());
+
+        // Act
+        int created = recurringExpenseService.materializeDue(List.of(1L, 2L), LocalDate.of(2026, 9, 15));
+
+        // Assert
+        assertEquals(3, created);
+        assertTrue(rent.isActive());
+        assertFalse(emptyGroupRent.isActive());
+        assertFalse(departedShare.isActive());
+        assertEquals(LocalDate.of(2026, 9, 1), departedShare.getNextOccurrence());
+
+        ArgumentCaptor<List<Expense>> expenses = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepository).saveAll(expenses.capture());
+        assertTrue(expenses.getValue().stream().allMatch(expense -> expense.getDescription().startsWith("Rent")));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void materializeDue_MonthEndStart_KeepsMonthEnd() {
+        // Arrange
+        rent.setStartDate(LocalDate.of(2027, 1, 31));
+        rent.setNextOccurrence(LocalDate.of(2027, 1, 31));
+        when(recurringExpenseRepository.findDueInGroupsForUpdate(anyCollection(), any(LocalDate.class)))
+                .thenReturn(List.of(rent));
+
+        // Act
+        int created = recurringExpenseService.materializeDue(List.of(1L), LocalDate.of(2027, 4, 30));
+
+        // Assert
+        assertEquals(4, created);
+        assertEquals(LocalDate.of(2027, 5, 31), rent.getNextOccurrence());
+
+        ArgumentCaptor<List<Expense>> expenses = ArgumentCaptor.forClass(List.class);
+        verify(expenseRepository).saveAll(expenses.capture());
+        assertEquals(List.of("Rent (2027-01-31)", "Rent (2027-02-28)", "Rent (2027-03-31)", "Rent (2027-04-30)"),
+                expenses.getValue().stream().map(Expense::getDescription).toList());
+    }
+
+    @Test
+    void materializeDue_NothingDue_DoesNotWrite() {
+        // Arrange
+        when(recurringExpenseRepository.findDueInGroupsForUpdate(anyCollection(), any(LocalDate.class)))
+                .thenReturn(List.of());
+
+        // Act
+        int created = recurringExpenseService.materializeDue(List.of(1L), LocalDate.of(2026, 9, 15));
+
+        // Assert
+        assertEquals(0, created);
+        verifyNoInteractions(expenseRepository, balanceService);
+    }
+
+    @Test
+    void createRecurringExpense_InvalidFrequency_ThrowsException() {
+        // Arrange
+        RecurringExpenseDto request = RecurringExpenseDto.builder()
+                .description("Rent")
+                .amount(new BigDecimal("30.00"))
+                .groupId(1L)
+                .paidByUserId(1L)
+                .splitType("EQUAL")
+                .frequency("FORTNIGHTLY")
+                .build();
+
+        // Act & Assert
+        assertThrows(InvalidExpenseDataException.class, () ->
+                recurringExpenseService.createRecurringExpense(request));
+        verifyNoInteractions(recurringExpenseRepository);
+    }
+}
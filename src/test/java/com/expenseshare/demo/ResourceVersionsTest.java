@@ -0,0 +1,56 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.readmodel.ResourceVersions;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourceVersionsTest {
+
+    private final ResourceVersions resourceVersions = new ResourceVersions();
+
+    @Test
+    void onBalanceChanged_ChangesETagsOfBothUsersAndTheGroup() {
+        // Arrange
+        String debtor = resourceVersions.userETag(1L);
+        String creditor = resourceVersions.userETag(2L);
+        String bystander = resourceVersions.userETag(3L);
+        String group = resourceVersions.groupETag(5L);
+
+        // Act
+        resourceVersions.onBalanceChanged(BalanceChangedEvent.builder()
+                .groupId(5L).debtorId(1L).creditorId(2L)
+                .previousAmount(BigDecimal.ZERO).newAmount(BigDecimal.TEN).build());
+
+        // Assert
+        assertNotEquals(debtor, resourceVersions.userETag(1L));
+        assertNotEquals(creditor, resourceVersions.userETag(2L));
+        assertEquals(bystander, resourceVersions.userETag(3L));
+        assertNotEquals(group, resourceVersions.groupETag(5L));
+    }
+
+    @Test
+    void onExpenseSpending_ChangesOnlyThatGroupsETag() {
+        // Arrange
+        String group = resourceVersions.groupETag(5L);
+        String otherGroup = resourceVersions.groupETag(6L);
+
+        // Act
+        resourceVersions.onExpenseSpending(ExpenseSpendingEvent.builder()
+                .groupId(5L).date(LocalDate.of(2026, 10, 1)).payerId(1L)
+                .amount(BigDecimal.TEN).shares(Map.of(1L, BigDecimal.TEN)).expenseCount(1).build());
+
+        // Assert
+        String changed = resourceVersions.groupETag(5L);
+        assertNotEquals(group, changed);
+        assertEquals(changed, resourceVersions.groupETag(5L));
+        assertEquals(otherGroup, resourceVersions.groupETag(6L));
+        assertTrue(changed.startsWith("\"") && changed.endsWith("\""));
+    }
+}
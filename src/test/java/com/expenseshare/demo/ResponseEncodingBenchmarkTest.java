@@ -0,0 +1,95 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.ExpenseResponseDto;
+import com.expenseshare.demo.dto.ExpenseShareResponseDto;
+import com.expenseshare.demo.mapper.CompactResponseMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Payload size and serialization time of a large group's expense listing: full JSON against the
+ * compact dictionary form in JSON, CBOR and Smile, each also gzipped. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class ResponseEncodingBenchmarkTest {
+
+    private static final int EXPENSES = 2_000;
+    private static final int MEMBERS = 25;
+    private static final int ITERATIONS = 50;
+
+    private final ObjectMapper json = Jackson2ObjectMapperBuilder.json().build();
+    private final ObjectMapper cbor = Jackson2ObjectMapperBuilder.cbor().build();
+    private final ObjectMapper smile = Jackson2ObjectMapperBuilder.smile().build();
+
+    @Test
+    void benchmarkExpenseListingEncodings() throws IOException {
+        List<ExpenseResponseDto> expenses = sampleExpenses();
+
+        System.out.printf("Expense listing, %d expenses x %d shares%n", EXPENSES, MEMBERS);
+        System.out.printf("%-14s %12s %12s %14s%n", "encoding", "bytes", "gzip bytes", "serialize ms");
+        report("json", json, () -> expenses);
+        report("json compact", json, () -> CompactResponseMapper.toCompactExpenses(expenses));
+        report("cbor compact", cbor, () -> CompactResponseMapper.toCompactExpenses(expenses));
+        report("smile compact", smile, () -> CompactResponseMapper.toCompactExpenses(expenses));
+    }
+
+    private void report(String name, ObjectMapper mapper, Supplier<Object> body) throws IOException {
+        // warm-up
+        for (int i = 0; i < ITERATIONS; i++) {
+            mapper.writeValueAsBytes(body.get());
+        }
+
+        long start = System.nanoTime();
+        byte[] bytes = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            bytes = mapper.writeValueAsBytes(body.get());
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / ITERATIONS;
+
+        System.out.printf("%-14s %,12d %,12d %14.2f%n", name, bytes.length, gzip(bytes).length, millis);
+    }
+
+    private static byte[] gzip(byte[] bytes) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(bytes);
+        }
+        return out.toByteArray();
+    }
+
+    private static List<ExpenseResponseDto> sampleExpenses() {
+        List<ExpenseResponseDto> expenses = new ArrayList<>(EXPENSES);
+        BigDecimal share = new BigDecimal("4.00");
+        for (int i = 0; i < EXPENSES; i++) {
+            List<ExpenseShareResponseDto> shares = new ArrayList<>(MEMBERS);
+            for (long member = 1; member <= MEMBERS; member++) {
+                shares.add(new ExpenseShareResponseDto(member, "member-with-a-long-name-" + member, share));
+            }
+            long payer = i % MEMBERS + 1;
+            expenses.add(ExpenseResponseDto.builder()
+                    .id((long) i)
+                    .description("Expense " + i)
+                    .amount(new BigDecimal("100.00"))
+                    .groupId(1L)
+                    .groupName("Summer trip to the mountains")
+                    .paidByUserId(payer)
+                    .paidByUserName("member-with-a-long-name-" + payer)
+                    .splitType("EQUAL")
+                    .createdAt(LocalDateTime.of(2026, 1, 1, 12, 0).plusHours(i))
+                    .shares(shares)
+                    .build());
+        }
+        return expenses;
+    }
+}
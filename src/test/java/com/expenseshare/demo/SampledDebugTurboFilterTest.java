@@ -0,0 +1,69 @@
+package com.expenseshare.demo;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import com.expenseshare.demo.monitoring.SampledDebugTurboFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SampledDebugTurboFilterTest {
+
+    private LoggerContext context;
+    private ListAppender<ILoggingEvent> appender;
+
+    @BeforeEach
+    void setUp() {
+        context = new LoggerContext();
+        SampledDebugTurboFilter filter = new SampledDebugTurboFilter();
+        filter.setLoggers("com.expenseshare.demo.services.BalanceService");
+        filter.setSampleRate(5);
+        filter.setContext(context);
+        filter.start();
+        context.addTurboFilter(filter);
+
+        appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger root = context.getLogger(Logger.ROOT_LOGGER_NAME);
+        root.setLevel(Level.DEBUG);
+        root.addAppender(appender);
+    }
+
+    @Test
+    void testDebugEventsAreSampled() {
+        Logger logger = context.getLogger("com.expenseshare.demo.services.BalanceService");
+
+        for (int i = 0; i < 10; i++) {
+            logger.debug("Balance updated {}", i);
+        }
+
+        assertEquals(2, appender.list.size());
+    }
+
+    @Test
+    void testOtherLevelsAndLoggersAreNotSampled() {
+        Logger sampled = context.getLogger("com.expenseshare.demo.services.BalanceService");
+        Logger other = context.getLogger("com.expenseshare.demo.services.ExpenseService");
+
+        for (int i = 0; i < 10; i++) {
+            sampled.info("Balance update completed {}", i);
+            other.debug("Expense created {}", i);
+        }
+
+        assertEquals(20, appender.list.size());
+    }
+
+    @Test
+    void testIsDebugEnabledIsNotSampled() {
+        Logger logger = context.getLogger("com.expenseshare.demo.services.BalanceService");
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(logger.isDebugEnabled());
+        }
+    }
+}
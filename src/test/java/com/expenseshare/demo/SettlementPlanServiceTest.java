@@ -0,0 +1,181 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.BalanceDelta;
+import com.expenseshare.demo.dto.SettleBalanceRequestDto;
+import com.expenseshare.demo.dto.SettlementPlanDto;
+import com.expenseshare.demo.entity.BalanceRewrite;
+import com.expenseshare.demo.entity.Group;
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.entity.UserBalance;
+import com.expenseshare.demo.events.BalanceChangedEvent;
+import com.expenseshare.demo.exception.PreconditionFailedException;
+import com.expenseshare.demo.readmodel.ResourceVersions;
+import com.expenseshare.demo.repository.BalanceRewriteRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.UserBalanceRepository;
+import com.expenseshare.demo.services.BalanceService;
+import com.expenseshare.demo.services.SettlementPlanService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SettlementPlanServiceTest {
+
+    @Mock
+    private UserBalanceRepository userBalanceRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private BalanceService balanceService;
+
+    @Mock
+    private BalanceRewriteRepository balanceRewriteRepository;
+
+    @Mock
+    private ResourceVersions resourceVersions;
+
+    @InjectMocks
+    private SettlementPlanService settlementPlanService;
+
+    private Group group;
+    private User alice;
+    private User bob;
+    private User carol;
+
+    @BeforeEach
+    void setUp() {
+        alice = User.builder().id(1L).userName("alice").build();
+        bob = User.builder().id(2L).userName("bob").build();
+        carol = User.builder().id(3L).userName("carol").build();
+        group = Group.builder().id(1L).name("Trip").build();
+    }
+
+    @Test
+    void getPlan_ChainOfDebts_CollapsesToOneTransfer() {
+        // Arrange: alice owes bob 10, bob owes carol 10
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(userBalanceRepository.findByGroupId(1L)).thenReturn(List.of(
+                balance(alice, bob, "10.00"), balance(bob, carol, "10.00")));
+
+        // Act
+        SettlementPlanDto plan = settlementPlanService.getPlan(1L);
+
+        // Assert
+        assertEquals(1, plan.getTransfers().size());
+        SettleBalanceRequestDto transfer = plan.getTransfers().get(0);
+        assertEquals(1L, transfer.getPayerId());
+        assertEquals(3L, transfer.getReceiverId());
+        assertEquals(new BigDecimal("10.00"), transfer.getAmount());
+        assertFalse(plan.isMatchesBalances());
+    }
+
+    @Test
+    void getPlan_CachedUntilGroupBalanceChanges() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(userBalanceRepository.findByGroupId(1L)).thenReturn(List.of(balance(alice, bob, "10.00")));
+
+        // Act
+        SettlementPlanDto first = settlementPlanService.getPlan(1L);
+        SettlementPlanDto second = settlementPlanService.getPlan(1L);
+        settlementPlanService.onBalanceChanged(BalanceChangedEvent.builder()
+                .groupId(2L).debtorId(1L).creditorId(2L)
+                .previousAmount(BigDecimal.ZERO).newAmount(BigDecimal.ONE).build());
+        SettlementPlanDto otherGroupChanged = settlementPlanService.getPlan(1L);
+        settlementPlanService.onBalanceChanged(BalanceChangedEvent.builder()
+                .groupId(1L).debtorId(1L).creditorId(2L)
+                .previousAmount(BigDecimal.ZERO).newAmount(BigDecimal.ONE).build());
+        SettlementPlanDto recomputed = settlementPlanService.getPlan(1L);
+
+        // Assert
+        assertSame(first, second);
+        assertSame(first, otherGroupChanged);
+        assertNotSame(first, recomputed);
+        assertTrue(first.isMatchesBalances());
+        verify(userBalanceRepository, times(2)).findByGroupId(1L);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyPlan_RewritesBalancesToPlannedTransfers() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(resourceVersions.groupETag(1L)).thenReturn("\"g1-e-4\"");
+        when(userBalanceRepository.findByGroupId(1L)).thenReturn(List.of(
+                balance(alice, bob, "10.00"), balance(bob, carol, "10.00")));
+
+        // Act
+        SettlementPlanDto plan = settlementPlanService.applyPlan(1L, "\"g1-e-4\"");
+
+        // Assert: both chain links removed, alice now owes carol directly
+        assertTrue(plan.isMatchesBalances());
+        ArgumentCaptor<List<BalanceDelta>> deltas = ArgumentCaptor.forClass(List.class);
+        verify(balanceService).applyDeltas(deltas.capture());
+        assertEquals(Set.of(
+                new BalanceDelta(1L, 2L, 1L, new BigDecimal("10.00")),
+                new BalanceDelta(1L, 3L, 2L, new BigDecimal("10.00")),
+                new BalanceDelta(1L, 1L, 3L, new BigDecimal("10.00"))), Set.copyOf(deltas.getValue()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void applyPlan_RecordsEachChangedPairBeforeRewriting() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(resourceVersions.groupETag(1L)).thenReturn("\"g1-e-4\"");
+        when(userBalanceRepository.findByGroupId(1L)).thenReturn(List.of(
+                balance(alice, bob, "10.00"), balance(bob, carol, "10.00")));
+
+        // Act
+        settlementPlanService.applyPlan(1L, "\"g1-e-4\"");
+
+        // Assert
+        ArgumentCaptor<List<BalanceRewrite>> rewrites = ArgumentCaptor.forClass(List.class);
+        InOrder inOrder = inOrder(balanceRewriteRepository, balanceService);
+        inOrder.verify(balanceRewriteRepository).saveAll(rewrites.capture());
+        inOrder.verify(balanceService).applyDeltas(anyList());
+        assertEquals(Set.of("1:2 10.00 -> 0", "2:3 10.00 -> 0", "1:3 0 -> 10.00"), rewrites.getValue().stream()
+                .map(rewrite -> rewrite.getDebtorId() + ":" + rewrite.getCreditorId() + " "
+                        + rewrite.getBalanceBefore() + " -> " + rewrite.getBalanceAfter())
+                .collect(Collectors.toSet()));
+        assertTrue(rewrites.getValue().stream().allMatch(rewrite -> rewrite.getGroupId().equals(1L)
+                && rewrite.getPlanETag().equals("\"g1-e-4\"") && rewrite.getAppliedAt() != null));
+    }
+
+    @Test
+    void applyPlan_GroupChangedSincePlanWasRead_RejectedWithoutChanges() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(resourceVersions.groupETag(1L)).thenReturn("\"g1-e-5\"");
+
+        // Act & Assert
+        assertThrows(PreconditionFailedException.class, () -> settlementPlanService.applyPlan(1L, "\"g1-e-4\""));
+        verify(userBalanceRepository, never()).findByGroupId(anyLong());
+        verifyNoInteractions(balanceRewriteRepository, balanceService);
+    }
+
+    private UserBalance balance(User debtor, User creditor, String amount) {
+        return UserBalance.builder()
+                .group(group)
+                .debtor(debtor)
+                .creditor(creditor)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
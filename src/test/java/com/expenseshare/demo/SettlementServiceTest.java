@@ -1,14 +1,19 @@
 package com.expenseshare.demo;
 
+import com.expenseshare.demo.dto.BatchSettlementRequestDto;
+import com.expenseshare.demo.dto.BatchSettlementResponseDto;
 import com.expenseshare.demo.dto.SettleBalanceRequestDto;
 import com.expenseshare.demo.dto.SettlementResponseDto;
 import com.expenseshare.demo.dto.UserBalanceResponseDto;
 import com.expenseshare.demo.entity.*;
 import com.expenseshare.demo.enums.SettlementStatus;
+import com.expenseshare.demo.exception.GenericException;
 import com.expenseshare.demo.exception.InvalidSettlementException;
 import com.expenseshare.demo.exception.UserNotFoundException;
 import com.expenseshare.demo.repository.*;
 import com.expenseshare.demo.services.SettlementService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.util.Lists;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -16,12 +21,15 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +52,12 @@ class SettlementServiceTest {
    
     @Mock
     private GroupRepository groupRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
    
     @InjectMocks
     private SettlementService settlementService;
@@ -128,6 +142,27 @@ class SettlementServiceTest {
         verify(userBalanceRepository).save(userBalance);
     }
 
+    @Test
+    void testSettleBalance_RecordsLockWaitTime() {
+        // Arrange
+        when(userRepository.findById(1L)).thenReturn(Optional.of(payer));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(receiver));
+        when(groupRepository.findGroupsWithBothUsers(1L, 2L)).thenReturn(Arrays.asList(testGroup));
+        when(userBalanceRepository.findGroupsWithBalancesBetweenUsers(1L, 2L)).thenReturn(Arrays.asList(1L));
+        when(userBalanceRepository.findBalancesBetweenUsersInGroupForUpdate(1L, 2L, 1L))
+                .thenReturn(Arrays.asList(userBalance));
+        testSettlement.setSettlementDetails(Lists.newArrayList());
+        when(settlementRepository.save(any(Settlement.class))).thenReturn(testSettlement);
+        when(settlementDetailRepository.save(any(SettlementDetail.class)))
+                .thenReturn(new SettlementDetail());
+
+        // Act
+        settlementService.settleBalance(validRequest);
+
+        // Assert
+        assertEquals(2L, meterRegistry.get("expenseshare.balance.lock.wait").timer().count());
+    }
+
     @Test
     void testSettleBalance_InvalidPayerId_ThrowsException() {
         // Arrange
@@ -158,6 +193,68 @@ class SettlementServiceTest {
             settlementService.settleBalance(validRequest));
     }
 
+    @Test
+    void testSettleBatch_AppliesAllSettlementsWithSingleLock() {
+        // Arrange
+        User third = User.builder().id(3L).userName("third").build();
+        UserBalance thirdBalance = UserBalance.builder()
+                .id(2L)
+                .group(testGroup)
+                .debtor(third)
+                .creditor(receiver)
+                .amount(new BigDecimal("20.00"))
+                .build();
+        when(userRepository.findAllById(any())).thenReturn(Arrays.asList(payer, receiver, third));
+        when(userBalanceRepository.findBalancesForPairsForUpdate(any(), any(), any()))
+                .thenReturn(Arrays.asList(userBalance, thirdBalance));
+
+        BatchSettlementRequestDto batch = BatchSettlementRequestDto.builder()
+                .settlements(Arrays.asList(
+                        SettleBalanceRequestDto.builder().payerId(1L).receiverId(2L).amount(new BigDecimal("30.00")).build(),
+                        SettleBalanceRequestDto.builder().payerId(3L).receiverId(2L).amount(new BigDecimal("20.00")).build(),
+                        SettleBalanceRequestDto.builder().payerId(1L).receiverId(2L).amount(new BigDecimal("20.00")).build()))
+                .build();
+
+        // Act
+        BatchSettlementResponseDto result = settlementService.settleBatch(batch);
+
+        // Assert
+        assertEquals(3, result.getSettlementCount());
+        assertEquals(new BigDecimal("70.00"), result.getTotalAmountSettled());
+        assertEquals(0, userBalance.getAmount().compareTo(BigDecimal.ZERO));
+        assertEquals(0, thirdBalance.getAmount().compareTo(BigDecimal.ZERO));
+        // Only the requested pairs are locked, not every balance among users 1, 2 and 3
+        verify(userBalanceRepository, times(1)).findBalancesForPairsForUpdate(
+                Set.of(1L, 3L), Set.of(2L), Set.of("1:2", "3:2"));
+        verify(settlementRepository).saveAll(anyList());
+        verify(userBalanceRepository).saveAll(any());
+        verify(groupRepository, never()).findGroupsWithBothUsers(anyLong(), anyLong());
+    }
+
+    @Test
+    void testSettleBatch_ExcessAmountInLaterEntry_RejectsWholeBatch() {
+        // Arrange
+        when(userRepository.findAllById(any())).thenReturn(Arrays.asList(payer, receiver));
+        when(userBalanceRepository.findBalancesForPairsForUpdate(any(), any(), any()))
+                .thenReturn(Arrays.asList(userBalance));
+
+        BatchSettlementRequestDto batch = BatchSettlementRequestDto.builder()
+                .settlements(Arrays.asList(
+                        SettleBalanceRequestDto.builder().payerId(1L).receiverId(2L).amount(new BigDecimal("30.00")).build(),
+                        SettleBalanceRequestDto.builder().payerId(1L).receiverId(2L).amount(new BigDecimal("30.00")).build()))
+                .build();
+
+        // Act & Assert
+        assertThrows(GenericException.class, () -> settlementService.settleBatch(batch));
+        verify(settlementRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void testSettleBatch_EmptyBatch_ThrowsException() {
+        assertThrows(InvalidSettlementException.class, () ->
+                settlementService.settleBatch(BatchSettlementRequestDto.builder().settlements(List.of()).build()));
+    }
+
     @Test
     void testGetUserBalance_Success() {
         // Arrange
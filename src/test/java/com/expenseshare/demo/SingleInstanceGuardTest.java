@@ -0,0 +1,147 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.concurrency.SingleInstanceGuard;
+import com.expenseshare.demo.entity.InstanceLease;
+import com.expenseshare.demo.repository.InstanceLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SingleInstanceGuardTest {
+
+    @Mock
+    private InstanceLeaseRepository instanceLeaseRepository;
+
+    @Mock
+    private ConfigurableApplicationContext applicationContext;
+
+    private SingleInstanceGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        guard = new SingleInstanceGuard(instanceLeaseRepository, applicationContext, true, Duration.ofSeconds(30));
+    }
+
+    @Test
+    void testStart_NoLease_ClaimsIt() {
+        // Arrange
+        when(instanceLeaseRepository.renew(eq("expenseshare"), anyString(), any(), any())).thenReturn(0);
+        when(instanceLeaseRepository.saveAndFlush(any(InstanceLease.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        guard.start();
+
+        // Assert
+        assertTrue(guard.isRunning());
+        verify(instanceLeaseRepository).saveAndFlush(argThat(lease -> lease.getId().equals("expenseshare")));
+    }
+
+    @Test
+    void testStart_StaleLease_TakesItOver() {
+        // Arrange: renew matches a lease whose heartbeat is older than the timeout
+        when(instanceLeaseRepository.renew(eq("expenseshare"), anyString(), any(), any())).thenReturn(1);
+
+        // Act
+        guard.start();
+
+        // Assert
+        assertTrue(guard.isRunning());
+        verify(instanceLeaseRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testStart_LeaseHeldByLiveInstance_FailsStartup() {
+        // Arrange
+        when(instanceLeaseRepository.renew(eq("expenseshare"), anyString(), any(), any())).thenReturn(0);
+        when(instanceLeaseRepository.saveAndFlush(any(InstanceLease.class)))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(instanceLeaseRepository.findById("expenseshare")).thenReturn(Optional.of(InstanceLease.builder()
+                .id("expenseshare")
+                .owner("4242-other")
+                .heartbeatAt(LocalDateTime.now().minusSeconds(5))
+                .build()));
+
+        // Act & Assert
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> guard.start());
+        assertTrue(e.getMessage().contains("4242-other"));
+        assertFalse(guard.isRunning());
+    }
+
+    @Test
+    void testHeartbeat_LeaseTakenOver_RefusesTrafficAndShutsDown() {
+        // Arrange
+        when(instanceLeaseRepository.renew(eq("expenseshare"), anyString(), any(), any())).thenReturn(1, 0);
+        guard.start();
+
+        // Act
+        guard.heartbeat();
+        guard.heartbeat();
+
+        // Assert
+        verify(applicationContext).publishEvent(argThat((ApplicationEvent event) ->
+                event instanceof AvailabilityChangeEvent<?> change && change.getState() == ReadinessState.REFUSING_TRAFFIC));
+        verify(applicationContext, timeout(1000)).close();
+        verify(instanceLeaseRepository, times(2)).renew(eq("expenseshare"), anyString(), any(), any());
+    }
+
+    @Test
+    void testHeartbeat_DatabaseBrieflyUnavailable_KeepsServing() {
+        // Arrange
+        when(instanceLeaseRepository.renew(eq("expenseshare"), anyString(), any(), any()))
+                .thenReturn(1)
+                .thenThrow(new DataAccessResourceFailureException("connection refused"));
+        guard.start();
+
+        // Act
+        guard.heartbeat();
+
+        // Assert: the lease cannot have been taken over within the timeout
+        assertTrue(guard.isRunning());
+        verifyNoInteractions(applicationContext);
+    }
+
+    @Test
+    void testStop_ReleasesOwnLease() {
+        // Arrange
+        when(instanceLeaseRepository.renew(eq("expenseshare"), anyString(), any(), any())).thenReturn(1);
+        guard.start();
+
+        // Act
+        guard.stop();
+
+        // Assert
+        assertFalse(guard.isRunning());
+        verify(instanceLeaseRepository).release(eq("expenseshare"), anyString());
+    }
+
+    @Test
+    void testStart_Disabled_DoesNotTouchDatabase() {
+        // Arrange
+        SingleInstanceGuard disabled = new SingleInstanceGuard(instanceLeaseRepository, applicationContext, false, Duration.ofSeconds(30));
+
+        // Act
+        disabled.start();
+        disabled.heartbeat();
+
+        // Assert
+        assertTrue(disabled.isRunning());
+        verifyNoInteractions(instanceLeaseRepository);
+    }
+}
@@ -0,0 +1,120 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.GroupSpendTotalsDto;
+import com.expenseshare.demo.dto.MemberSpendingDto;
+import com.expenseshare.demo.entity.SpendCounter;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.SpendCounterRepository;
+import com.expenseshare.demo.services.SpendCounterService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendCounterServiceTest {
+
+    @Mock
+    private SpendCounterRepository spendCounterRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SpendCounterService spendCounterService;
+
+    private ExpenseSpendingEvent dinner;
+
+    @BeforeEach
+    void setUp() {
+        spendCounterService = new SpendCounterService(spendCounterRepository, groupRepository, transactionManager, 4);
+
+        Map<Long, BigDecimal> shares = new LinkedHashMap<>();
+        shares.put(1L, new BigDecimal("10.00"));
+        shares.put(2L, new BigDecimal("20.00"));
+        dinner = ExpenseSpendingEvent.builder()
+                .groupId(1L)
+                .date(LocalDate.of(2026, 10, 1))
+                .payerId(1L)
+                .amount(new BigDecimal("30.00"))
+                .shares(shares)
+                .expenseCount(1)
+                .build();
+    }
+
+    @Test
+    void onExpenseSpending_UpdatesGroupPayerAndSharesOnOneStripe() {
+        // Arrange
+        when(spendCounterRepository.addToStripe(anyLong(), anyLong(), anyInt(), any(), any(), anyLong())).thenReturn(1);
+
+        // Act
+        spendCounterService.onExpenseSpending(dinner);
+
+        // Assert
+        ArgumentCaptor<Integer> stripes = ArgumentCaptor.forClass(Integer.class);
+        verify(spendCounterRepository).addToStripe(eq(1L), eq(SpendCounterService.GROUP_TOTAL), stripes.capture(),
+                eq(new BigDecimal("30.00")), eq(new BigDecimal("30.00")), eq(1L));
+        verify(spendCounterRepository).addToStripe(eq(1L), eq(1L), stripes.capture(),
+                eq(new BigDecimal("30.00")), eq(new BigDecimal("10.00")), eq(1L));
+        verify(spendCounterRepository).addToStripe(eq(1L), eq(2L), stripes.capture(),
+                eq(BigDecimal.ZERO), eq(new BigDecimal("20.00")), eq(0L));
+        assertEquals(1, Set.copyOf(stripes.getAllValues()).size());
+        assertTrue(stripes.getValue() >= 0 && stripes.getValue() < 4);
+        verifyNoInteractions(transactionManager);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void onExpenseSpending_FirstExpenseForUser_CreatesStripesThenAdds() {
+        // Arrange: user 2's stripes do not exist yet
+        when(spendCounterRepository.addToStripe(anyLong(), anyLong(), anyInt(), any(), any(), anyLong())).thenReturn(1);
+        when(spendCounterRepository.addToStripe(eq(1L), eq(2L), anyInt(), any(), any(), anyLong())).thenReturn(0, 1);
+
+        // Act
+        spendCounterService.onExpenseSpending(dinner);
+
+        // Assert
+        ArgumentCaptor<List<SpendCounter>> created = ArgumentCaptor.forClass(List.class);
+        verify(spendCounterRepository).saveAll(created.capture());
+        assertEquals(4, created.getValue().size());
+        assertTrue(created.getValue().stream().allMatch(counter -> counter.getUserId().equals(2L)));
+        verify(transactionManager).commit(any());
+        verify(spendCounterRepository, times(2)).addToStripe(eq(1L), eq(2L), anyInt(), any(), any(), anyLong());
+    }
+
+    @Test
+    void getGroupTotals_SeparatesGroupTotalFromMembers() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        when(spendCounterRepository.sumByGroupId(1L)).thenReturn(List.of(
+                new MemberSpendingDto(0L, new BigDecimal("90.00"), new BigDecimal("90.00"), 3L),
+                new MemberSpendingDto(1L, new BigDecimal("90.00"), new BigDecimal("30.00"), 3L),
+                new MemberSpendingDto(2L, BigDecimal.ZERO, new BigDecimal("60.00"), 0L)));
+
+        // Act
+        GroupSpendTotalsDto totals = spendCounterService.getGroupTotals(1L);
+
+        // Assert
+        assertEquals(new BigDecimal("90.00"), totals.getTotalSpent());
+        assertEquals(3L, totals.getExpenseCount());
+        assertEquals(2, totals.getMembers().size());
+        assertEquals(new BigDecimal("60.00"), totals.getMembers().get(1).getShareAmount());
+    }
+}
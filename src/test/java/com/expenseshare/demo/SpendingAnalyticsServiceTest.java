@@ -0,0 +1,135 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.entity.SpendingRollup;
+import com.expenseshare.demo.enums.RollupGranularity;
+import com.expenseshare.demo.events.ExpenseSpendingEvent;
+import com.expenseshare.demo.exception.GenericException;
+import com.expenseshare.demo.repository.ExpenseRepository;
+import com.expenseshare.demo.repository.GroupRepository;
+import com.expenseshare.demo.repository.SpendingRollupRepository;
+import com.expenseshare.demo.repository.UserRepository;
+import com.expenseshare.demo.services.SpendingAnalyticsService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SpendingAnalyticsServiceTest {
+
+    @Mock
+    private SpendingRollupRepository spendingRollupRepository;
+
+    @Mock
+    private ExpenseRepository expenseRepository;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @Test
+    void applySpending_AddsToExistingBucketsAndInsertsMissingOnes() {
+        // Arrange: payer 1 paid 30.00 split between users 1 and 2; only user 2's daily bucket is new
+        ExpenseSpendingEvent event = ExpenseSpendingEvent.builder()
+                .groupId(1L)
+                .date(LocalDate.of(2026, 10, 17))
+                .payerId(1L)
+                .amount(new BigDecimal("30.00"))
+                .shares(Map.of(1L, new BigDecimal("15.00"), 2L, new BigDecimal("15.00")))
+                .expenseCount(1)
+                .build();
+        when(spendingRollupRepository.addToBucket(anyLong(), anyLong(), any(), any(), any(), any(), anyLong()))
+                .thenReturn(1);
+        when(spendingRollupRepository.addToBucket(eq(1L), eq(2L), eq(RollupGranularity.DAILY), any(), any(), any(), anyLong()))
+                .thenReturn(0);
+
+        // Act
+        spendingAnalyticsService.applySpending(event);
+
+        // Assert
+        verify(spendingRollupRepository).addToBucket(1L, 1L, RollupGranularity.DAILY, LocalDate.of(2026, 10, 17),
+                new BigDecimal("30.00"), new BigDecimal("15.00"), 1L);
+        verify(spendingRollupRepository).addToBucket(1L, 1L, RollupGranularity.MONTHLY, LocalDate.of(2026, 10, 1),
+                new BigDecimal("30.00"), new BigDecimal("15.00"), 1L);
+        verify(spendingRollupRepository).addToBucket(1L, 2L, RollupGranularity.MONTHLY, LocalDate.of(2026, 10, 1),
+                BigDecimal.ZERO, new BigDecimal("15.00"), 0L);
+
+        ArgumentCaptor<SpendingRollup> inserted = ArgumentCaptor.forClass(SpendingRollup.class);
+        verify(spendingRollupRepository, times(1)).save(inserted.capture());
+        assertEquals(2L, inserted.getValue().getUserId());
+        assertEquals(RollupGranularity.DAILY, inserted.getValue().getGranularity());
+        assertEquals(new BigDecimal("15.00"), inserted.getValue().getShareAmount());
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void rebuildGroup_RollsDaysUpIntoMonths() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+        List<Object[]> paid = new ArrayList<>();
+        paid.add(new Object[]{1L, LocalDate.of(2026, 9, 3), new BigDecimal("20.00"), 2L});
+        paid.add(new Object[]{1L, LocalDate.of(2026, 9, 20), new BigDecimal("10.00"), 1L});
+        List<Object[]> shares = new ArrayList<>();
+        shares.add(new Object[]{2L, LocalDate.of(2026, 9, 3), new BigDecimal("10.00")});
+        when(expenseRepository.sumPaidByPayerAndDay(1L)).thenReturn(paid);
+        when(expenseRepository.sumSharesByUserAndDay(1L)).thenReturn(shares);
+
+        // Act
+        int rollups = spendingAnalyticsService.rebuildGroup(1L);
+
+        // Assert: payer has two days and one month, user 2 one day and one month
+        assertEquals(5, rollups);
+        verify(spendingRollupRepository).deleteByGroupId(1L);
+        ArgumentCaptor<Iterable<SpendingRollup>> saved = ArgumentCaptor.forClass(Iterable.class);
+        verify(spendingRollupRepository).saveAll(saved.capture());
+        SpendingRollup payerMonth = null;
+        for (SpendingRollup rollup : saved.getValue()) {
+            if (rollup.getUserId().equals(1L) && rollup.getGranularity() == RollupGranularity.MONTHLY) {
+                payerMonth = rollup;
+            }
+        }
+        assertNotNull(payerMonth);
+        assertEquals(LocalDate.of(2026, 9, 1), payerMonth.getBucketStart());
+        assertEquals(new BigDecimal("30.00"), payerMonth.getPaidAmount());
+        assertEquals(3L, payerMonth.getExpenseCount());
+    }
+
+    @Test
+    void getGroupSpending_MonthlyRangeStartsAtFirstOfMonth() {
+        // Arrange
+        when(groupRepository.existsById(1L)).thenReturn(true);
+
+        // Act
+        spendingAnalyticsService.getGroupSpending(1L, RollupGranularity.MONTHLY,
+                LocalDate.of(2026, 3, 15), LocalDate.of(2026, 9, 30));
+
+        // Assert
+        verify(spendingRollupRepository).findGroupBuckets(1L, RollupGranularity.MONTHLY,
+                LocalDate.of(2026, 3, 1), LocalDate.of(2026, 9, 30));
+        verifyNoInteractions(expenseRepository);
+    }
+
+    @Test
+    void parseGranularity_Unknown_ThrowsException() {
+        assertEquals(RollupGranularity.DAILY, SpendingAnalyticsService.parseGranularity("daily"));
+        assertThrows(GenericException.class, () -> SpendingAnalyticsService.parseGranularity("hourly"));
+    }
+}
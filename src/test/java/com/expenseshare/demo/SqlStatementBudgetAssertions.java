@@ -0,0 +1,44 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.monitoring.SqlStatementBudgetFilter;
+import com.expenseshare.demo.monitoring.SqlStatementStats;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Helpers for asserting per-endpoint SQL statement budgets in tests.
+ */
+public final class SqlStatementBudgetAssertions {
+
+    private SqlStatementBudgetAssertions() {
+    }
+
+    /**
+     * Runs the block with statement counting enabled and fails if it issues more than maxStatements
+     */
+    public static SqlStatementStats assertStatementsAtMost(int maxStatements, Runnable block) {
+        SqlStatementStats stats = SqlStatementStats.begin();
+        try {
+            block.run();
+        } finally {
+            SqlStatementStats.end();
+        }
+        assertTrue(stats.getStatementCount() <= maxStatements,
+                () -> "Expected at most " + maxStatements + " statements but got " + stats.getStatementCount()
+                        + ": " + stats.topFingerprints(10));
+        return stats;
+    }
+
+    /**
+     * Checks the statement count reported by {@link SqlStatementBudgetFilter} on a MockMvc response
+     */
+    public static void assertResponseWithinBudget(MockHttpServletResponse response, int maxStatements) {
+        String header = response.getHeader(SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER);
+        assertNotNull(header, "Response has no " + SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER + " header");
+        int statements = Integer.parseInt(header);
+        assertTrue(statements <= maxStatements,
+                () -> "Expected at most " + maxStatements + " statements but response reported " + statements);
+    }
+}
@@ -0,0 +1,110 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.concurrency.GroupShardedExecutor;
+import com.expenseshare.demo.monitoring.SqlStatementBudgetFilter;
+import com.expenseshare.demo.monitoring.SqlStatementInspector;
+import com.expenseshare.demo.monitoring.SqlStatementStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlStatementStatsTest {
+
+    private final SqlStatementInspector inspector = new SqlStatementInspector();
+
+    @AfterEach
+    void tearDown() {
+        SqlStatementStats.end();
+    }
+
+    @Test
+    void testFingerprint_NormalizesLiteralsAndInLists() {
+        String first = SqlStatementStats.fingerprint("select * from users u1_0 where u1_0.id in (?, ?, ?) and name = 'bob'");
+        String second = SqlStatementStats.fingerprint("SELECT *   FROM users u1_0 WHERE u1_0.id IN (?,?) AND name = 'alice'");
+
+        assertEquals(first, second);
+        assertEquals("select * from users u1_0 where u1_0.id in (?) and name = ?", first);
+    }
+
+    @Test
+    void testInspector_CountsOnlyWhileStarted() {
+        inspector.inspect("select 1");
+        assertNull(SqlStatementStats.current());
+
+        SqlStatementStats stats = SqlStatementStats.begin();
+        inspector.inspect("select * from users where id = ?");
+        inspector.inspect("select * from users where id = ?");
+        inspector.inspect("select * from groups where id = ?");
+
+        assertEquals(3, stats.getStatementCount());
+        assertEquals(2, stats.getFingerprints().size());
+        assertEquals("2 x select * from users where id = ?", stats.topFingerprints(1).get(0));
+    }
+
+    @Test
+    void testAssertStatementsAtMost_FailsWhenBudgetExceeded() {
+        assertThrows(AssertionError.class, () -> SqlStatementBudgetAssertions.assertStatementsAtMost(1, () -> {
+            inspector.inspect("select * from users where id = ?");
+            inspector.inspect("select * from users where id = ?");
+        }));
+
+        SqlStatementStats stats = SqlStatementBudgetAssertions.assertStatementsAtMost(2, () ->
+                inspector.inspect("select * from users where id = ?"));
+        assertEquals(1, stats.getStatementCount());
+    }
+
+    @Test
+    void testFilter_WritesStatementHeaders() throws Exception {
+        SqlStatementBudgetFilter filter = new SqlStatementBudgetFilter(1, 500);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/expenses/group/1");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+            @Override
+            protected void doGet(jakarta.servlet.http.HttpServletRequest req,
+                                 jakarta.servlet.http.HttpServletResponse resp) throws java.io.IOException {
+                inspector.inspect("select * from expenses where group_id = ?");
+                resp.getWriter().write("[]");
+            }
+        });
+
+        filter.doFilter(request, response, chain);
+
+        assertEquals("1", response.getHeader(SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER));
+        assertNotNull(response.getHeader(SqlStatementBudgetFilter.DB_TIME_HEADER));
+        SqlStatementBudgetAssertions.assertResponseWithinBudget(response, 1);
+        assertNull(SqlStatementStats.current());
+    }
+
+    @Test
+    void testFilter_StatementsOnShardWorker_CountedForRequest() throws Exception {
+        GroupShardedExecutor executor = new GroupShardedExecutor(1, 10);
+        try {
+            SqlStatementBudgetFilter filter = new SqlStatementBudgetFilter(5, 500);
+            MockHttpServletRequest request = new MockHttpServletRequest("POST", "/expenses");
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain(new jakarta.servlet.http.HttpServlet() {
+                @Override
+                protected void doPost(jakarta.servlet.http.HttpServletRequest req,
+                                      jakarta.servlet.http.HttpServletResponse resp) throws java.io.IOException {
+                    inspector.inspect("select * from groups where id = ?");
+                    executor.run(1L, () -> {
+                        inspector.inspect("insert into expenses values (?)");
+                        inspector.inspect("update user_balances set amount = ? where id = ?");
+                    });
+                    resp.getWriter().write("{}");
+                }
+            });
+
+            filter.doFilter(request, response, chain);
+
+            assertEquals("3", response.getHeader(SqlStatementBudgetFilter.STATEMENT_COUNT_HEADER));
+            assertNull(executor.submit(1L, SqlStatementStats::current).join());
+        } finally {
+            executor.destroy();
+        }
+    }
+}
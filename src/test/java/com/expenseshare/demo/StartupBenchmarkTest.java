@@ -0,0 +1,115 @@
+package com.expenseshare.demo;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time from JVM launch to the first successful request, each run in a fresh JVM: the default
+ * configuration, the fast-startup profile, and (after mvn -Pfast-startup package) the extracted
+ * jar with AOT and the CDS archive. Run with: mvn test -Pbenchmark
+ */
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+    private static final int RUNS = 3;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(2);
+    private static final Path EXTRACTED_DIR = Path.of("target", "extracted");
+
+    private final HttpClient httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+
+    @Test
+    void benchmarkTimeToFirstRequest() throws Exception {
+        String java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+        String classpath = System.getProperty("java.class.path");
+        String mainClass = ExpenseSharingApplication.class.getName();
+
+        System.out.printf("%-24s %10s %10s%n", "mode", "min ms", "median ms");
+        report("default", List.of(java, "-cp", classpath, mainClass));
+        report("fast-startup profile", List.of(java, "-cp", classpath,
+                "-Dspring.profiles.active=fast-startup", mainClass));
+
+        Path archive = EXTRACTED_DIR.resolve("application.jsa");
+        Path jar = findExtractedJar();
+        if (jar != null && Files.exists(archive)) {
+            report("fast-startup AOT + CDS", List.of(java, "-XX:SharedArchiveFile=" + archive,
+                    "-Dspring.aot.enabled=true", "-Dspring.profiles.active=fast-startup", "-jar", jar.toString()));
+        } else {
+            System.out.println("(AOT + CDS skipped: run mvn -Pfast-startup package first)");
+        }
+    }
+
+    private void report(String mode, List<String> command) throws Exception {
+        List<Long> millis = new ArrayList<>();
+        for (int i = 0; i < RUNS; i++) {
+            millis.add(timeToFirstRequest(command));
+        }
+        Collections.sort(millis);
+        System.out.printf("%-24s %10d %10d%n", mode, millis.get(0), millis.get(RUNS / 2));
+    }
+
+    private long timeToFirstRequest(List<String> baseCommand) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>(baseCommand);
+        // Application arguments go last, after the main class or jar
+        command.addAll(Arrays.asList("--server.port=" + port, "--logging.level.root=WARN"));
+
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/health"))
+                .timeout(Duration.ofSeconds(5))
+                .build();
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .start();
+        try {
+            long deadline = start + STARTUP_TIMEOUT.toNanos();
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Application exited with " + process.exitValue());
+                }
+                try {
+                    if (httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    }
+                } catch (ConnectException e) {
+                    // Not listening yet
+                }
+                Thread.sleep(10);
+            }
+            throw new IllegalStateException("No successful request within " + STARTUP_TIMEOUT);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    private static Path findExtractedJar() {
+        File[] jars = EXTRACTED_DIR.toFile().listFiles((dir, name) -> name.endsWith(".jar"));
+        return jars != null && jars.length == 1 ? jars[0].toPath() : null;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.expenseshare.demo;
+
+import com.expenseshare.demo.dto.CustomOAuth2User;
+import com.expenseshare.demo.entity.User;
+import com.expenseshare.demo.enums.Role;
+import com.expenseshare.demo.events.UserCreatedEvent;
+import com.expenseshare.demo.repository.UserRepository;
+import com.expenseshare.demo.security.JwtPrincipalConverter;
+import com.expenseshare.demo.security.StatelessSecurityConfig;
+import com.expenseshare.demo.services.PrincipalUserService;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+import org.springframework.security.oauth2.jwt.JwtValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatelessJwtAuthenticationTest {
+
+    private static final String SECRET = "local-test-secret-that-is-at-least-256-bits-long";
+    private static final String ISSUER = "expenseshare-local";
+    private static final String AUDIENCE = "expenseshare-api";
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private JwtDecoder jwtDecoder;
+    private JwtPrincipalConverter converter;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        jwtDecoder = new StatelessSecurityConfig().jwtDecoder(SECRET, ISSUER, "", AUDIENCE, Duration.ofMinutes(15));
+        PrincipalUserService principalUserService =
+                new PrincipalUserService(userRepository, eventPublisher, Duration.ofMinutes(1), 100);
+        converter = new JwtPrincipalConverter(principalUserService, "LOCAL");
+    }
+
+    @Test
+    void convert_LocallyMintedToken_ResolvesCachedUserPrincipal() {
+        // Arrange
+        User admin = User.builder().id(1L).userName("admin@example.com").role(Role.ADMIN).build();
+        when(userRepository.findByProviderAndProviderId("LOCAL", "subject-1")).thenReturn(Optional.of(admin));
+        String token = mint(SECRET, AUDIENCE, Instant.now().plusSeconds(300));
+
+        // Act
+        AbstractAuthenticationToken first = converter.convert(jwtDecoder.decode(token));
+        AbstractAuthenticationToken second = converter.convert(jwtDecoder.decode(token));
+
+        // Assert
+        CustomOAuth2User principal = assertInstanceOf(CustomOAuth2User.class, first.getPrincipal());
+        assertEquals(admin, principal.getUser());
+        assertEquals("admin@example.com", principal.getName());
+        assertEquals("ROLE_ADMIN", first.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+        assertTrue(second.isAuthenticated());
+        verify(userRepository, times(1)).findByProviderAndProviderId("LOCAL", "subject-1");
+    }
+
+    @Test
+    void convert_PrincipalUserChanged_CachedAuthoritiesUnchanged() {
+        // Arrange
+        User member = User.builder().id(2L).userName("member@example.com").role(Role.USER).build();
+        when(userRepository.findByProviderAndProviderId("LOCAL", "subject-1")).thenReturn(Optional.of(member));
+        String token = mint(SECRET, AUDIENCE, Instant.now().plusSeconds(300));
+        CustomOAuth2User first = (CustomOAuth2User) converter.convert(jwtDecoder.decode(token)).getPrincipal();
+
+        // Act
+        first.getUser().setRole(Role.ADMIN);
+        member.setRole(Role.ADMIN);
+        AbstractAuthenticationToken second = converter.convert(jwtDecoder.decode(token));
+
+        // Assert
+        assertEquals("ROLE_USER", second.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).findFirst().orElseThrow());
+        assertNotSame(first.getUser(), ((CustomOAuth2User) second.getPrincipal()).getUser());
+    }
+
+    @Test
+    void convert_FirstTokenForSubject_CreatesUserAndPublishesEvent() {
+        // Arrange
+        when(userRepository.save(any(User.class))).thenAnswer(invocation -> {
+            User saved = invocation.getArgument(0);
+            saved.setId(5L);
+            return saved;
+        });
+        String token = mint(SECRET, AUDIENCE, Instant.now().plusSeconds(300));
+
+        // Act
+        AbstractAuthenticationToken authentication = converter.convert(jwtDecoder.decode(token));
+
+        // Assert
+        CustomOAuth2User principal = assertInstanceOf(CustomOAuth2User.class, authentication.getPrincipal());
+        assertEquals("LOCAL", principal.getUser().getProvider());
+        assertEquals("subject-1", principal.getUser().getProviderId());
+        assertEquals(Role.USER, principal.getUser().getRole());
+        verify(eventPublisher).publishEvent(any(UserCreatedEvent.class));
+    }
+
+    @Test
+    void decode_TokenSignedWithOtherKey_IsRejected() {
+        // Arrange
+        String token = mint("another-secret-that-is-also-at-least-256-bits-long", AUDIENCE,
+                Instant.now().plusSeconds(300));
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtDecoder.decode(token));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void decode_ExpiredOrWrongAudience_FailsValidation() {
+        // Arrange
+        String expired = mint(SECRET, AUDIENCE, Instant.now().minusSeconds(600));
+        String otherAudience = mint(SECRET, "some-other-api", Instant.now().plusSeconds(300));
+
+        // Act & Assert
+        assertThrows(JwtValidationException.class, () -> jwtDecoder.decode(expired));
+        assertThrows(JwtValidationException.class, () -> jwtDecoder.decode(otherAudience));
+    }
+
+    @Test
+    void jwtDecoder_JwksWithoutAudience_FailsStartup() {
+        // Act & Assert: an empty audience would accept ID tokens issued to any other client
+        assertThrows(IllegalStateException.class, () -> new StatelessSecurityConfig().jwtDecoder("", ISSUER,
+                "https://www.googleapis.com/oauth2/v3/certs", "", Duration.ofMinutes(15)));
+    }
+
+    private static String mint(String secret, String audience, Instant expiresAt) {
+        return Jwts.builder()
+                .setIssuer(ISSUER)
+                .setSubject("subject-1")
+                .setAudience(audience)
+                .claim("email", "admin@example.com")
+                .setIssuedAt(Date.from(expiresAt.minusSeconds(900)))
+                .setExpiration(Date.from(expiresAt))
+                .signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+                .compact();
+    }
+}
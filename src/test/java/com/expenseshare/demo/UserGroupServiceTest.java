@@ -5,7 +5,10 @@ import com.expenseshare.demo.entity.Group;
 import com.expenseshare.demo.entity.User;
 import com.expenseshare.demo.enums.Role;
 import com.expenseshare.demo.exception.DuplicateResourceException;
+import com.expenseshare.demo.events.GroupChangedEvent;
+import com.expenseshare.demo.events.UserCreatedEvent;
 import com.expenseshare.demo.exception.ResourceNotFoundException;
+import com.expenseshare.demo.readmodel.DirectoryIndex;
 import com.expenseshare.demo.repository.GroupRepository;
 import com.expenseshare.demo.repository.UserRepository;
 import com.expenseshare.demo.services.UserGroupService;
@@ -15,6 +18,10 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDateTime;
 import java.util.*;
@@ -31,6 +38,12 @@ class UserGroupServiceTest {
    
     @Mock
     private GroupRepository groupRepository;
+
+    @Mock
+    private DirectoryIndex directoryIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
    
     @InjectMocks
     private UserGroupService userGroupService;
@@ -531,4 +544,133 @@ class UserGroupServiceTest {
         assertTrue(result.isEmpty());
         verify(groupRepository).findAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    void testGetUsers_ReturnsRequestedPageOfSummaries() {
+        // Arrange
+        Pageable pageable = PageRequest.of(1, 2);
+        UserSummaryDto summary = UserSummaryDto.from(testUser);
+        when(userRepository.findUserSummaries(pageable)).thenReturn(new PageImpl<>(List.of(summary), pageable, 3));
+
+        // Act
+        PageResponseDto<UserSummaryDto> result = userGroupService.getUsers(pageable);
+
+        // Assert
+        assertEquals(List.of(summary), result.getContent());
+        assertEquals(1, result.getPage());
+        assertEquals(2, result.getSize());
+        assertEquals(3, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        verify(userRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetGroupDetails_CombinesSummaryAndMembers() {
+        // Arrange
+        when(groupRepository.findSummaryById(1L)).thenReturn(Optional.of(new GroupSummaryDto(1L, "Test Group", 1L)));
+        when(userRepository.findSummariesByGroupId(1L)).thenReturn(List.of(UserSummaryDto.from(testUser)));
+
+        // Act
+        GroupDetailDto result = userGroupService.getGroupDetails(1L);
+
+        // Assert
+        assertEquals("Test Group", result.getName());
+        assertEquals(1L, result.getMemberCount());
+        assertEquals("testuser", result.getMembers().get(0).getUserName());
+        verify(groupRepository, never()).findById(anyLong());
+    }
+
+    @Test
+    void testGetGroupDetails_GroupNotFound_ThrowsException() {
+        // Arrange
+        when(groupRepository.findSummaryById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        ResourceNotFoundException exception = assertThrows(
+            ResourceNotFoundException.class,
+            () -> userGroupService.getGroupDetails(1L)
+        );
+
+        assertEquals("Group not found with ID: 1", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void testCreateUser_PublishesUserCreatedForSearchIndex() {
+        // Arrange
+        when(userRepository.existsByUserName("testuser")).thenReturn(false);
+        when(userRepository.existsByEmailId("test@example.com")).thenReturn(false);
+        when(userRepository.save(any(User.class))).thenReturn(testUser);
+
+        // Act
+        userGroupService.createUser(validUserDto);
+
+        // Assert
+        verify(eventPublisher).publishEvent(UserCreatedEvent.of(testUser));
+    }
+
+    @Test
+    void testModifyGroup_PublishesPreviousAndNewName() {
+        // Arrange
+        Group existingGroup = Group.builder().id(1L).name("Old Name").users(new HashSet<>()).build();
+        when(groupRepository.findById(1L)).thenReturn(Optional.of(existingGroup));
+        when(groupRepository.save(any(Group.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        userGroupService.modifyGroup(validGroupDto);
+
+        // Assert
+        verify(eventPublisher).publishEvent(GroupChangedEvent.builder()
+                .groupId(1L)
+                .previousName("Old Name")
+                .name("Test Group")
+                .build());
+    }
+
+    @Test
+    void testSearchUsers_PagesIndexMatchesInIndexOrder() {
+        // Arrange: index order is 3, 1, 2; page 0 of size 2 holds 3 and 1
+        UserSummaryDto first = UserSummaryDto.builder().id(3L).userName("alan").build();
+        UserSummaryDto second = UserSummaryDto.builder().id(1L).userName("alice").build();
+        when(directoryIndex.matchUsers("al")).thenReturn(new DirectoryIndex.Matches(List.of(3L, 1L, 2L), false));
+        when(userRepository.findSummariesByIdIn(List.of(3L, 1L))).thenReturn(List.of(second, first));
+
+        // Act
+        PageResponseDto<UserSummaryDto> result = userGroupService.searchUsers("al", PageRequest.of(0, 2));
+
+        // Assert
+        assertEquals(List.of(first, second), result.getContent());
+        assertEquals(3, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertFalse(result.getTotalTruncated());
+    }
+
+    @Test
+    void testSearchUsers_MoreMatchesThanKept_ReportsTruncatedTotal() {
+        // Arrange: the index kept two matches and there were more
+        UserSummaryDto first = UserSummaryDto.builder().id(1L).userName("sam1").build();
+        when(directoryIndex.matchUsers("sam")).thenReturn(new DirectoryIndex.Matches(List.of(1L, 2L), true));
+        when(userRepository.findSummariesByIdIn(List.of(1L))).thenReturn(List.of(first));
+
+        // Act
+        PageResponseDto<UserSummaryDto> result = userGroupService.searchUsers("sam", PageRequest.of(0, 1));
+
+        // Assert
+        assertEquals(2, result.getTotalElements());
+        assertTrue(result.getTotalTruncated());
+    }
+
+    @Test
+    void testSearchGroups_PageBeyondMatches_SkipsQuery() {
+        // Arrange
+        when(directoryIndex.matchGroups("tr")).thenReturn(new DirectoryIndex.Matches(List.of(1L), false));
+
+        // Act
+        PageResponseDto<GroupSummaryDto> result = userGroupService.searchGroups("tr", PageRequest.of(5, 20));
+
+        // Assert
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(1, result.getTotalElements());
+        verify(groupRepository, never()).findSummariesByIdIn(any());
+    }
+}